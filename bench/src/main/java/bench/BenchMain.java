@@ -0,0 +1,29 @@
+package bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler always on,
+ * so every result has ops/s and bytes allocated per op (gc.alloc.rate.norm)
+ * <br> -- Takes the usual JMH command line i.e. a regex to pick benchmarks, -f 1, -rf json
+ * @author Ronni Perez
+ *
+ */
+public class BenchMain {
+
+	/**
+	 * Main
+	 * @param args -- JMH command line options
+	 */
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		new Runner(new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class)
+				.build()).run();
+	}
+}
@@ -0,0 +1,66 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.Loader;
+import model.Board;
+import model.Square;
+
+/**
+ * Board construction and single steps
+ * <br> -- construct: new Loader(18,18) and new Board(...) i.e. what every new game pays
+ * <br> -- movePiece: P1 steps back and forth between its start and the Square next to it
+ * <br> -- hasNeigbour: the check made before every step
+ * @author Ronni Perez
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+	private Board board;
+	private Square start;		//where P1 starts
+	private int toRow;		//a neighbor of start
+	private int toCol;
+	private boolean out;		//P1 is on the neighbor
+
+	@Setup
+	public void setup() {
+		Loader loader = new Loader(18, 18);
+		board = new Board(loader.getTopology(), 4);
+		start = board.getPlayer(1).getLocation();
+		toRow = start.neighbourRow(0);
+		toCol = start.neighbourCol(0);
+	}
+
+	@Benchmark
+	public Board construct() {
+		Loader loader = new Loader(18, 18);
+		return new Board(loader.getTopology(), 4);
+	}
+
+	@Benchmark
+	public boolean movePiece() {
+		out = !out;
+		return out ? board.movePiece(1, toRow, toCol) : board.movePiece(1, start.row, start.col);
+	}
+
+	@Benchmark
+	public boolean hasNeigbour() {
+		return start.hasNeigbour(toRow, toCol);
+	}
+}
@@ -0,0 +1,53 @@
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.SimulationStats;
+import main.Simulator;
+
+/**
+ * End-to-end: whole computer-only games, from dealing the cards to the winning accusation
+ * <br> -- One op is one game on one thread
+ * @author Ronni Perez
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameBenchmark {
+	@Param({"3", "6"})
+	private int players;
+
+	private Simulator simulator;
+	private Random rand;		//fixed seed so every run plays the same games
+	private SimulationStats stats;
+
+	@Setup
+	public void setup() {
+		simulator = new Simulator(players, 10000);
+		rand = new Random(42);
+		stats = new SimulationStats();
+	}
+
+	@Benchmark
+	public SimulationStats playGame() {
+		simulator.playGame(rand, stats);
+		return stats;
+	}
+}
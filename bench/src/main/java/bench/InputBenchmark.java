@@ -0,0 +1,59 @@
+package bench;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import view.InputParser;
+import view.OutputStream;
+import view.Pacing;
+
+/**
+ * Answering questions from a piped script: numbers and row,col pairs
+ * @author Ronni Perez
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputBenchmark {
+	private static final int COMMANDS = 10000;		//per script
+
+	private byte[] script;		//alternating "12,7" and "5" lines
+	private OutputStream screen;		//complaints, there are none
+
+	@Setup
+	public void setup() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < COMMANDS; i++) {
+			sb.append(i % 2 == 0 ? "12,7\n" : "5\n");
+		}
+		script = sb.toString().getBytes();
+		screen = new OutputStream(java.io.OutputStream.nullOutputStream(), Pacing.Profile.NONE);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(COMMANDS)
+	public long script() {
+		InputParser parser = new InputParser(new ByteArrayInputStream(script), screen);
+		long sum = 0;
+		for (int i = 0; i < COMMANDS; i++) {
+			sum += i % 2 == 0 ? parser.parseCoords()[0] : parser.parseNum(0, 6);
+		}
+		return sum;
+	}
+}
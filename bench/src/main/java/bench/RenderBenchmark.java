@@ -0,0 +1,68 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.Loader;
+import model.Board;
+import model.Square;
+import view.BoardRenderer;
+import view.OutputStream;
+import view.Pacing;
+
+/**
+ * Printing the board, as done after every step, into a sink that drops everything
+ * so only the cost of building the text is measured
+ * <br> -- outBoard: full frame through OutputStream
+ * <br> -- differential: P1 steps back and forth, only the two changed Squares are repainted
+ * @author Ronni Perez
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderBenchmark {
+	private Board board;
+	private OutputStream screen;		//game output, to sink
+	private BoardRenderer diff;		//differential renderer
+	private java.io.OutputStream sink;		//drops everything
+	private Square start;		//where P1 starts
+	private boolean out;		//P1 is on the Square next to start
+
+	@Setup
+	public void setup() {
+		Loader loader = new Loader(18, 18);
+		board = new Board(loader.getTopology(), 6);
+		sink = java.io.OutputStream.nullOutputStream();
+		screen = new OutputStream(sink, Pacing.Profile.NONE);		//no sleeping
+		diff = new BoardRenderer(true);
+		diff.render(board, sink);		//first frame is always full
+		start = board.getPlayer(1).getLocation();
+	}
+
+	@Benchmark
+	public void outBoard() {
+		screen.outBoard(board);
+	}
+
+	@Benchmark
+	public void differential() {
+		out = !out;
+		if (out) 	board.movePiece(1, start.neighbourRow(0), start.neighbourCol(0));
+		else 	board.movePiece(1, start.row, start.col);
+		diff.render(board, sink);
+	}
+}
@@ -0,0 +1,90 @@
+package bench;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.BoardGenerator;
+import main.Loader;
+import model.Board;
+import model.BoardTopology;
+import model.Square;
+import view.OutputStream;
+import view.Pacing;
+
+/**
+ * The same work as BoardBenchmark and RenderBenchmark on generated boards of growing size
+ * <br> -- parse: read and parse the board file, paid once per board file
+ * <br> -- newBoard: a new game on the parsed board
+ * <br> -- reachable: Squares P1 can get to with a roll of 6
+ * <br> -- outBoard: print the whole board into a sink that drops everything
+ * @author Ronni Perez
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ScaleBenchmark {
+	@Param({"25", "100", "1000"})
+	private int size;
+
+	private File file;		//generated board
+	private BoardTopology topology;
+	private Board board;
+	private OutputStream screen;		//game output, dropped
+
+	@Setup
+	public void setup() throws IOException {
+		file = File.createTempFile("board" + size + "-", ".txt");
+		try (Writer out = new FileWriter(file)) {
+			new BoardGenerator(size).write(out);
+		}
+		topology = new Loader(file.getPath()).getTopology();
+		board = new Board(topology, 6);
+		screen = new OutputStream(java.io.OutputStream.nullOutputStream(), Pacing.Profile.NONE);		//no sleeping
+	}
+
+	@TearDown
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Benchmark
+	public BoardTopology parse() {
+		return Loader.parse(file.getPath());
+	}
+
+	@Benchmark
+	public Board newBoard() {
+		return new Board(topology, 6);
+	}
+
+	@Benchmark
+	public List<Square> reachable() {
+		return board.reachable(1, 6);
+	}
+
+	@Benchmark
+	public void outBoard() {
+		screen.outBoard(board);
+	}
+}
@@ -0,0 +1,59 @@
+package bench;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.GameEngine;
+import main.GameSnapshot;
+import main.Loader;
+
+/**
+ * Checkpointing and restoring a 6 player game through one direct ByteBuffer
+ * @author Ronni Perez
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotBenchmark {
+	private Loader loader;
+	private GameEngine engine;
+	private Random rand;
+	private ByteBuffer buffer;		//one snapshot, reused
+
+	@Setup
+	public void setup() {
+		loader = new Loader();
+		rand = new Random(42);
+		engine = new GameEngine(6, rand, loader);
+		buffer = ByteBuffer.allocateDirect(GameSnapshot.size(6, loader.getTopology()));
+		GameSnapshot.write(engine, buffer);
+	}
+
+	@Benchmark
+	public int save() {
+		buffer.clear();
+		return GameSnapshot.write(engine, buffer);
+	}
+
+	@Benchmark
+	public GameEngine restore() {
+		buffer.rewind();
+		return GameSnapshot.read(buffer, loader, rand);
+	}
+}
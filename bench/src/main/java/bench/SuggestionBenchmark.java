@@ -0,0 +1,74 @@
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.GameEngine;
+import model.Board;
+import model.Deck;
+import model.Player;
+
+/**
+ * Refuting a suggestion the way Cluedo.checkSuggestion does:
+ * every other player in seat order until one holds one of the three cards
+ * <br> -- Cycles through every one of the 324 possible suggestions
+ * @author Ronni Perez
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SuggestionBenchmark {
+	private Board board;
+	private int players;
+	private int[] suggestions;		//every person, weapon, room as a set of cards
+	private int next;		//suggestion made by next call
+
+	@Setup
+	public void setup() {
+		players = 4;
+		board = new GameEngine(players, new Random(42)).getBoard();
+		suggestions = new int[Deck.PEOPLE.length * Deck.WEAPONS.length * Deck.ROOMS.length];
+		int i = 0;
+		for (String person : Deck.PEOPLE) {
+			for (String weapon : Deck.WEAPONS) {
+				for (String room : Deck.ROOMS) {
+					suggestions[i++] = Deck.mask(person, weapon, room);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return Deck index of card shown, -1 if no one could refute
+	 */
+	@Benchmark
+	public int refute() {
+		int suggestion = suggestions[next];
+		next = next + 1 == suggestions.length ? 0 : next + 1;
+		int nextPlayer = 1;		//P1 suggests
+		for (int i = 1; i < players; i++) {
+			nextPlayer = nextPlayer >= players ? 1 : nextPlayer + 1;
+			Player p = board.getPlayer(nextPlayer);
+			int card = p.refute(suggestion);
+			if (card >= 0) {
+				return card;
+			}
+		}
+		return -1;
+	}
+}
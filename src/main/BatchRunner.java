@@ -0,0 +1,253 @@
+package main;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import view.InputParser;
+import view.OutputStream;
+import view.Pacing;
+
+/**
+ * Replays scripted sessions of Cluedo at full speed i.e. bug reports and tournament logs, many at a time
+ * <br> -- A script is what was typed: how many play, choices, coordinates...
+ * one answer per line, exactly as Cluedo asks for them
+ * <br> -- Lines at the top starting with # are the header, "# seed 42" replays the games dealt from seed 42,
+ * "# bots 2" has the computer play the last 2 seats and "# bots ask" answers how many in the script, as --bots= does
+ * <br> -- The game runs without pauses, its output is dropped or, with capture, written next to the script (.out)
+ * <br> -- After the script the state of the game is summed up in a digest (see Cluedo.digest()),
+ * kept next to the script (.digest) the first time and compared with it every time after
+ * <br> -- A script may stop anywhere, a replay of a bug report usually stops mid-game
+ * @author Ronni Perez
+ *
+ */
+public class BatchRunner {
+	public static final String SCRIPT = ".script";		//file name ending of scripts
+
+	private final Loader loader;		//board every script is played on, parsed once
+	private final long seed;		//seed of scripts without one of their own
+	private final boolean capture;		//keep the output of every script
+	private final boolean update;		//overwrite digests instead of comparing with them
+
+	/**
+	 * Constructor
+	 * @param loader -- board to play on
+	 * @param seed -- seed of scripts without a "# seed" header
+	 * @param capture -- true to write the output of every script next to it
+	 * @param update -- true to write every digest as expected from now on, i.e. after an intended change
+	 */
+	public BatchRunner(Loader loader, long seed, boolean capture, boolean update) {
+		this.loader = loader;
+		this.seed = seed;
+		this.capture = capture;
+		this.update = update;
+	}
+
+	/**
+	 * Outcome of a script
+	 */
+	public enum Status {
+		RECORDED,		//no digest yet, this one is kept
+		MATCHED,		//same digest as last time
+		MISMATCHED,		//digest changed, the expected one is left as it was
+		FAILED		//the game threw, see Result.error
+	}
+
+	/**
+	 * What one script did
+	 */
+	public static class Result {
+		public final Path script;
+		public final Status status;
+		public final String digest;		//state the script left the game in, null if it failed
+		public final String error;		//what was thrown, null unless it failed
+		public final long nanos;		//time to play it
+
+		Result(Path script, Status status, String digest, String error, long nanos) {
+			this.script = script;
+			this.status = status;
+			this.digest = digest;
+			this.error = error;
+			this.nanos = nanos;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%-10s %6.1f ms  %s%s", status, nanos / 1e6, script, error != null ? "  "+error : "");
+		}
+	}
+
+	/**
+	 * Play a script, compare or record its digest
+	 * @param script -- i.e. reports/bug-12.script
+	 * @return what happened
+	 */
+	public Result run(Path script) {
+		long start = System.nanoTime();
+		try {
+			byte[] bytes = Files.readAllBytes(script);
+			int body = 0;		//first byte after the header
+			long seed = this.seed;
+			int bots = 0;		//everyone at the keyboard, as in Cluedo
+			while (body < bytes.length && bytes[body] == '#') {
+				int end = body;
+				while (end < bytes.length && bytes[end] != '\n') 	end++;
+				String line = new String(bytes, body + 1, end - body - 1, StandardCharsets.ISO_8859_1).trim();
+				if (line.startsWith("seed ")) {
+					seed = Long.parseLong(line.substring("seed ".length()).trim());
+				} else if (line.startsWith("bots ")) {
+					String n = line.substring("bots ".length()).trim();
+					bots = n.equals("ask") ? Cluedo.ASK_BOTS : Integer.parseInt(n);
+				}
+				body = Math.min(end + 1, bytes.length);
+			}
+
+			ByteArrayOutputStream transcript = capture ? new ByteArrayOutputStream() : null;
+			OutputStream out = new OutputStream(capture ? transcript : java.io.OutputStream.nullOutputStream(), Pacing.Profile.NONE);
+			Cluedo game = new Cluedo(out, loader, seed,
+					new InputParser(new ByteArrayInputStream(bytes, body, bytes.length - body), out), bots);
+			String ended = "ended quit";
+			try {
+				game.run();
+			} catch (NoSuchElementException e) {		//script stopped mid-game
+				ended = "ended input";
+			}
+			out.flush();
+			if (capture) {
+				Files.write(sibling(script, ".out"), transcript.toByteArray());
+			}
+			return compare(script, ended+"\n"+game.digest(), start);
+		} catch (IOException | RuntimeException e) {
+			return new Result(script, Status.FAILED, null, e.toString(), System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Check a digest against the one kept next to the script, keep it if there is none
+	 */
+	private Result compare(Path script, String digest, long start) throws IOException {
+		Path expected = sibling(script, ".digest");
+		Status status;
+		if (update || !Files.exists(expected)) {
+			Files.write(expected, digest.getBytes(StandardCharsets.ISO_8859_1));
+			status = Status.RECORDED;
+		} else {
+			String before = new String(Files.readAllBytes(expected), StandardCharsets.ISO_8859_1);
+			status = before.equals(digest) ? Status.MATCHED : Status.MISMATCHED;
+		}
+		return new Result(script, status, digest, null, System.nanoTime() - start);
+	}
+
+	/**
+	 * Play many scripts at the same time
+	 * Every script has its own game, parser and output, they share only the board topology
+	 * @param scripts -- script files
+	 * @param threads -- scripts played at the same time i.e. number of cores
+	 * @return a result per script, in the same order
+	 */
+	public List<Result> runAll(List<Path> scripts, int threads) {
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Result>> running = new ArrayList<Future<Result>>();
+			for (Path script : scripts) {
+				running.add(pool.submit(() -> run(script)));
+			}
+			List<Result> results = new ArrayList<Result>();
+			for (Future<Result> r : running) {
+				results.add(r.get());
+			}
+			return results;
+		} catch (InterruptedException | ExecutionException e) {
+			throw new IllegalStateException("Batch interrupted", e);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * @return path next to script with its .script ending replaced by ending
+	 */
+	private static Path sibling(Path script, String ending) {
+		String name = script.getFileName().toString();
+		if (name.endsWith(SCRIPT)) {
+			name = name.substring(0, name.length() - SCRIPT.length());
+		}
+		return script.resolveSibling(name + ending);
+	}
+
+	/**
+	 * @param paths -- script files, or directories searched for them
+	 * @return every script, sorted
+	 */
+	public static List<Path> scripts(List<Path> paths) {
+		List<Path> scripts = new ArrayList<Path>();
+		for (Path path : paths) {
+			if (!Files.isDirectory(path)) {
+				scripts.add(path);
+				continue;
+			}
+			try (Stream<Path> files = Files.walk(path)) {
+				scripts.addAll(files.filter(f -> f.toString().endsWith(SCRIPT)).sorted().collect(Collectors.toList()));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return scripts;
+	}
+
+	/**
+	 * Main
+	 * @param args -- script files or directories of them,
+	 * 	optional --capture to keep the output of every script, --update to overwrite every digest,
+	 * 	--seed=42 for scripts without a seed (default 0), --board=boards/big.txt, --threads=8 (default number of cores)
+	 */
+	public static void main(String[] args) {
+		boolean capture = false;
+		boolean update = false;
+		long seed = 0;
+		int threads = Runtime.getRuntime().availableProcessors();
+		Loader loader = null;
+		List<Path> paths = new ArrayList<Path>();
+		for (String arg : args) {
+			if (arg.equals("--capture")) 	capture = true;
+			else if (arg.equals("--update")) 	update = true;
+			else if (arg.startsWith("--seed=")) 	seed = Long.parseLong(arg.substring("--seed=".length()));
+			else if (arg.startsWith("--threads=")) 	threads = Integer.parseInt(arg.substring("--threads=".length()));
+			else if (arg.startsWith("--board=")) 	loader = new Loader(arg.substring("--board=".length()));
+			else 	paths.add(Paths.get(arg));
+		}
+		List<Path> scripts = scripts(paths);
+		long start = System.nanoTime();
+		List<Result> results = new BatchRunner(loader != null ? loader : new Loader(), seed, capture, update)
+				.runAll(scripts, threads);
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		int[] counts = new int[Status.values().length];
+		for (Result r : results) {
+			counts[r.status.ordinal()]++;
+			if (r.status == Status.MISMATCHED || r.status == Status.FAILED) {
+				System.out.println(r);
+			}
+		}
+		System.out.printf("%d scripts in %.2f s: %d recorded, %d matched, %d mismatched, %d failed%n", results.size(), seconds,
+				counts[Status.RECORDED.ordinal()], counts[Status.MATCHED.ordinal()],
+				counts[Status.MISMATCHED.ordinal()], counts[Status.FAILED.ordinal()]);
+		if (counts[Status.MISMATCHED.ordinal()] + counts[Status.FAILED.ordinal()] > 0) {
+			System.exit(1);
+		}
+	}
+}
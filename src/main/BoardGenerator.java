@@ -0,0 +1,146 @@
+package main;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Writes synthetic board files, in the same format as assets/board.txt, of any size from 25x25 to 1000x1000
+ * <br> -- The board is cut in 3 x 3 blocks, one room per block, playarea corridors around every room
+ * <br> -- Rooms get a door in the middle of every side, plus one more every 50 Squares on long sides
+ * <br> -- Opposite corner rooms are joined by stairwells, as on the real board
+ * <br> -- Six start positions on the outer edge
+ * Used to scale board construction, pathfinding and rendering well beyond the 18x18 board
+ * @author Ronni Perez
+ *
+ */
+public class BoardGenerator {
+	public static final int MIN_SIZE = 25;
+	public static final int MAX_SIZE = 1000;
+	private static final int DOOR_SPACING = 50;		//Squares between extra doors on a long side
+
+	//room code and name of each block, row by row
+	private static final String[][] ROOMS = {
+			{"KC", "Kitchen"}, {"BR", "Ball Room"}, {"CV", "Conservatory"},
+			{"DR", "Dining Room"}, {"LB", "Library"}, {"BL", "Billiard Room"},
+			{"LN", "Lounge"}, {"HL", "Hall"}, {"SD", "Study"} };
+
+	private final int size;		//rows and cols
+	private final int[] start;		//first row (and col) of each block, one extra entry at the end
+	private final int margin;		//playarea around a room inside its block
+
+	/**
+	 * Constructor
+	 * @param size -- rows and cols of the board, MIN_SIZE to MAX_SIZE
+	 */
+	public BoardGenerator(int size) {
+		if (size < MIN_SIZE || size > MAX_SIZE) {
+			throw new IllegalArgumentException("Board size must be "+MIN_SIZE+" to "+MAX_SIZE+", was "+size);
+		}
+		this.size = size;
+		start = new int[] {0, size / 3, 2 * size / 3, size};
+		margin = Math.max(2, size / 15);
+	}
+
+	/**
+	 * Write the board file
+	 * @param out -- where to write it
+	 */
+	public void write(Writer out) {
+		PrintWriter pw = new PrintWriter(out);
+		pw.println("# Generated "+size+"x"+size+" board, see BoardGenerator");
+		for (String[] room : ROOMS) {
+			pw.println("room "+room[0]+" "+room[1]);
+		}
+		for (int block = 0; block < 9; block++) {
+			writeDoors(pw, block);
+		}
+		//stairwells between opposite corners, into the centre of the other room
+		stairwell(pw, 0, 8);
+		stairwell(pw, 8, 0);
+		stairwell(pw, 2, 6);
+		stairwell(pw, 6, 2);
+		int[] mid = {(start[0] + start[1]) / 2, (start[1] + start[2]) / 2, (start[2] + start[3]) / 2};
+		pw.println("start "+(size - 1)+" "+mid[0]);		//same sides as the real board
+		pw.println("start "+mid[1]+" 0");
+		pw.println("start 0 "+mid[0]);
+		pw.println("start 0 "+mid[2]);
+		pw.println("start "+mid[1]+" "+(size - 1));
+		pw.println("start "+(size - 1)+" "+mid[2]);
+		StringBuilder line = new StringBuilder(size * 6);
+		for (int row = 0; row < size; row++) {
+			line.setLength(0);
+			for (int col = 0; col < size; col++) {
+				int block = blockAt(row, col);
+				line.append(block >= 0 ? "RM." + ROOMS[block][0] : "PA.0").append(' ');
+			}
+			pw.println(line);
+		}
+		pw.flush();
+	}
+
+	/**
+	 * Doors in the middle of every side of a room, plus one every DOOR_SPACING Squares
+	 * @param pw -- board file
+	 * @param block -- room number, 0 to 8
+	 */
+	private void writeDoors(PrintWriter pw, int block) {
+		int top = top(block), bottom = bottom(block), left = left(block), right = right(block);
+		for (int col = left + ((left + right) / 2 - left) % DOOR_SPACING; col <= right; col += DOOR_SPACING) {
+			pw.println("door "+top+" "+col+" "+(top - 1)+" "+col);
+			pw.println("door "+bottom+" "+col+" "+(bottom + 1)+" "+col);
+		}
+		for (int row = top + ((top + bottom) / 2 - top) % DOOR_SPACING; row <= bottom; row += DOOR_SPACING) {
+			pw.println("door "+row+" "+left+" "+row+" "+(left - 1));
+			pw.println("door "+row+" "+right+" "+row+" "+(right + 1));
+		}
+	}
+
+	private void stairwell(PrintWriter pw, int from, int to) {
+		pw.println("stairwell "+top(from)+" "+left(from)+" "+(top(to) + bottom(to)) / 2+" "+(left(to) + right(to)) / 2);
+	}
+
+	/**
+	 * @return room number at row,col, -1 if playarea
+	 */
+	private int blockAt(int row, int col) {
+		int r = row < start[1] ? 0 : row < start[2] ? 1 : 2;
+		int c = col < start[1] ? 0 : col < start[2] ? 1 : 2;
+		int block = r * 3 + c;
+		if (row < top(block) || row > bottom(block) || col < left(block) || col > right(block)) {
+			return -1;
+		}
+		return block;
+	}
+
+	/*room bounds, inclusive*/
+	private int top(int block) {
+		return start[block / 3] + margin;
+	}
+
+	private int bottom(int block) {
+		return start[block / 3 + 1] - margin - 1;
+	}
+
+	private int left(int block) {
+		return start[block % 3] + margin;
+	}
+
+	private int right(int block) {
+		return start[block % 3 + 1] - margin - 1;
+	}
+
+	/**
+	 * Main
+	 * @param args -- size i.e. 100, file to write i.e. boards/100.txt
+	 */
+	public static void main(String[] args) throws IOException {
+		int size = Integer.parseInt(args[0]);
+		try (Writer out = Files.newBufferedWriter(Paths.get(args[1]), StandardCharsets.ISO_8859_1)) {
+			new BoardGenerator(size).write(out);
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package main;
+
+import java.util.Random;
+
+import model.Board;
+import model.Deck;
+import model.Notebook;
+import model.Square;
+
+/**
+ * The computer: decides instantly from its 'Detective Pad', never reads System.in
+ * <br> -- Accuses as soon as its notebook knows the solution
+ * <br> -- Suggests whenever the rules allow i.e. once per turn in a room, naming a suspect and weapon not yet seen
+ * <br> -- Otherwise walks a shortest path to the nearest room not yet seen, or wanders if no room can be entered
+ * <br> -- Boxed in (a square without neighbours, possible on a generated board) it guesses, the only way to end its turn
+ * @author Ronni Perez
+ *
+ */
+public class BotController implements PlayerController {
+	private final Random rand;		//random source of suggestions and wandering
+
+	/**
+	 * Constructor
+	 * @param rand -- random source of the game it plays in, see GameRandom
+	 */
+	public BotController(Random rand) {
+		this.rand = rand;
+	}
+
+	@Override
+	public int choose(Board board, Notebook notes, int remaining, boolean canSuggest) {
+		if (notes.solution() != 0) {		//solved, accuse
+			return 2;
+		}
+		if (canSuggest) {		//in a room, not suggested yet this turn
+			return 3;
+		}
+		if (board.getPlayer(notes.owner()).getLocation().neighbourCount() == 0) {		//cannot move
+			return 2;
+		}
+		return 1;
+	}
+
+	/**
+	 * One step along a shortest path to the nearest room worth suggesting in
+	 */
+	@Override
+	public int[] move(Board board, Notebook notes, int remaining) {
+		Square loc = board.getPlayer(notes.owner()).getLocation();
+		if (loc.neighbourCount() == 0) {		//nowhere to go, stay put i.e. an invalid move
+			return new int[] {loc.row, loc.col};
+		}
+		String target = nearestRoom(board, loc, notes.notEnvelope());
+		int pick = -1;
+		int best = Board.UNREACHABLE;
+		for (int i = 0; target != null && i < loc.neighbourCount(); i++) {
+			int dist = board.distanceToRoom(loc.neighbourRow(i), loc.neighbourCol(i), target);
+			if (dist < best) {
+				best = dist;
+				pick = i;
+			}
+		}
+		if (pick < 0) {		//wander if no room can be entered
+			pick = rand.nextInt(loc.neighbourCount());
+		}
+		return new int[] {loc.neighbourRow(pick), loc.neighbourCol(pick)};
+	}
+
+	/**
+	 * A random suspect and weapon that might be the solution
+	 */
+	@Override
+	public String[] suggest(Board board, Notebook notes, String room) {
+		int seen = notes.notEnvelope();
+		return new String[] {Deck.name(randomUnseen(Deck.PEOPLE_MASK, seen)),
+				Deck.name(randomUnseen(Deck.WEAPONS_MASK, seen))};
+	}
+
+	/**
+	 * The solution if known, otherwise a guess among cards that might be the solution
+	 */
+	@Override
+	public String[] accuse(Board board, Notebook notes) {
+		int seen = notes.notEnvelope();
+		return new String[] {Deck.name(randomUnseen(Deck.PEOPLE_MASK, seen)),
+				Deck.name(randomUnseen(Deck.WEAPONS_MASK, seen)), Deck.name(randomUnseen(Deck.ROOMS_MASK, seen))};
+	}
+
+	/**
+	 * Nearest room other than the one at loc, preferring rooms whose card has not been seen
+	 * @param board -- game board
+	 * @param loc -- where the player stands
+	 * @param seen -- cards the player knows are not the solution
+	 * @return name of room, null if no room can be entered
+	 */
+	private static String nearestRoom(Board board, Square loc, int seen) {
+		String nearest = null;
+		long best = Board.UNREACHABLE;
+		for (String room : Deck.ROOMS) {
+			int dist = board.distanceToRoom(loc.row, loc.col, room);
+			if (room.equals(loc.getName()) || dist == Board.UNREACHABLE) {
+				continue;
+			}
+			long rank = (seen & Deck.bit(room)) != 0 ? dist + 1000L : dist;		//unseen rooms first
+			if (rank < best) {
+				best = rank;
+				nearest = room;
+			}
+		}
+		return nearest;
+	}
+
+	/**
+	 * @param kind -- bits of every card of a kind i.e. Deck.WEAPONS_MASK
+	 * @param seen -- cards known not to be the solution
+	 * @return index of a random card of a kind that has not been seen, any card of the kind if all have been seen
+	 */
+	private int randomUnseen(int kind, int seen) {
+		int unseen = kind & ~seen;
+		if (unseen == 0) {
+			unseen = kind;
+		}
+		for (int skip = rand.nextInt(Integer.bitCount(unseen)); skip > 0; skip--) {
+			unseen &= unseen - 1;		//drop lowest bit
+		}
+		return Integer.numberOfTrailingZeros(unseen);
+	}
+}
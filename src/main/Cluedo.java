@@ -1,17 +1,29 @@
 package main;
 
+import java.nio.file.Paths;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
+import main.Metrics.Counter;
+import main.Metrics.Timer;
+import view.BoardRenderer;
 import view.InputParser;
 import view.OutputStream;
+import view.Pacing;
 import model.Board;
 import model.Card;
 import model.CentreRoom;
+import model.Deck;
+import model.GameEvents;
+import model.Notebook;
+import model.SolutionInference;
 import model.Player;
 import model.Square;
 import model.Square.Type;
+import model.WeaponPlacement;
 
 /**
  * Has main logic of ClueDo game
@@ -25,33 +37,152 @@ import model.Square.Type;
  * <br> -- Cannot forfeit turn
  * <br> -- Disqualified players stay in the game only to prove others suggestions wrong 
  * 	with the cards they hold in their hands
- * <br> -- NO 'Detective Pads' , Do one yourself on paper :)))) . It's not required by instructions
+ * <br> -- Automatic 'Detective Pads', shown with your cards, filled in from every suggestion
+ * <br> -- Any seat can be played by the computer, see PlayerController
  * @author Ronni Perez
  *
  */
 public class Cluedo {
-	private InputParser parser;	//parse text in system.in
+	public static final int ASK_BOTS = -1;		//ask at the start of every game how many seats the computer plays
+
+	private OutputStream out;		//where the whole table sees the game
+	private InputParser parser;	//parse text in system.in, answers the questions of the whole table
+	private InputParser[] seats;	//one per keyboard (or connection) human seats are shared out between
 	private Loader loader;		//load board file and game "environment"
 	private Board board;
-	private final int rows = 18;		//specs says 25x25 but done 18x18 instead, tedious hardcoding
-	private final int cols = 18;
-	private Map<String, String> weaponsInRoom;	//room name to weapon -- see Section 2.4 of instructions
+	private WeaponPlacement weapons;	//room of each weapon and weapon of each room -- see Section 2.4 of instructions
 	private int players;		//number of players at the beginning, this may decrease over time if player is eliminated
 	private int current;		//player ID of the one in current turn
 	private int remaining;	//remaining MOVES for the current player
+	private boolean hasSuggested;	//current player already made a suggestion this turn, see GameEngine.maySuggest()
 	private CentreRoom solution;	//where solution is kept
+	private Notebook[] notebooks;	//'Detective Pad' of each player, index 0 unused
+	private PlayerController[] controllers;	//who makes the decisions of each player, index 0 unused
+	private SolutionInference inference = new SolutionInference(20000, 64);	//odds of each card being the solution
+	private GameJournal journal;		//where every action is recorded, null if not recorded
+	private GameRandom master;		//seeds every game played in this session
+	private GameRandom rand;		//dice, deal, solution, weapons and computer players of the current game
 	private boolean isWon;		//if game over
+	private int bots;		//seats the computer plays (the last ones), ASK_BOTS to ask every game
 	
 	/**
 	 * Main constructor
+	 * Plays at interactive speed
 	 */
 	public Cluedo() {
-		OutputStream.message("Welcome to Cluedo game", false);
-		loader = new Loader (rows, cols);		//parse txt file from assets/board.txt
-		parser = new InputParser();	
-		
+		this(Pacing.Profile.INTERACTIVE);
+	}
+
+	/**
+	 * Constructor
+	 * @param pacing -- how long to pause between outputs i.e. Pacing.Profile.NONE for batch runs
+	 */
+	public Cluedo(Pacing pacing) {
+		this(pacing, new Loader());
+	}
+
+	/**
+	 * Constructor
+	 * @param pacing -- how long to pause between outputs i.e. Pacing.Profile.NONE for batch runs
+	 * @param loader -- board to play on i.e. new Loader(path) of a generated board
+	 */
+	public Cluedo(Pacing pacing, Loader loader) {
+		this(pacing, loader, null);
+	}
+
+	/**
+	 * Constructor
+	 * @param pacing -- how long to pause between outputs i.e. Pacing.Profile.NONE for batch runs
+	 * @param loader -- board to play on i.e. new Loader(path) of a generated board
+	 * @param journal -- where every action is recorded, null to record nothing
+	 */
+	public Cluedo(Pacing pacing, Loader loader, GameJournal journal) {
+		this(pacing, loader, journal, new GameRandom().seed());
+	}
+
+	/**
+	 * Constructor
+	 * @param pacing -- how long to pause between outputs i.e. Pacing.Profile.NONE for batch runs
+	 * @param loader -- board to play on i.e. new Loader(path) of a generated board
+	 * @param journal -- where every action is recorded, null to record nothing
+	 * @param seed -- same seed and same choices, same games
+	 */
+	public Cluedo(Pacing pacing, Loader loader, GameJournal journal, long seed) {
+		this(new OutputStream(System.out, pacing), loader, journal, seed);
+	}
+
+	/**
+	 * Constructor, plays at the keyboard
+	 * @param out -- where the game is printed, its pacing is used by every delay of the game
+	 * @param loader -- board to play on i.e. new Loader(path) of a generated board
+	 * @param journal -- where every action is recorded, null to record nothing
+	 * @param seed -- same seed and same choices, same games
+	 */
+	public Cluedo(OutputStream out, Loader loader, GameJournal journal, long seed) {
+		this(out, loader, journal, seed, new InputParser[] {new InputParser(out)});
+	}
+
+	/**
+	 * Constructor
+	 * @param out -- where the game is printed, its pacing is used by every delay of the game
+	 * @param loader -- board to play on i.e. new Loader(path) of a generated board
+	 * @param journal -- where every action is recorded, null to record nothing
+	 * @param seed -- same seed and same choices, same games
+	 * @param seats -- input of every human at the table i.e. one per client connection,
+	 * 	the first also answers how many play and whether to play again
+	 */
+	public Cluedo(OutputStream out, Loader loader, GameJournal journal, long seed, InputParser[] seats) {
+		this(out, loader, journal, seed, seats, 0);
+	}
+
+	/**
+	 * Constructor
+	 * @param out -- where the game is printed, its pacing is used by every delay of the game
+	 * @param loader -- board to play on i.e. new Loader(path) of a generated board
+	 * @param journal -- where every action is recorded, null to record nothing
+	 * @param seed -- same seed and same choices, same games
+	 * @param seats -- input of every human at the table i.e. one per client connection,
+	 * 	the first also answers how many play and whether to play again
+	 * @param bots -- seats the computer plays (the last ones, at most every seat), 0 for none,
+	 * 	ASK_BOTS to ask at the start of every game
+	 */
+	public Cluedo(OutputStream out, Loader loader, GameJournal journal, long seed, InputParser[] seats, int bots) {
+		this.journal = journal;
+		this.master = new GameRandom(seed);
+		this.out = out;
+		this.loader = loader;		//board file is parsed once, on first use
+		this.seats = seats;
+		this.bots = bots;
+		parser = seats[0];
+		run();
+	}
+
+	/**
+	 * Constructor used by BatchRunner
+	 * Nothing is played until run(), so the state is still there to look at if the script ends mid-game
+	 * @param out -- where the game is printed, its pacing is used by every delay of the game
+	 * @param loader -- board to play on
+	 * @param seed -- same seed and same script, same games
+	 * @param parser -- the script, answers every question
+	 * @param bots -- seats the computer plays, ASK_BOTS to ask every game
+	 */
+	Cluedo(OutputStream out, Loader loader, long seed, InputParser parser, int bots) {
+		this.master = new GameRandom(seed);
+		this.bots = bots;
+		this.out = out;
+		this.loader = loader;
+		this.parser = parser;
+		this.seats = new InputParser[] {parser};
+	}
+
+	/**
+	 * Play games until the players no longer want to
+	 * @throws java.util.NoSuchElementException if input ends first
+	 */
+	final void run() {
+		out.message("Welcome to Cluedo game", false);
 		reset();		//setup game
-		turn();		//start play
+		play();		//start play
 	}
 	
 	/**
@@ -60,18 +191,24 @@ public class Cluedo {
 	 * @param players -- number of players
 	 */
 	public Cluedo(int players) {
+		out = new OutputStream(System.out, Pacing.Profile.NONE);		//tests never wait
 		this.players = players;
-		loader = new Loader (rows, cols);		//parse txt file from assets/board.txt
+		loader = new Loader ();		//parse txt file from assets/board.txt, first game only
 		isWon = false;
+		rand = new GameRandom();
 		List <Card> cards = loader.loadCards();		//game cards
-		board = new Board(loader.getCoords(), this.players);		//get board "string" representation
+		board = new Board(loader.getTopology(), this.players);		//new board on the shared, already parsed topology
 		//pick 'solution' cards and put them in centre room
 		solution = new CentreRoom();
-		loader.pickSolution (solution,cards);
+		loader.pickSolution (solution,cards,rand);
 		
-		weaponsInRoom = loader.putInRoom();		//put each weapon 'token'??? in a room-- see Section 2.4 of instructions
+		weapons = loader.putInRoom(rand);		//put each weapon 'token'??? in a room-- see Section 2.4 of instructions
 		deal(cards);		//give cards to players
-		OutputStream.message("You have chosen to play with "+players+" player(s)", false);
+		openNotebooks();
+		parser = new InputParser(out);
+		seats = new InputParser[] {parser};
+		seatPlayers(0);		//everyone at the keyboard
+		out.message("You have chosen to play with "+players+" player(s)", false);
 		current = 1;		//P1 always goes first
 		remaining = 0;
 	}
@@ -82,19 +219,23 @@ public class Cluedo {
 	 * if user want to play again
 	 */
 	private void reset() {
-		OutputStream.message("================================", false);
+		out.message("================================", false);
 		isWon = false;
 		List <Card> cards = loader.loadCards();		//game cards
 		players = numPlayers();		//game players
-		board = new Board(loader.getCoords(), players);		//get board "string" representation
+		rand = master.nextGame();		//own seed, recorded in the journal
+		seatPlayers(bots == ASK_BOTS ? numBots() : Math.min(bots, players));
+		board = new Board(loader.getTopology(), players);		//new board on the shared, already parsed topology
 		//pick 'solution' cards and put them in centre room
 		solution = new CentreRoom();
-		loader.pickSolution (solution,cards);
+		loader.pickSolution (solution,cards,rand);
 		
-		weaponsInRoom = loader.putInRoom();		//put each weapon 'token'??? in a room-- see Section 2.4 of instructions
+		weapons = loader.putInRoom(rand);		//put each weapon 'token'??? in a room-- see Section 2.4 of instructions
 		deal(cards);		//give cards to players
-		OutputStream.message("You have chosen to play with "+players+" player(s)", false);
-		OutputStream.weaponMappings(weaponsInRoom);		//inform users where each weapon token is
+		openNotebooks();
+		if (journal != null) 	journal.start(players, rand.seed(), solution, weapons, board);
+		out.message("You have chosen to play with "+players+" player(s)", false);
+		out.weaponMappings(weapons);		//inform users where each weapon token is
 		current = 1;		//P1 always goes first
 		remaining = 0;
 	}
@@ -104,16 +245,41 @@ public class Cluedo {
 	 * @return valid number i.e. 3...6 players
 	 */
 	private int numPlayers() {
-		OutputStream.message("How many players are playing the game? 3 to 6 players", true);
+		out.message("How many players are playing the game? 3 to 6 players", true);
 		return parser.parseNum(3,6);		//accept only 3 to 6 player limit
 	}
 
+	/**
+	 * Ask user how many players the computer plays
+	 * @return valid number i.e. 0...players
+	 */
+	private int numBots() {
+		out.message("How many of them does the computer play? 0 to "+players+" (they take the last seats)", true);
+		return parser.parseNum(0, players);
+	}
+
+	/**
+	 * Humans take the first seats, the computer the rest
+	 * Human seats are shared out between the keyboards in turn i.e. one keyboard plays every human seat
+	 * @param bots -- number of seats played by the computer
+	 */
+	private void seatPlayers(int bots) {
+		controllers = new PlayerController[players + 1];
+		PlayerController[] humans = new PlayerController[seats.length];
+		for (int i = 0; i < seats.length; i++) {
+			humans[i] = new ConsoleController(seats[i]);
+		}
+		for (int ID = 1; ID <= players; ID++) {
+			controllers[ID] = ID > players - bots ? new BotController(rand) : humans[(ID - 1) % humans.length];
+		}
+	}
+
 	/**
 	 * Distributes remaining cards to players
 	 * @param cards -- unshuffled cards which are left after solution was picked
 	 */
 	private void deal(List<Card> cards) {
-		Collections.shuffle(cards);		//shuffle cards
+		Collections.shuffle(cards, rand);		//shuffle cards
 		int dealTo = 1;
 		while (!cards.isEmpty()) {		//deal each card
 			Card c = cards.remove(0);
@@ -125,28 +291,116 @@ public class Cluedo {
 		}
 	}
 
+	/**
+	 * Game loop
+	 * Plays one turn after another until the users no longer want to play
+	 * Iterative so a long game does not keep adding stack frames
+	 */
+	private void play() {
+		do {
+			turn();
+		} while (evaluate());
+	}
+
+	/**
+	 * State of the game being played, same state same text, used by BatchRunner to compare replays
+	 * @return one line per item: players, turn, winner, envelope, every player, every weapon
+	 */
+	String digest() {
+		if (board == null) {		//input ended before a game was set up
+			return "no game\n";
+		}
+		StringBuilder sb = new StringBuilder();
+		sb.append("players ").append(players).append('\n');
+		sb.append("current P").append(current).append(", remaining ").append(remaining).append('\n');
+		sb.append("won ").append(isWon ? "P"+current : "no").append('\n');
+		sb.append("solution ").append(solution.getSuspect()).append(", ").append(solution.getWeapon())
+			.append(", ").append(solution.getPlace()).append('\n');
+		for (int ID = 1; ID <= players; ID++) {
+			Player p = board.getPlayer(ID);
+			Square loc = p.getLocation();
+			sb.append('P').append(ID).append(' ').append(p.character).append(" at ").append(loc.row).append(',').append(loc.col)
+				.append(p.isPlaying() ? ", playing" : ", expelled").append(", cards");
+			for (int hand = p.hand(); hand != 0; hand &= hand - 1) {
+				sb.append(' ').append(Integer.numberOfTrailingZeros(hand));		//Deck index
+			}
+			sb.append('\n');
+		}
+		for (int room = 0; room < Deck.ROOMS.length; room++) {
+			if (weapons.weaponIn(room) != WeaponPlacement.NONE) {
+				sb.append(Deck.WEAPONS[weapons.weaponIn(room)]).append(" in ").append(Deck.ROOMS[room]).append('\n');
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Give every player a 'Detective Pad' that knows its own cards
+	 */
+	private void openNotebooks() {
+		notebooks = new Notebook[players + 1];
+		for (int ID = 1; ID <= players; ID++) {
+			notebooks[ID] = new Notebook(players, ID, board.getPlayer(ID).hand());
+		}
+	}
+
 	/**
 	 * Manages one player turn's cycle and checks if game has been won
 	 */
 	private void turn() {
-		OutputStream.outBoard(board);
+		long start = System.nanoTime();
+		GameEvents.Turn event = GameEvents.Turn.enabled() ? new GameEvents.Turn() : null;
+		if (event != null) 	event.begin();
+		out.outBoard(board);
 		remaining = roll();		//roll the die
+		hasSuggested = false;
+		int rolled = remaining;
+		if (journal != null) 	journal.roll(current, remaining);
 		Player p = board.getPlayer(current);		//get token of current player
 		//inform of whos's turn it is
-		OutputStream.message("It's "+p.character+"(P"+p.ID+")'s turn\nThe dice rolled "+remaining, false);
-		OutputStream.sleep(2000);
+		out.message("It's "+p.character+"(P"+p.ID+")'s turn\nThe dice rolled "+remaining, false);
+		String hint = reachableRooms();
+		if (!hint.isEmpty()) {		//move hint
+			out.message("Rooms you can enter with this roll: "+hint, false);
+		}
+		out.sleep(2000);
 		
 		while (remaining > 0 && !isWon) {		//if player has moves remaining in current turn
 			int option = makeChoice();		//get number of choice and execute accordingly
-			//option 3 only available when current player is in a room
+			//option 3 only available when current player is in a room and has not suggested this turn
 			switch (option) {
-			case 0: OutputStream.printCards(p); break;
-			case 1: chooseMove(p); break;
+			case 0: out.printCards(p); out.printNotebook(notebooks[current], inference.probabilities(notebooks[current])); break;
+			case 1: chooseMove(); break;
 			case 2: chooseAccuse(); break;
-			case 3: chooseSuggest(board.getPlayer(current).getLocation().getName()); break;
+			case 3: if (canSuggest()) 	chooseSuggest(board.inRoom(current)); break;
+			}
+		}
+		Metrics.increment(Counter.TURNS);
+		Metrics.record(Timer.TURN, System.nanoTime() - start);
+		if (event != null) {
+			event.end();
+			if (event.shouldCommit()) {
+				event.player = current;
+				event.roll = rolled;
+				event.room = board.inRoom(current);
+				event.commit();
 			}
 		}
-		evaluate();
+	}
+
+	/**
+	 * Names of rooms the current player can enter with the moves remaining, other than the one it is in
+	 * @return comma separated names, empty if none
+	 */
+	private String reachableRooms() {
+		Set<String> names = new LinkedHashSet<String>();		//nearest first, no repeats
+		String here = board.inRoom(current);
+		for (Square sq : board.reachable(current, remaining)) {
+			if (sq.kind == Type.ROOM && !sq.getName().equals(here)) {
+				names.add(sq.getName());
+			}
+		}
+		return String.join(", ", names);
 	}
 
 	/**
@@ -155,61 +409,53 @@ public class Cluedo {
 	 * @return
 	 */
 	private int roll() {
-		return ((int)(Math.random()*6) + 1) ;
-				//+ ((int)(Math.random()*6) + 1);
+		return rand.nextInt(6) + 1;
+				//+ rand.nextInt(6) + 1;
 	}
 	
 	/**
-	 * Present ONLY valid options to current player
+	 * Ask the current player's controller what to do next
 	 * @return number of current player's choosing
 	 * 
 	 * 1 MOVE one step
 	 * 2 Make an ACCUSATION
-	 * 3 Announce SUGGESTION (available only if player is in a room)
+	 * 3 Announce SUGGESTION (available only if player is in a room and has not suggested this turn)
 	 */
 	private int makeChoice() {
-		String room = board.inRoom(current);	//get room location of current player	
-		if (room != null) {		//player is in a room (any room)
-			//output options
-			OutputStream.printOptions("What do you want to do?", 
-			new String[]{"MOVE one step", 
-								"Make an ACCUSATION", 
-					"Announce SUGGESTION using " + room.toUpperCase() });
-			OutputStream.message("You can always enter 0 (zero) to view your cards", false);
-			return parser.parseNum(0, 3); 	//accept input from 0 to 3
-		} else {
-			//output options
-			OutputStream.printOptions("What do you want to do?", new String[] {
-					"MOVE one step", "Make an ACCUSATION" });
-			OutputStream.message("You can always enter 0 (zero) to view your cards", false);
-			return parser.parseNum(0, 2);		//accept input 0 to 2
-		}
+		return controllers[current].choose(board, notebooks[current], remaining, canSuggest());
+	}
+
+	/**
+	 * @return true iff the current player may announce a suggestion now, same rule as GameEngine
+	 */
+	private boolean canSuggest() {
+		return GameEngine.maySuggest(board.inRoom(current), hasSuggested);
 	}
 	
 	/**
 	 * Chooses the next situation based on the game state
 	 * i.e. next player moves, game over (no winner), game over (has winner)
 	 * and asks user to play again in the latter cases
+	 * @return true iff play continues i.e. next player's turn or a new game
 	 */
-	private void evaluate() {
+	private boolean evaluate() {
 		if (!isWon && !gameOver()) {			//check if any players left or game not won
-			nextMove(false);		//call turn()
+			nextMove();		//pass turn to next player
+			return true;
 		} else if (!isWon && gameOver()) {		//game stops, no winner
-			OutputStream.message("\n Game OVER! The case has gone cold. \n No players left", false);
-			OutputStream.printOptions("Do you want to play again?", new String[]{"Yes", "No"});
-			int choice = parser.parseNum(1, 2);
-			if (choice == 1) {		//play again
-				reset();
-			}
-			//else...system exits automatically
+			out.message("\n Game OVER! The case has gone cold. \n No players left", false);
+			out.printOptions("Do you want to play again?", new String[]{"Yes", "No"});
 		} else {
-			OutputStream.printOptions("\nDo you want to play again?", new String[]{"Yes", "No"});
-			int choice = parser.parseNum(1, 2);
-			if (choice == 1) {		//play again
-				reset();
-			}
-			//else...system exits automatically
+			out.printOptions("\nDo you want to play again?", new String[]{"Yes", "No"});
+		}
+		if (journal != null) 	journal.flush();		//whole game is on disk before asking to play again
+		int choice = parser.parseNum(1, 2);
+		if (choice == 1) {		//play again
+			reset();
+			return true;
 		}
+		//else...system exits automatically
+		return false;
 	}
 	
 	/**
@@ -217,20 +463,14 @@ public class Cluedo {
 	 * i.e. 
 	 * if 4 players playing, then current == from 1 to 4 until game finishes;
 	 * if 6 players playing, then current == from 1 to 6 until game finishes;
-	 * 
-	 * @param isTesting is true iff in 'jUnit testing'. Set to true when testing
 	 */
-	private void nextMove(boolean isTesting) {
+	private void nextMove() {
 		do {
 			if (current >= players)		//inspect limit
 				current = 1;
 			else
 				current++;
 		} while (!board.isPlaying(current));	//inspect if player has been disqualified i.e. made false accusation
-		
-		if (!isTesting) {		//if playing game, i.e. not testing
-			turn();		//re-call turn for next player
-		}
 	}
 
 	/**
@@ -256,14 +496,16 @@ public class Cluedo {
 	 * Assume room is not null
 	 */
 	private void chooseSuggest (String room) {
-		OutputStream.printOptions("SUGGEST a suspect: ", Loader.getPeople());
-		String person = parser.pickCharacter();		//pick character
-		OutputStream.printOptions("SUGGEST a murder weapon: ", Loader.getWeapons());
-		String weapon = parser.pickWeapon();		//pick weapon
+		hasSuggested = true;
+		String[] pick = controllers[current].suggest(board, notebooks[current], room);
+		String person = pick[0];		//suspect
+		String weapon = pick[1];		//weapon
 		
 		//inform user of his/her suggestion
-		OutputStream.message("You suggested: "+ person+", "+room+", "+weapon, false);
-		OutputStream.sleep(2000);
+		out.message("You suggested: "+ person+", "+room+", "+weapon, false);
+		if (journal != null) 	journal.suggest(current, person, weapon, room);
+		Metrics.increment(Counter.SUGGESTIONS);
+		out.sleep(2000);
 		
 		//move player and weapon in room -- via power of suggestion
 		moveCharAndWeapon(person, weapon, room);
@@ -282,17 +524,10 @@ public class Cluedo {
 		Player p = board.getPlayer(person);
 		//update or move player token when possible
 		if (p != null) {		//if player that represents character is playing
-			outerloop:
-			for (int row = 0; row < this.rows; row++) {
-				for (int col = 0; col < this.cols; col++) {
-					Square sq = board.getSquare(row, col);
-					if (sq.getName().equals(room) && sq.getOccupied() == null) {	//if vacant space found
-						board.movePlayerViaSuggestion(p.ID, row, col);		//move player token to row,col
-						OutputStream.message(p.character+"(P"+p.ID+") was moved to {"+row+", "+col+"} "+sq.getCode(), false);
-						OutputStream.outBoard(board);
-						break outerloop;		//end loop
-					}
-				}
+			Square sq = board.moveToRoom(p.ID, room);		//move player token to first vacant Square of room
+			if (sq != null) {
+				out.message(p.character+"(P"+p.ID+") was moved to {"+sq.row+", "+sq.col+"} "+sq.getCode(), false);
+				out.outBoard(board);
 			}
 		}
 		
@@ -301,28 +536,9 @@ public class Cluedo {
 		//lounge  has candlestick
 		//suggestion is dagger and lounge so:
 		//kitchen to lounge               dagger
-		String wpn = weaponsInRoom.get(room);	//old weapon, if any		//candlestick
-		String rm = getRoom(weapon);	//old room			//kitchen
-		//update i.e. swap
-		weaponsInRoom.put(rm, wpn);
-		weaponsInRoom.put(room, weapon);
-		OutputStream.message("The new weapon mappings are:", false);
-		OutputStream.weaponMappings(weaponsInRoom);
-	}
-
-	/**
-	 * Check for room that a given weapon is in
-	 * @param weapon -- name of weapon to search for
-	 * @return name of room that a weapon is in (will never be null)
-	 */
-	private String getRoom(String weapon) {
-		for (Map.Entry<String, String> entry: weaponsInRoom.entrySet()) {
-			if ((weapon).equals(entry.getValue())) {
-				return entry.getKey();
-			}
-		}
-		//dead code
-		return null;
+		weapons.move(weapon, room);	//swap i.e. candlestick goes to kitchen
+		out.message("The new weapon mappings are:", false);
+		out.weaponMappings(weapons);
 	}
 
 	/**
@@ -333,26 +549,69 @@ public class Cluedo {
 	 * @param room -- room that the current player is in
 	 */
 	private void checkSuggestion(String person, String weapon, String room) {
-		int nextPlayer = current +1;		//next player to show if it has one of those cards
-		while (nextPlayer != current) {		//go through every player
+		GameEvents.Suggestion event = new GameEvents.Suggestion();		//does nothing unless recording
+		event.begin();
+		int suggestion = Deck.mask(person, weapon, room);		//the three cards as one set
+		int nextPlayer = current;		//next player to show if it has one of those cards
+		for (int i = 1; i < players; i++) {		//go through every other player, in seat order
 			//even if player is disqualified, allow show card
-			if (nextPlayer > players) 	nextPlayer = 1;
+			if (nextPlayer >= players) 	nextPlayer = 1;
 			else 	nextPlayer++;
 			
-			Player p = board.getPlayer(nextPlayer);		//get next player that is not disqualified
-			if (p.hasCard(person, false) || p.hasCard(weapon, false) || p.hasCard(room, false)) {	
-				//inspect each card of next player if he has either of the three elements in the suggestion
-				//output is handled by the Player class
-				//stop this method
-				return;
+			Player p = board.getPlayer(nextPlayer);
+			int card = p.refute(suggestion);		//first of the three cards this player has, if any
+			if (card >= 0) {
+				writeNotebooks(suggestion, p.ID, card);
+				if (journal != null) 	journal.refute(p.ID, card);
+				Metrics.increment(Counter.REFUTED);
+				commit(event, person, weapon, room, p.ID, card);
+				out.message("Player "+p.ID+" has the card "+Deck.name(card), false);
+				out.sleep(2000);
+				return;		//stop this method
 			}
 			//this next player cannot refute the current player's suggestion, go to next eligible player
-			OutputStream.message("P"+p.ID+" cannot refute the suggestion", false);
+			out.message("P"+p.ID+" cannot refute the suggestion", false);
 		}
 		
 		//if it gets here, then no one can refute the suggestion
-		OutputStream.message("No one can refute the suggestion", false);
-		OutputStream.sleep(1000);
+		writeNotebooks(suggestion, 0, -1);
+		if (journal != null) 	journal.refute(0, -1);
+		Metrics.increment(Counter.UNREFUTED);
+		commit(event, person, weapon, room, 0, -1);
+		out.message("No one can refute the suggestion", false);
+		out.sleep(1000);
+	}
+
+	/**
+	 * Record a suggestion for Java Flight Recorder, if recording
+	 * @param event -- begun when the suggestion was made
+	 * @param refuter -- player ID who showed a card, 0 if no one could
+	 * @param card -- Deck index of card shown, -1 if none
+	 */
+	private void commit(GameEvents.Suggestion event, String person, String weapon, String room, int refuter, int card) {
+		event.end();
+		if (event.shouldCommit()) {
+			event.player = current;
+			event.person = person;
+			event.weapon = weapon;
+			event.room = room;
+			event.refuter = refuter;
+			event.card = card >= 0 ? Deck.name(card) : null;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Every player writes the answer to current player's suggestion in its 'Detective Pad'
+	 * Only current player gets to see the card
+	 * @param suggestion -- the three suggested cards, see Deck
+	 * @param refuter -- player ID who showed a card, 0 if no one could
+	 * @param card -- Deck index of card shown, -1 if none
+	 */
+	private void writeNotebooks(int suggestion, int refuter, int card) {
+		for (int ID = 1; ID <= players; ID++) {
+			notebooks[ID].suggestion(current, suggestion, refuter, ID == current ? card : -1);
+		}
 	}
 
 	/**
@@ -360,60 +619,75 @@ public class Cluedo {
 	 * At the end of this method, 'current' player can either win or be disqualified
 	 */
 	private void chooseAccuse() {
-		OutputStream.printOptions("Choose the suspect: ", Loader.getPeople());
-		String person = parser.pickCharacter();		//pick character
-		OutputStream.printOptions("Choose the murder weapon: ", Loader.getWeapons());
-		String weapon = parser.pickWeapon();		//pick weapon
-		OutputStream.printOptions("Choose the scene of the crime: ", Loader.getRooms());
-		String room = parser.pickRoom();		//pick room (any room)
+		String[] pick = controllers[current].accuse(board, notebooks[current]);
+		String person = pick[0];		//suspect
+		String weapon = pick[1];		//weapon
+		String room = pick[2];		//scene of the crime (any room)
 		
 		//inform user of his/her accusation
-		OutputStream.message("You chose: "+ person+", "+room+", "+weapon, false);
-		OutputStream.sleep(2000);
+		out.message("You chose: "+ person+", "+room+", "+weapon, false);
+		out.sleep(2000);
 		
-		if (person.equals(solution.getSuspect()) 		//if accusation matches solution
-				&& weapon.equals(solution.getWeapon()) 
-				&& room.equals(solution.getPlace()) ) {
-			OutputStream.message("You WON!!!", false);		//player wins
-			OutputStream.message(board.getPlayer(current).character+" won the game", false);
-			OutputStream.message("The suspect is "+person+". He/She used the "+weapon+" to kill Dr Black in the "+room, false);
+		GameEvents.Accusation event = new GameEvents.Accusation();		//does nothing unless recording, times the rules only
+		event.begin();
+		boolean correct = solution.matches(person, weapon, room);
+		if (journal != null) 	journal.accuse(current, person, weapon, room, correct);
+		Metrics.increment(Counter.ACCUSATIONS);
+		if (correct) {		//if accusation matches solution
 			isWon = true;
-			remaining = 0;			//set remaining to 0 to stop while loop from turn()
 		} else {		//else, disqualify/expel 'current' player
-			OutputStream.message("P"+current+"'s accusations are baseless. P"+current+" is expelled from the game", false);
 			board.expel(current);
-			OutputStream.sleep(1000);
-			remaining = 0;		//set remaining to 0 to stop while loop from turn()
+			if (journal != null) 	journal.expel(current);
+			Metrics.increment(Counter.EXPULSIONS);
+		}
+		remaining = 0;			//set remaining to 0 to stop while loop from turn()
+		event.end();
+		if (event.shouldCommit()) {
+			event.player = current;
+			event.person = person;
+			event.weapon = weapon;
+			event.room = room;
+			event.correct = correct;
+			event.commit();
+		}
+
+		if (correct) {
+			out.message("You WON!!!", false);		//player wins
+			out.message(board.getPlayer(current).character+" won the game", false);
+			out.message("The suspect is "+person+". He/She used the "+weapon+" to kill Dr Black in the "+room, false);
+		} else {
+			out.message("P"+current+"'s accusations are baseless. P"+current+" is expelled from the game", false);
+			out.sleep(1000);
 		}
 	}
 	
 	/**
 	 * Manage moving token one step in the board
-	 * @param p -- Player instance of current player. Used by output stream 
-	 * to print neighbors of player's location i.e. where can it validly move 
+	 * The current player's controller picks the Square
 	 */
-	private void chooseMove(Player p) {
-		OutputStream.printNeighbours(p.getLocation());		//show available move
-		int [] coords = parser.parseCoords();			//parse row,col of intended move
+	private void chooseMove() {
+		int [] coords = controllers[current].move(board, notebooks[current], remaining);		//row,col of intended move
 		if (move(current,coords[0], coords[1])) {		//if move is valid
+			if (journal != null) 	journal.move(current, coords[0], coords[1]);
+			Metrics.increment(Counter.STEPS);
 			//if  NOT entered room
 			Square newSquare = board.getSquare(coords[0], coords[1]);
 			if (newSquare.kind != Type.ROOM) {
 				remaining--;			//decrement remaining allowed move steps
 				//output new board state, and remaining moves
-				OutputStream.outBoard(board);
-				OutputStream.message("P"+current+" has "+remaining+" moves remaining", false);
+				out.outBoard(board);
+				out.message("P"+current+" has "+remaining+" moves remaining", false);
 			} else {		
 				//entered a room...
 				remaining = 0;		//set to 0 so 'while loop' above ends
 				//output new board state
-				OutputStream.outBoard(board);
-				OutputStream.message("Your turn has ended because you have entered "	+newSquare.getName(), false);
+				out.outBoard(board);
+				out.message("Your turn has ended because you have entered "	+newSquare.getName(), false);
 			}
 			
-			OutputStream.sleep(100);
+			out.sleep(100);
 		} else {		//invalid row, col
-			OutputStream.message("Move invalid", false);
+			out.message("Move invalid", false);
 		}
 	}
 
@@ -430,10 +704,61 @@ public class Cluedo {
 	
 	/**
 	 * Main
-	 * @param args
+	 * @param args -- optional pacing i.e. --pace=fast or --pace=none, default is interactive
+	 * 	and optional board file i.e. --board=boards/big.txt, default is assets/board.txt
+	 * 	and --ansi to repaint only Squares that changed instead of the whole board
+	 * 	and --sync to print straight to the terminal instead of through the output queue
+	 * 	and --journal=games.bin to append every action to a journal, see JournalReplayer
+	 * 	and --seed=42 to play the same games again, given the same choices
+	 * 	and --metrics to print gameplay metrics when the program ends, see Metrics
+	 * 	and --bots=2 for the computer to play the last 2 seats, or --bots=ask to be asked every game, default is none
 	 */
 	public static void main(String[] args) {
-		new Cluedo();
+		Pacing pacing = Pacing.Profile.INTERACTIVE;
+		Loader loader = null;
+		boolean async = true;
+		boolean ansi = false;
+		boolean metrics = false;
+		GameJournal journal = null;
+		long seed = new GameRandom().seed();
+		int bots = 0;		//everyone at the keyboard
+		for (String arg : args) {
+			if (arg.startsWith("--pace=")) {
+				pacing = Pacing.Profile.parse(arg.substring("--pace=".length()));
+			} else if (arg.startsWith("--board=")) {
+				loader = new Loader(arg.substring("--board=".length()));
+			} else if (arg.equals("--ansi")) {
+				ansi = true;
+			} else if (arg.equals("--metrics")) {
+				metrics = true;
+			} else if (arg.equals("--sync")) {
+				async = false;
+			} else if (arg.startsWith("--seed=")) {
+				seed = Long.parseLong(arg.substring("--seed=".length()));
+			} else if (arg.startsWith("--bots=")) {		//a number, or "ask" to be asked every game
+				String n = arg.substring("--bots=".length());
+				bots = n.equals("ask") ? ASK_BOTS : Integer.parseInt(n);
+			} else if (arg.startsWith("--journal=")) {
+				journal = new GameJournal(Paths.get(arg.substring("--journal=".length())));
+			}
+		}
+		OutputStream out = async ? OutputStream.async(1 << 16, pacing)		//game never waits for the terminal
+				: new OutputStream(System.out, pacing);
+		if (ansi) {
+			out.setRenderer(new BoardRenderer(true));
+		}
+		try {
+			new Cluedo(out, loader != null ? loader : new Loader(), journal, seed, new InputParser[] {new InputParser(out)}, bots);
+		} catch (NoSuchElementException e) {		//input ended i.e. end of a piped script
+			out.message("No more input, game ended", false);
+		}
+		if (journal != null) {
+			journal.close();
+		}
+		if (metrics) {
+			out.message("Metrics\n"+Metrics.snapshot(), false);
+		}
+		out.finish();
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package main;
+
+import model.Board;
+import model.Notebook;
+import view.InputParser;
+import view.OutputStream;
+
+/**
+ * A human at the keyboard: prints the options and waits for System.in
+ * @author Ronni Perez
+ *
+ */
+public class ConsoleController implements PlayerController {
+	private final InputParser parser;	//parse text in system.in
+	private final OutputStream out;		//where the options are printed
+
+	/**
+	 * Constructor
+	 * @param parser -- shared by every human seat at the same keyboard, prints to its session's output
+	 */
+	public ConsoleController(InputParser parser) {
+		this.parser = parser;
+		this.out = parser.getOutput();
+	}
+
+	/**
+	 * Present ONLY valid options to current player
+	 * 
+	 * 1 MOVE one step
+	 * 2 Make an ACCUSATION
+	 * 3 Announce SUGGESTION (available only if player is in a room and has not suggested this turn)
+	 */
+	@Override
+	public int choose(Board board, Notebook notes, int remaining, boolean canSuggest) {
+		String room = board.inRoom(notes.owner());	//get room location of current player	
+		if (canSuggest) {		//player is in a room (any room), no suggestion yet
+			//output options
+			out.printOptions("What do you want to do?", 
+			new String[]{"MOVE one step", 
+								"Make an ACCUSATION", 
+					"Announce SUGGESTION using " + room.toUpperCase() });
+			out.message("You can always enter 0 (zero) to view your cards", false);
+			return parser.parseNum(0, 3); 	//accept input from 0 to 3
+		} else {
+			//output options
+			out.printOptions("What do you want to do?", new String[] {
+					"MOVE one step", "Make an ACCUSATION" });
+			out.message("You can always enter 0 (zero) to view your cards", false);
+			return parser.parseNum(0, 2);		//accept input 0 to 2
+		}
+	}
+
+	@Override
+	public int[] move(Board board, Notebook notes, int remaining) {
+		out.printNeighbours(board.getPlayer(notes.owner()).getLocation());		//show available move
+		return parser.parseCoords();			//parse row,col of intended move
+	}
+
+	@Override
+	public String[] suggest(Board board, Notebook notes, String room) {
+		out.printOptions("SUGGEST a suspect: ", Loader.getPeople());
+		String person = parser.pickCharacter();		//pick character
+		out.printOptions("SUGGEST a murder weapon: ", Loader.getWeapons());
+		String weapon = parser.pickWeapon();		//pick weapon
+		return new String[] {person, weapon};
+	}
+
+	@Override
+	public String[] accuse(Board board, Notebook notes) {
+		out.printOptions("Choose the suspect: ", Loader.getPeople());
+		String person = parser.pickCharacter();		//pick character
+		out.printOptions("Choose the murder weapon: ", Loader.getWeapons());
+		String weapon = parser.pickWeapon();		//pick weapon
+		out.printOptions("Choose the scene of the crime: ", Loader.getRooms());
+		String room = parser.pickRoom();		//pick room (any room)
+		return new String[] {person, weapon, room};
+	}
+}
@@ -0,0 +1,483 @@
+package main;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import main.Metrics.Counter;
+import main.Metrics.Timer;
+import model.Board;
+import model.Card;
+import model.CentreRoom;
+import model.Deck;
+import model.GameEvents;
+import model.Player;
+import model.Square;
+import model.Square.Type;
+import model.WeaponPlacement;
+
+/**
+ * Headless game of Cluedo
+ * Same rules as Cluedo but driven through method calls instead of System.in
+ * and without any console output
+ * <br> -- Explicit state machine: ROLL -> ACTION -> TURN_OVER -> ROLL (next player) ... -> GAME_OVER
+ * <br> -- ACTION allows: move one step, suggest (only in a room, once per turn), accuse
+ * <br> -- Turn ends when no moves remain, a room is entered or an accusation is made
+ * <br> -- Every call returns to the caller, so stack depth stays constant no matter how long the game is
+ * <br> -- Counts what happens in a Metrics.Tally, published to Metrics when the game ends
+ * <br> -- Emits the same flight recorder events as Cluedo, see GameEvents
+ * @author Ronni Perez
+ *
+ */
+public class GameEngine {
+	private Loader loader;		//load board file and game "environment"
+	private Board board;
+	private WeaponPlacement weapons;	//room of each weapon and weapon of each room -- see Section 2.4 of instructions
+	private int players;		//number of players at the beginning
+	private int current;		//player ID of the one in current turn
+	private int remaining;	//remaining MOVES for the current player
+	private CentreRoom solution;	//where solution is kept
+	private Phase phase;		//what the current player is allowed to do next
+	private boolean hasSuggested;	//current player already made a suggestion this turn
+	private int winner;		//player ID of the winner, 0 if none (yet)
+	private long turns;		//number of turns played so far
+	private Random rand;		//dice, deal, solution and weapon placement
+	private final Metrics.Tally tally = new Metrics.Tally();		//counts not yet published
+	private long turnStart;		//System.nanoTime() of the roll of a timed turn, 0 if not timed
+	private GameEvents.Turn turnEvent;		//turn being recorded, null if turns are not being recorded
+
+	/**
+	 * Constructor
+	 * Sets up board, solution, weapons and hands. P1 is ready to roll
+	 * @param players -- number of players
+	 */
+	public GameEngine(int players) {
+		this(players, new GameRandom());
+	}
+
+	/**
+	 * Constructor
+	 * Sets up board, solution, weapons and hands. P1 is ready to roll
+	 * @param players -- number of players
+	 * @param rand -- random source, i.e. a GameRandom per game so parallel games do not contend
+	 */
+	public GameEngine(int players, Random rand) {
+		this(players, rand, new Loader());
+	}
+
+	/**
+	 * Constructor
+	 * Sets up board, solution, weapons and hands. P1 is ready to roll
+	 * @param players -- number of players
+	 * @param rand -- random source, i.e. a GameRandom per game so parallel games do not contend
+	 * @param loader -- board to play on i.e. new Loader(path) of a generated board
+	 */
+	public GameEngine(int players, Random rand, Loader loader) {
+		this.players = players;
+		this.rand = rand;
+		this.loader = loader;
+		List <Card> cards = loader.loadCards();		//game cards
+		board = new Board(loader.getTopology(), this.players);
+		//pick 'solution' cards and put them in centre room
+		solution = new CentreRoom();
+		loader.pickSolution (solution, cards, rand);
+
+		weapons = loader.putInRoom(rand);		//put each weapon token in a room
+		deal(cards);		//give cards to players
+		current = 1;		//P1 always goes first
+		remaining = 0;
+		winner = 0;
+		turns = 1;
+		phase = Phase.ROLL;
+	}
+
+	/**
+	 * Constructor used by GameSnapshot
+	 * Players stand at their starts with empty hands, the caller fills in the rest then calls resume()
+	 * @param players -- number of players
+	 * @param rand -- random source for the rest of the game
+	 * @param loader -- board the game was played on
+	 * @param solution -- the envelope
+	 * @param weapons -- room of each weapon
+	 */
+	GameEngine(int players, Random rand, Loader loader, CentreRoom solution, WeaponPlacement weapons) {
+		this.players = players;
+		this.rand = rand;
+		this.loader = loader;
+		this.solution = solution;
+		this.weapons = weapons;
+		board = new Board(loader.getTopology(), players);
+	}
+
+	/**
+	 * Set turn state of a restored game
+	 */
+	void resume(int current, int remaining, Phase phase, boolean hasSuggested, int winner, long turns) {
+		this.current = current;
+		this.remaining = remaining;
+		this.phase = phase;
+		this.hasSuggested = hasSuggested;
+		this.winner = winner;
+		this.turns = turns;
+	}
+
+	/**
+	 * Distributes remaining cards to players
+	 * @param cards -- unshuffled cards which are left after solution was picked
+	 */
+	private void deal(List<Card> cards) {
+		Collections.shuffle(cards, rand);		//shuffle cards
+		int dealTo = 1;
+		while (!cards.isEmpty()) {		//deal each card
+			Card c = cards.remove(0);
+			board.getPlayer(dealTo).addCard(c);	//add to player's card
+
+			if (dealTo >= players) 	dealTo = 1;
+			else 	dealTo++;
+		}
+	}
+
+	/**
+	 * Roll the die for the current player
+	 * ROLL -> ACTION
+	 * @return number rolled from 1....6
+	 */
+	public int roll() {
+		expect(Phase.ROLL);
+		return roll(rollDie());
+	}
+
+	/**
+	 * Same as roll() with a number already rolled i.e. read back from a GameJournal
+	 * @param rolled -- number from 1....6
+	 * @return rolled
+	 */
+	int roll(int rolled) {
+		expect(Phase.ROLL);
+		if (turns % Metrics.SAMPLE == 0) {		//timed turn
+			turnStart = System.nanoTime();
+		}
+		if (GameEvents.Turn.enabled()) {		//no event at all otherwise, it would live across calls
+			turnEvent = new GameEvents.Turn();
+			turnEvent.begin();
+			turnEvent.roll = rolled;
+		}
+		remaining = rolled;
+		hasSuggested = false;
+		phase = Phase.ACTION;
+		return remaining;
+	}
+
+	/**
+	 * Generates random number from 1....6
+	 * @return
+	 */
+	private int rollDie() {
+		return rand.nextInt(6) + 1;
+	}
+
+	/**
+	 * Move current player one step to row,col
+	 * Turn ends when last move is used or a room is entered
+	 * @param row -- new row to move to
+	 * @param col -- new col to move to
+	 * @return true iff move is valid
+	 */
+	public boolean move(int row, int col) {
+		expect(Phase.ACTION);
+		if (!board.movePiece(current, row, col)) {		//not a neighbor
+			return false;
+		}
+		tally.increment(Counter.STEPS);
+		if (board.getSquare(row, col).kind == Type.ROOM) {	//entered room, ends turn
+			remaining = 0;
+		} else {
+			remaining--;
+		}
+		if (remaining == 0) {
+			phase = Phase.TURN_OVER;
+		}
+		return true;
+	}
+
+	/**
+	 * Announce a Suggestion using the room that the current player is in
+	 * Moves the suspect's token and the weapon in this room, then asks other players to refute
+	 * @param person -- suspect
+	 * @param weapon -- weapon
+	 * @return who refuted the suggestion and with what card, refuter is 0 if no one could
+	 */
+	public Refutation suggest(String person, String weapon) {
+		expect(Phase.ACTION);
+		String room = board.inRoom(current);
+		if (!maySuggest(room, hasSuggested)) {
+			throw new IllegalStateException("P"+current+(room == null ? " is not in a room" : " already made a suggestion this turn"));
+		}
+		hasSuggested = true;
+		GameEvents.Suggestion event = new GameEvents.Suggestion();		//does nothing unless recording
+		event.begin();
+
+		//move player and weapon in room -- via power of suggestion
+		Player p = board.getPlayer(person);
+		if (p != null) {		//if player that represents character is playing
+			board.moveToRoom(p.ID, room);
+		}
+		weapons.move(weapon, room);	//swap with weapon already in this room, if any
+
+		Refutation r = checkSuggestion(person, weapon, room);
+		tally.increment(Counter.SUGGESTIONS);
+		tally.increment(r.refuter != 0 ? Counter.REFUTED : Counter.UNREFUTED);
+		event.end();
+		if (event.shouldCommit()) {
+			event.player = current;
+			event.person = person;
+			event.weapon = weapon;
+			event.room = room;
+			event.refuter = r.refuter;
+			event.card = r.card;
+			event.commit();
+		}
+		return r;
+	}
+
+	/**
+	 * The suggestion rule of every game, console or headless: only from inside a room, at most once per turn
+	 * @param room -- room the player is in, null if none
+	 * @param hasSuggested -- player already made a suggestion this turn
+	 * @return true iff the player may announce a suggestion
+	 */
+	static boolean maySuggest(String room, boolean hasSuggested) {
+		return room != null && !hasSuggested;
+	}
+
+	/**
+	 * Try to refute suggestion of current player by other players, in seat order after current player
+	 * Even disqualified players can refute
+	 * @param person -- suspect
+	 * @param weapon -- weapon
+	 * @param room -- room
+	 * @return the refutation, refuter is 0 if no one could
+	 */
+	private Refutation checkSuggestion(String person, String weapon, String room) {
+		int suggestion = Deck.mask(person, weapon, room);		//the three cards as one set
+		int nextPlayer = current;
+		for (int i = 1; i < players; i++) {		//every other player
+			nextPlayer = nextPlayer >= players ? 1 : nextPlayer + 1;
+			//show first card held in order suspect, weapon, room
+			int card = board.getPlayer(nextPlayer).refute(suggestion);
+			if (card >= 0) {
+				return Refutation.of(nextPlayer, card);
+			}
+		}
+		return Refutation.NONE;
+	}
+
+	/**
+	 * Make an Accusation
+	 * Current player either wins or is disqualified, either way the turn ends
+	 * @param person -- suspect
+	 * @param weapon -- weapon
+	 * @param room -- scene of the crime (any room)
+	 * @return true iff accusation matches solution
+	 */
+	public boolean accuse(String person, String weapon, String room) {
+		expect(Phase.ACTION);
+		GameEvents.Accusation event = new GameEvents.Accusation();		//does nothing unless recording
+		event.begin();
+		remaining = 0;
+		tally.increment(Counter.ACCUSATIONS);
+		boolean correct = solution.matches(person, weapon, room);
+		if (correct) {		//if accusation matches solution
+			winner = current;
+			phase = Phase.GAME_OVER;
+		} else {
+			tally.increment(Counter.EXPULSIONS);
+			board.expel(current);		//disqualify/expel 'current' player
+			phase = Phase.TURN_OVER;
+		}
+		event.end();
+		if (event.shouldCommit()) {
+			event.player = current;
+			event.person = person;
+			event.weapon = weapon;
+			event.room = room;
+			event.correct = correct;
+			event.commit();
+		}
+		if (correct) {
+			endTurn();
+			publishMetrics();
+		}
+		return correct;
+	}
+
+	/**
+	 * Pass turn to next player who is still playing
+	 * TURN_OVER -> ROLL, or GAME_OVER if everyone has been disqualified
+	 */
+	public void advance() {
+		expect(Phase.TURN_OVER);
+		endTurn();
+		if (gameOver()) {
+			phase = Phase.GAME_OVER;
+			publishMetrics();
+			return;
+		}
+		do {
+			current = current >= players ? 1 : current + 1;
+		} while (!board.isPlaying(current));	//skip disqualified players
+		turns++;
+		phase = Phase.ROLL;
+	}
+
+	/**
+	 * Count the turn that just ended, time it if it was a timed turn
+	 */
+	private void endTurn() {
+		tally.increment(Counter.TURNS);
+		if (turnStart != 0) {
+			Metrics.record(Timer.TURN, System.nanoTime() - turnStart);
+			turnStart = 0;
+		}
+		if (turnEvent != null) {
+			turnEvent.end();
+			if (turnEvent.shouldCommit()) {
+				turnEvent.player = current;
+				turnEvent.turn = turns;
+				turnEvent.room = board.inRoom(current);
+				turnEvent.commit();
+			}
+			turnEvent = null;
+		}
+	}
+
+	/**
+	 * Add what this game counted so far to Metrics
+	 * Happens by itself when the game ends, call it for a game given up on i.e. at a turn limit
+	 */
+	public void publishMetrics() {
+		tally.publish();
+	}
+
+	/**
+	 * @return true iff there are no players remaining i.e. everyone has been disqualified
+	 */
+	private boolean gameOver() {
+		for (int i = 1; i <= players; i++) {
+			if (board.getPlayer(i).isPlaying()) {		//look for active players
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Helper method which rejects an action that is not allowed in the current phase
+	 * @param expected -- phase the action requires
+	 */
+	private void expect(Phase expected) {
+		if (phase != expected) {
+			throw new IllegalStateException("Expected phase "+expected+" but was "+phase);
+		}
+	}
+
+	/*GETTERS*/
+	public Phase getPhase() {
+		return phase;
+	}
+
+	public Board getBoard() {
+		return board;
+	}
+
+	public int getPlayers() {
+		return players;
+	}
+
+	public int getCurrent() {
+		return current;
+	}
+
+	public int getRemaining() {
+		return remaining;
+	}
+
+	public boolean hasSuggested() {
+		return hasSuggested;
+	}
+
+	/**
+	 * @return true iff the current player may announce a suggestion now, see maySuggest()
+	 */
+	public boolean canSuggest() {
+		return phase == Phase.ACTION && maySuggest(board.inRoom(current), hasSuggested);
+	}
+
+	public int getWinner() {
+		return winner;
+	}
+
+	public long getTurns() {
+		return turns;
+	}
+
+	public CentreRoom getSolution() {
+		return solution;
+	}
+
+	/**
+	 * @return copy of where the weapons are, the game's own is not handed out
+	 */
+	public WeaponPlacement getWeaponsInRoom() {
+		return new WeaponPlacement(weapons);
+	}
+
+	/**
+	 * @return the Square of the current player
+	 */
+	public Square getLocation() {
+		return board.getPlayer(current).getLocation();
+	}
+
+	/**
+	 * The answer to a suggestion
+	 * Only the suggesting player gets to see the card
+	 * Immutable, one shared instance per player and card so answering allocates nothing
+	 */
+	public static class Refutation {
+		public static final Refutation NONE = new Refutation(0, -1);		//no one could refute
+		private static final Refutation[][] ALL = new Refutation[7][Deck.SIZE];	//[player ID][card index]
+
+		static {
+			for (int ID = 1; ID < ALL.length; ID++) {
+				for (int card = 0; card < Deck.SIZE; card++) {
+					ALL[ID][card] = new Refutation(ID, card);
+				}
+			}
+		}
+
+		public final int refuter;		//player ID who showed a card, 0 if no one could refute
+		public final int index;		//Deck index of card shown, -1 if no one could refute
+		public final String card;		//long name of card shown, null if no one could refute
+
+		private Refutation(int refuter, int index) {
+			this.refuter = refuter;
+			this.index = index;
+			this.card = index < 0 ? null : Deck.name(index);
+		}
+
+		/**
+		 * @param refuter -- player ID who showed a card
+		 * @param index -- Deck index of card shown
+		 * @return the shared instance
+		 */
+		public static Refutation of(int refuter, int index) {
+			return ALL[refuter][index];
+		}
+	}
+
+	//what the current player can do next
+	public enum Phase {
+		ROLL, ACTION, TURN_OVER, GAME_OVER
+	}
+}
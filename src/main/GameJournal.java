@@ -0,0 +1,173 @@
+package main;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import model.Board;
+import model.CentreRoom;
+import model.Deck;
+import model.WeaponPlacement;
+
+/**
+ * Append-only binary journal of every action of a game, see JournalReplayer
+ * <br> -- Every record is length-prefixed: length (short, bytes after it), type (byte), payload
+ * <br> -- A game starts with a START record holding the deal, so a journal can hold many games
+ * <br> -- Cards are Deck indices, one byte each
+ * <br> -- Records are collected in one direct buffer and handed to the channel only when it is full
+ * or on flush(), so recording an action is a few puts
+ * @author Ronni Perez
+ *
+ */
+public class GameJournal implements AutoCloseable {
+	public static final byte VERSION = 3;		//3: at most one suggestion per turn, see GameEngine.maySuggest()
+
+	//record types
+	public static final byte START = 1;		//version, players, seed, solution, room of each weapon, hands
+	public static final byte ROLL = 2;		//player, number rolled
+	public static final byte MOVE = 3;		//player, row, col of a valid step
+	public static final byte SUGGEST = 4;		//player, suspect, weapon, room
+	public static final byte REFUTE = 5;		//refuter (0 if no one), card shown (-1 if none)
+	public static final byte ACCUSE = 6;		//player, suspect, weapon, room, 1 iff correct
+	public static final byte EXPEL = 7;		//player
+
+	private static final int LARGEST = 64;		//bytes of the largest record, a 6 player START
+
+	private final WritableByteChannel channel;
+	private final ByteBuffer buffer;		//records not yet handed to the channel
+
+	/**
+	 * Journal appended to the end of a file, which is created if needed
+	 * @param file -- journal file
+	 */
+	public GameJournal(Path file) {
+		this(open(file), 1 << 16);
+	}
+
+	/**
+	 * Constructor
+	 * @param channel -- where records go i.e. a FileChannel opened for append
+	 * @param capacity -- bytes collected before they are written to the channel
+	 */
+	public GameJournal(WritableByteChannel channel, int capacity) {
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocateDirect(Math.max(capacity, LARGEST));
+	}
+
+	private static FileChannel open(Path file) {
+		try {
+			return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * A new game was dealt
+	 * @param players -- number of players
+	 * @param seed -- seed of the game's GameRandom, 0 if not known
+	 * @param solution -- the envelope
+	 * @param weapons -- room of each weapon
+	 * @param board -- board with every player's hand
+	 */
+	public void start(int players, long seed, CentreRoom solution, WeaponPlacement weapons, Board board) {
+		begin(START, 13 + Deck.WEAPONS.length + 4 * players);
+		buffer.put(VERSION);
+		buffer.put((byte) players);
+		buffer.putLong(seed);
+		buffer.put((byte) Deck.index(solution.getSuspect()));
+		buffer.put((byte) Deck.index(solution.getWeapon()));
+		buffer.put((byte) Deck.index(solution.getPlace()));
+		for (int weapon = 0; weapon < Deck.WEAPONS.length; weapon++) {
+			buffer.put((byte) weapons.roomOf(weapon));
+		}
+		for (int ID = 1; ID <= players; ID++) {
+			buffer.putInt(board.getPlayer(ID).hand());
+		}
+	}
+
+	public void roll(int ID, int rolled) {
+		begin(ROLL, 2);
+		buffer.put((byte) ID).put((byte) rolled);
+	}
+
+	public void move(int ID, int row, int col) {
+		begin(MOVE, 5);
+		buffer.put((byte) ID).putShort((short) row).putShort((short) col);
+	}
+
+	public void suggest(int ID, String person, String weapon, String room) {
+		begin(SUGGEST, 4);
+		buffer.put((byte) ID).put((byte) Deck.index(person)).put((byte) Deck.index(weapon)).put((byte) Deck.index(room));
+	}
+
+	/**
+	 * @param refuter -- player ID who showed a card, 0 if no one could
+	 * @param card -- Deck index of card shown, -1 if none
+	 */
+	public void refute(int refuter, int card) {
+		begin(REFUTE, 2);
+		buffer.put((byte) refuter).put((byte) card);
+	}
+
+	public void accuse(int ID, String person, String weapon, String room, boolean correct) {
+		begin(ACCUSE, 5);
+		buffer.put((byte) ID).put((byte) Deck.index(person)).put((byte) Deck.index(weapon)).put((byte) Deck.index(room));
+		buffer.put((byte) (correct ? 1 : 0));
+	}
+
+	public void expel(int ID) {
+		begin(EXPEL, 1);
+		buffer.put((byte) ID);
+	}
+
+	/**
+	 * Start a record, making room for it first
+	 * @param type -- record type
+	 * @param payload -- bytes after the type
+	 */
+	private void begin(byte type, int payload) {
+		if (buffer.remaining() < 3 + payload) {
+			drain();
+		}
+		buffer.putShort((short) (1 + payload));
+		buffer.put(type);
+	}
+
+	/**
+	 * Hand every collected record to the channel
+	 */
+	public void flush() {
+		drain();
+	}
+
+	private void drain() {
+		buffer.flip();
+		try {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			buffer.clear();
+		}
+	}
+
+	/**
+	 * Flush then close the channel
+	 */
+	@Override
+	public void close() {
+		drain();
+		try {
+			channel.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package main;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Random source of one game: dice, deal, solution, weapon placement and computer players
+ * <br> -- Backed by a SplittableRandom, so drawing a number never touches shared state
+ * <br> -- Same seed, same game: every draw of the game comes from here
+ * <br> -- split() hands an independent source to another game or task, so parallel runs
+ * are reproducible from one master seed no matter which thread plays what
+ * <br> -- A Random, so it goes wherever one is taken i.e. Collections.shuffle
+ * Not thread-safe, one per game or per task
+ * @author Ronni Perez
+ *
+ */
+public class GameRandom extends Random {
+	private static final long serialVersionUID = 1L;
+
+	private final long seed;		//what this source was made from, 0 if it was split off another
+	@SuppressWarnings("serial")		//a Random to fit the APIs that take one, never serialized
+	private final SplittableRandom source;
+
+	/**
+	 * Constructor
+	 * Seeded from the clock and the JVM's own seeder, see seed() to play the same game again
+	 */
+	public GameRandom() {
+		this(new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * Constructor
+	 * @param seed -- same seed, same sequence
+	 */
+	public GameRandom(long seed) {
+		this(seed, new SplittableRandom(seed));
+	}
+
+	private GameRandom(long seed, SplittableRandom source) {
+		super(0);		//Random's own state is never used
+		this.seed = seed;
+		this.source = source;
+	}
+
+	/**
+	 * @return a new source, independent of this one, this one moves on
+	 */
+	public GameRandom split() {
+		return new GameRandom(0, source.split());
+	}
+
+	/**
+	 * @return a new seeded source i.e. for the next game, its seed can be recorded to replay it
+	 */
+	public GameRandom nextGame() {
+		return new GameRandom(source.nextLong());
+	}
+
+	/**
+	 * @return seed this source was made from, 0 if it was split off another
+	 */
+	public long seed() {
+		return seed;
+	}
+
+	@Override
+	protected int next(int bits) {
+		return source.nextInt() >>> (32 - bits);
+	}
+
+	@Override
+	public int nextInt() {
+		return source.nextInt();
+	}
+
+	@Override
+	public int nextInt(int bound) {
+		return source.nextInt(bound);
+	}
+
+	@Override
+	public long nextLong() {
+		return source.nextLong();
+	}
+
+	@Override
+	public double nextDouble() {
+		return source.nextDouble();
+	}
+
+	@Override
+	public boolean nextBoolean() {
+		return source.nextBoolean();
+	}
+}
@@ -0,0 +1,234 @@
+package main;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import view.InputParser;
+import view.OutputStream;
+import view.Pacing;
+
+/**
+ * Hosts many games of Cluedo in one JVM, played over TCP with any line based client i.e. telnet, nc
+ * <br> -- Every connection is seated at a table, a table starts once it has as many connections as seats
+ * <br> -- Every table runs on its own virtual thread, so a client thinking about its move costs
+ * a parked virtual thread and its buffers, not a platform thread
+ * <br> -- Output of a table goes to every connection at it, input of a human seat comes from its own connection,
+ * each table has its own InputParsers and OutputStream so tables never share I/O
+ * <br> -- A client going away ends its table
+ * @author Ronni Perez
+ *
+ */
+public class GameServer implements AutoCloseable {
+	private static final int OUT_BUFFER = 1024;		//bytes buffered per connection before a write
+
+	private final int seats;		//connections per table
+	private final Pacing pacing;		//pacing of every table
+	private final Loader loader;		//board every table plays on
+	private final ServerSocket server;
+	private final ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+	private final List<Socket> waiting = new ArrayList<Socket>();	//connections of the table being filled
+	private final Set<Socket> open = ConcurrentHashMap.newKeySet();		//connections open now, seated or waiting
+
+	/**
+	 * Constructor, starts accepting connections
+	 * @param port -- port to listen on, 0 for any free port
+	 * @param seats -- connections per table, the other players are computer controlled if wanted
+	 * @param pacing -- how long to pause between outputs i.e. Pacing.Profile.NONE
+	 * @param loader -- board to play on
+	 */
+	public GameServer(int port, int seats, Pacing pacing, Loader loader) {
+		this.seats = seats;
+		this.pacing = pacing;
+		this.loader = loader;
+		try {
+			server = new ServerSocket();
+			server.bind(new InetSocketAddress(port), 4096);		//deep backlog, clients arrive in bursts
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		threads.execute(this::accept);
+	}
+
+	/**
+	 * Accept connections until closed
+	 */
+	private void accept() {
+		while (!server.isClosed()) {
+			try {
+				Socket socket = server.accept();
+				open.add(socket);
+				threads.execute(() -> join(socket));
+			} catch (IOException e) {		//closed, or a client gave up while being accepted
+				if (server.isClosed()) {
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Seat a connection, play the table's game if it was the last seat
+	 * @param socket -- the new connection
+	 */
+	private void join(Socket socket) {
+		Socket[] table = null;
+		synchronized (waiting) {
+			waiting.add(socket);
+			if (waiting.size() == seats) {
+				table = waiting.toArray(new Socket[seats]);
+				waiting.clear();
+			}
+		}
+		if (table != null) {
+			play(table);
+		} else {
+			greet(socket);
+		}
+	}
+
+	/**
+	 * Tell a waiting connection it has a seat
+	 */
+	private void greet(Socket socket) {
+		try {
+			socket.getOutputStream().write(("/** Waiting for the other players to join"+System.lineSeparator()).getBytes());
+		} catch (IOException e) {
+			close(socket);		//dropped while waiting, the table will find out when it starts
+		}
+	}
+
+	/**
+	 * Play games at a table until the first seat no longer wants to, or someone leaves
+	 * @param table -- connections, in seat order
+	 */
+	private void play(Socket[] table) {
+		try {
+			java.io.OutputStream[] output = new java.io.OutputStream[table.length];
+			for (int i = 0; i < table.length; i++) {
+				output[i] = new BufferedOutputStream(table[i].getOutputStream(), OUT_BUFFER);
+			}
+			OutputStream out = new OutputStream(output.length == 1 ? output[0] : new Broadcast(output), pacing);
+			InputParser[] input = new InputParser[table.length];
+			for (int i = 0; i < table.length; i++) {
+				input[i] = new InputParser(table[i].getInputStream(), out);
+			}
+			new Cluedo(out, loader, null, new GameRandom().seed(), input, Cluedo.ASK_BOTS);		//a table may fill up with bots
+			out.finish();
+		} catch (IOException | NoSuchElementException e) {		//someone left
+		} finally {
+			for (Socket socket : table) {
+				close(socket);
+			}
+		}
+	}
+
+	/**
+	 * Close a connection, counted once however many times it is closed i.e. by its table and by close()
+	 */
+	private void close(Socket socket) {
+		open.remove(socket);
+		try {
+			socket.close();
+		} catch (IOException e) {
+		}
+	}
+
+	/**
+	 * @return port the server listens on
+	 */
+	public int getPort() {
+		return server.getLocalPort();
+	}
+
+	/**
+	 * @return connections open now, seated or waiting
+	 */
+	public int sessions() {
+		return open.size();
+	}
+
+	/**
+	 * Stop accepting, end every table
+	 */
+	@Override
+	public void close() {
+		try {
+			server.close();
+		} catch (IOException e) {
+		}
+		threads.shutdownNow();
+		synchronized (waiting) {
+			for (Socket socket : waiting) {
+				close(socket);
+			}
+			waiting.clear();
+		}
+	}
+
+	/**
+	 * Output of a table, copied to every connection at it
+	 * A connection that fails is skipped, its table ends when its input does
+	 */
+	private static class Broadcast extends java.io.OutputStream {
+		private final java.io.OutputStream[] targets;
+
+		Broadcast(java.io.OutputStream[] targets) {
+			this.targets = targets;
+		}
+
+		@Override
+		public void write(int b) {
+			write(new byte[] {(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			for (java.io.OutputStream out : targets) {
+				try {
+					out.write(b, off, len);
+				} catch (IOException e) {
+				}
+			}
+		}
+
+		@Override
+		public void flush() {
+			for (java.io.OutputStream out : targets) {
+				try {
+					out.flush();
+				} catch (IOException e) {
+				}
+			}
+		}
+	}
+
+	/**
+	 * Main
+	 * @param args -- port (default 4000), connections per table (default 1),
+	 * 	optional pacing i.e. --pace=none, default is fast
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : 4000;
+		int seats = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+		Pacing pacing = Pacing.Profile.FAST;
+		for (String arg : args) {
+			if (arg.startsWith("--pace=")) {
+				pacing = Pacing.Profile.parse(arg.substring("--pace=".length()));
+			}
+		}
+		GameServer server = new GameServer(port, seats, pacing, new Loader());
+		System.out.println("Listening on port "+server.getPort()+", "+seats+" connection(s) per table");
+		Thread.currentThread().join();		//until killed
+	}
+}
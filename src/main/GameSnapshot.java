@@ -0,0 +1,210 @@
+package main;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import main.GameEngine.Phase;
+import model.Adjacency;
+import model.Board;
+import model.BoardTopology;
+import model.CentreRoom;
+import model.Deck;
+import model.Player;
+import model.WeaponPlacement;
+
+/**
+ * Compact, versioned binary snapshot of a GameEngine, for save, load and fast restore
+ * <br> -- Header: magic "CLUE", version, players, current, remaining, phase, flags, winner, turns, board size
+ * <br> -- Solution: Deck index of suspect, weapon and room, one byte each
+ * <br> -- Weapons: per weapon, the room it is in (0 to 8 in Deck order), one byte each
+ * <br> -- Per player: hand as a card bitmask, playing flag, cell id it stands on
+ * <br> -- Occupancy: one byte per cell, player ID whose token is on it or 0
+ * A 6 player game on the standard 18 x 18 board takes 411 bytes
+ * Read and written in place through a ByteBuffer i.e. a slice of a direct or memory-mapped buffer
+ * holding many snapshots, nothing is copied into an intermediate array
+ * @author Ronni Perez
+ *
+ */
+public final class GameSnapshot {
+	public static final int MAGIC = 0x434C5545;		//"CLUE"
+	public static final byte VERSION = 1;
+	private static final int HEADER = 33;		//bytes before the first player
+	private static final int PER_PLAYER = 9;		//hand, flags, cell id
+	private static final int PLAYING = 1;		//player flag bit
+	private static final int SUGGESTED = 1;		//header flag bit: current player already suggested
+	private static final Phase[] PHASES = Phase.values();
+
+	private GameSnapshot() {
+	}
+
+	/**
+	 * @return value, if it is in min...max
+	 * @throws IllegalArgumentException if not i.e. a corrupt snapshot or one of another game
+	 */
+	private static int valid(String what, int value, int min, int max) {
+		if (value < min || value > max) {
+			throw new IllegalArgumentException("Snapshot has "+what+" "+value+", expected "+min+" to "+max);
+		}
+		return value;
+	}
+
+	/**
+	 * @param players -- number of players
+	 * @param topology -- board the game is played on
+	 * @return bytes taken by a snapshot
+	 */
+	public static int size(int players, BoardTopology topology) {
+		return HEADER + PER_PLAYER * players + topology.rows() * topology.cols();
+	}
+
+	/**
+	 * Write the whole state of a game at out's position, which is advanced past it
+	 * @param engine -- game to save
+	 * @param out -- where to write, needs size() bytes remaining
+	 * @return bytes written
+	 */
+	public static int write(GameEngine engine, ByteBuffer out) {
+		Board board = engine.getBoard();
+		BoardTopology topology = board.getTopology();
+		Adjacency graph = topology.getAdjacency();
+		int start = out.position();
+		out.putInt(MAGIC);
+		out.put(VERSION);
+		out.put((byte) engine.getPlayers());
+		out.put((byte) engine.getCurrent());
+		out.put((byte) engine.getRemaining());
+		out.put((byte) engine.getPhase().ordinal());
+		out.put((byte) (engine.hasSuggested() ? SUGGESTED : 0));
+		out.put((byte) engine.getWinner());
+		out.put((byte) 0);		//reserved
+		out.putLong(engine.getTurns());
+		out.putShort((short) topology.rows());
+		out.putShort((short) topology.cols());
+
+		CentreRoom solution = engine.getSolution();
+		out.put((byte) Deck.index(solution.getSuspect()));
+		out.put((byte) Deck.index(solution.getWeapon()));
+		out.put((byte) Deck.index(solution.getPlace()));
+		WeaponPlacement weapons = engine.getWeaponsInRoom();
+		for (int weapon = 0; weapon < Deck.WEAPONS.length; weapon++) {
+			out.put((byte) weapons.roomOf(weapon));		//-1 if not in any room
+		}
+
+		for (int ID = 1; ID <= engine.getPlayers(); ID++) {
+			Player p = board.getPlayer(ID);
+			out.putInt(p.hand());
+			out.put((byte) (p.isPlaying() ? PLAYING : 0));
+			out.putInt(graph.id(p.getLocation().row, p.getLocation().col));
+		}
+		for (int id = 0; id < graph.cells(); id++) {
+			out.put((byte) board.occupantOf(id));
+		}
+		return out.position() - start;
+	}
+
+	/**
+	 * Same as write(engine, out) into a new heap buffer
+	 * @param engine -- game to save
+	 * @return the snapshot, positioned at 0
+	 */
+	public static ByteBuffer write(GameEngine engine) {
+		ByteBuffer out = ByteBuffer.allocate(size(engine.getPlayers(), engine.getBoard().getTopology()));
+		write(engine, out);
+		out.flip();
+		return out;
+	}
+
+	/**
+	 * Restore a game from the snapshot at in's position, which is advanced past it
+	 * @param in -- where to read from
+	 * @param loader -- board the game was played on
+	 * @param rand -- random source for the rest of the game
+	 * @return the game, in the same state it was saved in
+	 * @throws IllegalArgumentException if in does not hold a whole, consistent snapshot of this version and board
+	 */
+	public static GameEngine read(ByteBuffer in, Loader loader, Random rand) {
+		try {
+			return restore(in, loader, rand);
+		} catch (BufferUnderflowException e) {
+			throw new IllegalArgumentException("Snapshot is cut short");
+		}
+	}
+
+	private static GameEngine restore(ByteBuffer in, Loader loader, Random rand) {
+		if (in.getInt() != MAGIC) {
+			throw new IllegalArgumentException("Not a game snapshot");
+		}
+		byte version = in.get();
+		if (version != VERSION) {
+			throw new IllegalArgumentException("Unsupported snapshot version "+version);
+		}
+		BoardTopology topology = loader.getTopology();
+		int players = valid("players", in.get(), 1, topology.starts());
+		int current = valid("current player", in.get(), 1, players);
+		int remaining = valid("remaining moves", in.get(), 0, Byte.MAX_VALUE);
+		Phase phase = PHASES[valid("phase", in.get(), 0, PHASES.length - 1)];
+		boolean hasSuggested = (in.get() & SUGGESTED) != 0;
+		int winner = valid("winner", in.get(), 0, players);
+		in.get();		//reserved
+		long turns = in.getLong();
+		if (turns < 0) {
+			throw new IllegalArgumentException("Snapshot has "+turns+" turns");
+		}
+		int rows = in.getShort(), cols = in.getShort();
+		if (rows != topology.rows() || cols != topology.cols()) {
+			throw new IllegalArgumentException("Snapshot of a "+rows+" x "+cols+" board, not "
+					+topology.rows()+" x "+topology.cols());
+		}
+
+		CentreRoom solution = new CentreRoom();
+		int weaponBase = Deck.PEOPLE.length, roomBase = weaponBase + Deck.WEAPONS.length;
+		solution.putInEnvelope(Arrays.asList(Deck.card(valid("suspect", in.get(), 0, weaponBase - 1)),
+				Deck.card(valid("weapon", in.get(), weaponBase, roomBase - 1)),
+				Deck.card(valid("room", in.get(), roomBase, Deck.SIZE - 1))));
+		WeaponPlacement weapons = new WeaponPlacement();
+		for (int weapon = 0; weapon < Deck.WEAPONS.length; weapon++) {
+			int room = valid("room of a weapon", in.get(), WeaponPlacement.NONE, Deck.ROOMS.length - 1);
+			if (room >= 0) {
+				weapons.move(weapon, room);
+			}
+		}
+
+		GameEngine engine = new GameEngine(players, rand, loader, solution, weapons);
+		Board board = engine.getBoard();
+		int[] location = new int[players + 1];		//cell each player is at
+		for (int ID = 1; ID <= players; ID++) {
+			Player p = board.getPlayer(ID);
+			int hand = in.getInt();
+			if ((hand & ~Deck.ALL) != 0) {
+				throw new IllegalArgumentException("Snapshot has cards that are not in the Deck");
+			}
+			for (; hand != 0; hand &= hand - 1) {
+				p.addCard(Deck.card(Integer.numberOfTrailingZeros(hand)));
+			}
+			p.setPlaying((in.get() & PLAYING) != 0);
+			location[ID] = valid("square", in.getInt(), 0, rows * cols - 1);
+			p.setLocation(topology.squareOf(location[ID]));
+		}
+		int[] token = new int[players + 1];		//cell each player's token is on, -1 if none
+		Arrays.fill(token, -1);
+		for (int id = 0; id < rows * cols; id++) {
+			int ID = valid("occupant", in.get(), 0, players);
+			if (ID != 0) {
+				if (token[ID] != -1) {
+					throw new IllegalArgumentException("Snapshot has two tokens of P"+ID);
+				}
+				token[ID] = id;
+			}
+			board.setOccupant(id, ID);
+		}
+		for (int ID = 1; ID <= players; ID++) {
+			if (board.isPlaying(ID) && token[ID] != location[ID]) {
+				throw new IllegalArgumentException("Snapshot has the token of P"+ID+" away from where P"+ID+" is");
+			}
+		}
+		engine.resume(current, remaining, phase, hasSuggested, winner, turns);
+		return engine;
+	}
+}
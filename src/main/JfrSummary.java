@@ -0,0 +1,149 @@
+package main;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Reads flight recordings made with assets/cluedo.jfc and sums up the games in them, see model.GameEvents
+ * <br> -- Turns, moves, suggestions and accusations: how many, and how long they took
+ * <br> -- Moves: how many were invalid
+ * <br> -- Suggestions: how many were refuted, and which rooms were suggested in the most
+ * <br> -- Accusations: how many were right
+ * Every other event in the file is skipped
+ * @author Ronni Perez
+ *
+ */
+public class JfrSummary {
+	private static final String[] TYPES = {"cluedo.Turn", "cluedo.Move", "cluedo.Suggestion", "cluedo.Accusation"};
+
+	private final Metrics.Histogram[] durations = new Metrics.Histogram[TYPES.length];		//nanoseconds, per event type
+	private long invalidMoves;
+	private long refuted;		//suggestions someone could refute
+	private long correct;		//accusations that won
+	private final Map<String, Long> rooms = new TreeMap<String, Long>();		//suggestions per room
+
+	public JfrSummary() {
+		for (int i = 0; i < TYPES.length; i++) {
+			durations[i] = new Metrics.Histogram();
+		}
+	}
+
+	/**
+	 * Add every game event of a recording
+	 * @param file -- i.e. games.jfr
+	 * @return this, for chaining
+	 */
+	public JfrSummary read(Path file) {
+		try (RecordingFile recording = new RecordingFile(file)) {
+			while (recording.hasMoreEvents()) {
+				add(recording.readEvent());
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return this;
+	}
+
+	/**
+	 * Add one event, events that are not game events are skipped
+	 * @param e -- the event
+	 */
+	public void add(RecordedEvent e) {
+		String type = e.getEventType().getName();
+		for (int i = 0; i < TYPES.length; i++) {
+			if (TYPES[i].equals(type)) {
+				durations[i].record(e.getDuration().toNanos());
+				break;
+			}
+		}
+		switch (type) {
+		case "cluedo.Move":
+			if (!e.getBoolean("valid")) 	invalidMoves++;
+			break;
+		case "cluedo.Suggestion":
+			if (e.getInt("refuter") != 0) 	refuted++;
+			rooms.merge(e.getString("room"), 1L, Long::sum);
+			break;
+		case "cluedo.Accusation":
+			if (e.getBoolean("correct")) 	correct++;
+			break;
+		}
+	}
+
+	/*GETTERS*/
+	/**
+	 * @param type -- i.e. "cluedo.Turn"
+	 * @return events of that type read so far
+	 */
+	public long count(String type) {
+		for (int i = 0; i < TYPES.length; i++) {
+			if (TYPES[i].equals(type)) {
+				return durations[i].count();
+			}
+		}
+		return 0;
+	}
+
+	public long invalidMoves() {
+		return invalidMoves;
+	}
+
+	public long refuted() {
+		return refuted;
+	}
+
+	public long correct() {
+		return correct;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < TYPES.length; i++) {
+			Metrics.Histogram h = durations[i];
+			sb.append(String.format("%-18s %10d  mean %s, p50 %s, p99 %s, max %s%n", TYPES[i], h.count(),
+					time((long) h.mean()), time(h.percentile(50)), time(h.percentile(99)), time(h.max())));
+		}
+		sb.append("Invalid moves: ").append(invalidMoves).append('\n');
+		sb.append("Refuted suggestions: ").append(refuted).append('\n');
+		sb.append("Correct accusations: ").append(correct).append('\n');
+		sb.append("Suggestions per room:\n");
+		for (Map.Entry<String, Long> room : rooms.entrySet()) {
+			sb.append(String.format("  %-16s %d%n", room.getKey(), room.getValue()));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * @return nanos in the largest unit that keeps it above 1 i.e. 2.5ms
+	 */
+	private static String time(long nanos) {
+		if (nanos >= 1000000000) 	return String.format("%.2fs", nanos / 1e9);
+		if (nanos >= 1000000) 	return String.format("%.2fms", nanos / 1e6);
+		if (nanos >= 1000) 	return String.format("%.2fus", nanos / 1e3);
+		return nanos+"ns";
+	}
+
+	/**
+	 * Main
+	 * @param args -- one or more .jfr files, summed up together
+	 */
+	public static void main(String[] args) {
+		if (args.length == 0) {
+			System.out.println("Usage: JfrSummary recording.jfr [more.jfr ...]");
+			return;
+		}
+		JfrSummary summary = new JfrSummary();
+		for (String file : args) {
+			summary.read(Paths.get(file));
+		}
+		System.out.print(summary);
+	}
+}
@@ -0,0 +1,163 @@
+package main;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import main.GameEngine.Phase;
+import main.GameEngine.Refutation;
+import model.Board;
+import model.CentreRoom;
+import model.Deck;
+import model.WeaponPlacement;
+
+/**
+ * Rebuilds games from a GameJournal by replaying every action on a GameEngine
+ * <br> -- Rolls are read back, not rolled again, so a game replays the same way every time
+ * <br> -- Refutations and accusation outcomes are recomputed and checked against the journal
+ * <br> -- Reads straight from a ByteBuffer i.e. a memory-mapped journal file
+ * @author Ronni Perez
+ *
+ */
+public class JournalReplayer {
+	private final Loader loader;		//board the games were played on
+	private final Random rand;		//random source of replayed games, should they be played on
+	private Refutation pending;		//answer to the last suggestion, checked against the next REFUTE
+
+	/**
+	 * Constructor
+	 * @param loader -- board the games were played on
+	 * @param rand -- random source handed to every replayed GameEngine
+	 */
+	public JournalReplayer(Loader loader, Random rand) {
+		this.loader = loader;
+		this.rand = rand;
+	}
+
+	/**
+	 * Replay the game starting at in's position, up to the next game or the end of in
+	 * @param in -- journal, positioned at a START record
+	 * @return the game as it was after its last recorded action, null if in has no more games
+	 * @throws IllegalStateException if the journal is corrupt or does not agree with the rules
+	 */
+	public GameEngine next(ByteBuffer in) {
+		if (!in.hasRemaining()) {
+			return null;
+		}
+		int length = in.getShort();
+		if (in.get() != GameJournal.START) {
+			throw new IllegalStateException("Journal does not start with a new game");
+		}
+		GameEngine engine = start(in, in.position() + length - 1);
+		while (in.hasRemaining()) {
+			int at = in.position();
+			length = in.getShort();
+			byte type = in.get();
+			if (type == GameJournal.START) {		//next game, leave it for the next call
+				in.position(at);
+				break;
+			}
+			apply(engine, type, in);
+			in.position(at + 2 + length);		//skip anything a newer version added
+		}
+		return engine;
+	}
+
+	/**
+	 * Deal the game of a START record
+	 * @param in -- positioned after the record type
+	 * @param end -- position after the record
+	 */
+	private GameEngine start(ByteBuffer in, int end) {
+		byte version = in.get();
+		if (version != GameJournal.VERSION) {
+			throw new IllegalStateException("Unsupported journal version "+version);
+		}
+		int players = valid("players", in.get(), 1, loader.getTopology().starts());
+		in.getLong();		//seed, the deal itself is recorded
+		CentreRoom solution = new CentreRoom();
+		int weaponBase = Deck.PEOPLE.length, roomBase = weaponBase + Deck.WEAPONS.length;
+		solution.putInEnvelope(Arrays.asList(Deck.card(valid("suspect", in.get(), 0, weaponBase - 1)),
+				Deck.card(valid("weapon", in.get(), weaponBase, roomBase - 1)),
+				Deck.card(valid("room", in.get(), roomBase, Deck.SIZE - 1))));
+		WeaponPlacement weapons = new WeaponPlacement();
+		for (int weapon = 0; weapon < Deck.WEAPONS.length; weapon++) {
+			int room = valid("room of a weapon", in.get(), WeaponPlacement.NONE, Deck.ROOMS.length - 1);
+			if (room >= 0) {
+				weapons.move(weapon, room);
+			}
+		}
+		GameEngine engine = new GameEngine(players, rand, loader, solution, weapons);
+		Board board = engine.getBoard();
+		for (int ID = 1; ID <= players; ID++) {
+			for (int hand = in.getInt(); hand != 0; hand &= hand - 1) {
+				board.getPlayer(ID).addCard(Deck.card(Integer.numberOfTrailingZeros(hand)));
+			}
+		}
+		engine.resume(1, 0, Phase.ROLL, false, 0, 1);		//P1 always goes first
+		in.position(end);
+		return engine;
+	}
+
+	/**
+	 * Apply one action record
+	 * @param type -- record type
+	 * @param in -- positioned at the payload
+	 */
+	private void apply(GameEngine engine, byte type, ByteBuffer in) {
+		switch (type) {
+		case GameJournal.ROLL:
+			int ID = in.get();
+			if (engine.getPhase() == Phase.TURN_OVER) {
+				engine.advance();
+			}
+			check(engine.getCurrent() == ID, "P"+ID+" rolled on P"+engine.getCurrent()+"'s turn");
+			engine.roll(in.get());
+			break;
+		case GameJournal.MOVE:
+			in.get();		//always the current player
+			int row = in.getShort(), col = in.getShort();
+			check(engine.move(row, col), "P"+engine.getCurrent()+" cannot step to "+row+","+col);
+			break;
+		case GameJournal.SUGGEST:
+			in.get();
+			String person = Deck.name(in.get()), weapon = Deck.name(in.get());
+			in.get();		//always the room the player is in
+			check(engine.canSuggest(), "P"+engine.getCurrent()+" cannot suggest now");		//same rule as when it was played
+			pending = engine.suggest(person, weapon);
+			break;
+		case GameJournal.REFUTE:
+			int refuter = in.get(), card = in.get();
+			check(pending != null && pending.refuter == refuter && pending.index == card,
+					"suggestion of P"+engine.getCurrent()+" is refuted differently");
+			pending = null;
+			break;
+		case GameJournal.ACCUSE:
+			in.get();
+			boolean correct = engine.accuse(Deck.name(in.get()), Deck.name(in.get()), Deck.name(in.get()));
+			check(correct == (in.get() == 1), "P"+engine.getCurrent()+"'s accusation has another outcome");
+			break;
+		case GameJournal.EXPEL:
+			ID = in.get();
+			check(!engine.getBoard().isPlaying(ID), "P"+ID+" was expelled while still playing");
+			break;
+		}
+	}
+
+	private static void check(boolean agrees, String message) {
+		if (!agrees) {
+			throw new IllegalStateException("Journal diverges: "+message);
+		}
+	}
+
+	/**
+	 * @return value, if it is in min...max, as GameSnapshot checks the same fields
+	 * @throws IllegalStateException if not i.e. a corrupt journal
+	 */
+	private static int valid(String what, int value, int min, int max) {
+		if (value < min || value > max) {
+			throw new IllegalStateException("Journal has "+what+" "+value+", expected "+min+" to "+max);
+		}
+		return value;
+	}
+}
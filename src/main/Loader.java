@@ -1,80 +1,140 @@
 package main;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
-import java.util.Scanner;
 
+import model.BoardTopology;
+import model.BoardTopology.Layout;
 import model.Card;
 import model.CentreRoom;
+import model.Deck;
+import model.WeaponPlacement;
 import model.Card.Type;
 
 /**
  * Loads necessary files and characters, weapons etc ready for parsing by different classes
+ * <br> -- A board file is read and parsed once, every later Loader of it shares the same BoardTopology
  * @author Ronni Perez
  *
  */
 public class Loader {
-	private String[][] coords;			//string representation of the board
-	private static String[] people;		//characters in the game
-	private static String[] weapons;		//weapons in the game
-	private static String[] rooms;		//rooms in the game
-	private static int rows;	
-	private static int cols;
+	private static final String BOARD = "assets/board.txt";		//the standard board
+	private static final Map<String, BoardTopology> boards = new HashMap<String, BoardTopology>();	//board file to parsed board, read once
+	private BoardTopology topology;		//board of this game
+	private static String[] people = Deck.PEOPLE;		//characters in the game
+	private static String[] weapons = Deck.WEAPONS;		//weapons in the game
+	private static String[] rooms = Deck.ROOMS;		//rooms in the game
 	
+	/**
+	 * Load the standard board
+	 */
+	public Loader () {
+		this(BOARD);
+	}
+
+	/**
+	 * Load the standard board, which has to be rows x cols
+	 * @param rows
+	 * @param cols
+	 */
 	public Loader (int rows, int cols) {
-		Loader.rows = rows;
-		Loader.cols = cols;
-		coords = new String[rows][cols];
-		loadBoard();		//read strings from assets/board.txt
+		this(BOARD);
+		if (topology.rows() != rows || topology.cols() != cols) {
+			throw new IllegalArgumentException(BOARD+" is "+topology.rows()+"x"+topology.cols());
+		}
+	}
+
+	/**
+	 * Load any board file i.e. one made by BoardGenerator
+	 * @param path -- board file
+	 */
+	public Loader (String path) {
+		topology = loadBoard(path);		//read assets/board.txt, first time only
 	}
 	
 	/**
-	 * Read game Board from text file
+	 * Read game Board from text file and parse it
+	 * Skipped if the file was read before
+	 * @param path -- board file
+	 * @return the parsed board
 	 */
-	private void loadBoard() {
+	private static synchronized BoardTopology loadBoard(String path) {
+		BoardTopology topology = boards.get(path);
+		if (topology != null) {
+			return topology;
+		}
+		topology = parse(path);
+		boards.put(path, topology);
+		return topology;
+	}
+
+	/**
+	 * Read and parse a board file every time, without sharing i.e. to measure parsing
+	 * @param path -- board file
+	 * @return the parsed board
+	 */
+	public static BoardTopology parse(String path) {
 		try {
-			Scanner sc = new Scanner(new File("assets/board.txt"));
-			for (int i = 0; i < rows; i++) {
-				for (int j = 0; j < cols; j++) {
-					coords[i][j] = sc.next();		//put it into coords String[][]
+			return new BoardTopology(readLayout(new File(path)));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Read directives and grid of a board file, see BoardTopology.Layout
+	 * @param file -- board file
+	 * @return what the file declares
+	 */
+	private static Layout readLayout(File file) throws IOException {
+		Layout layout = new Layout();
+		try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+			String line;
+			for (int number = 1; (line = in.readLine()) != null; number++) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#")) {		//blank or comment
+					continue;
+				}
+				String[] tokens = line.split("\\s+");
+				try {
+					switch (tokens[0]) {
+					case "room":
+						layout.room(tokens[1], line.split("\\s+", 3)[2]);	break;
+					case "door":
+						layout.door(num(tokens[1]), num(tokens[2]), num(tokens[3]), num(tokens[4]));	break;
+					case "stairwell":
+						layout.stairwell(num(tokens[1]), num(tokens[2]), num(tokens[3]), num(tokens[4]));	break;
+					case "start":
+						layout.start(num(tokens[1]), num(tokens[2]));	break;
+					default:		//a row of the grid
+						layout.row(tokens);
+					}
+				} catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+					throw new IllegalArgumentException(file+" line "+number+": "+line, e);
 				}
 			}
-			sc.close();
-		} catch (IOException e) {
-			e.printStackTrace();
 		}
+		return layout;
+	}
+
+	private static int num(String token) {
+		return Integer.parseInt(token);
 	}
 
 	/**
-	 * Return list of cards from hard coded String[] 
+	 * Return list of cards from hard coded String[] in Deck
 	 * @return
 	 */
 	public List<Card> loadCards() {
-		people = new String []{
-				"Miss Scarlett","Colonel Mustard","Mrs. White","The Reverend Green","Mrs. Peacock","Professor Plum"
-				};
-		weapons = new String []{
-				"Candlestick","Dagger","Lead Pipe","Revolver","Rope","Spanner"
-				};
-		rooms = new String []{
-				"Kitchen",
-				"Ball Room",
-				"Conservatory",
-				 "Billiard Room",
-				 "Library",
-				 "Study",
-				 "Hall",
-				 "Lounge",
-				 "Dining Room"
-				};
-		
 		return populateCards();
 	}
 
@@ -97,8 +157,23 @@ public class Loader {
 		return cards;
 	}
 	
+	/**
+	 * Pick one character, weapon and room at random, remove their cards from the pool
+	 * and put them in the envelope
+	 * @param solution -- the envelope
+	 * @param cards -- all game cards, solution cards are removed from it
+	 */
 	public void pickSolution(CentreRoom solution, List<Card> cards) {
-		Random rand = new Random();
+		pickSolution(solution, cards, new GameRandom());
+	}
+
+	/**
+	 * Same as pickSolution(solution, cards) using a given random source
+	 * @param solution -- the envelope
+	 * @param cards -- all game cards, solution cards are removed from it
+	 * @param rand -- random source of the game, see GameRandom
+	 */
+	public void pickSolution(CentreRoom solution, List<Card> cards, Random rand) {
 		String person = people[rand.nextInt(people.length)];
 		String tool = weapons[rand.nextInt(weapons.length)];
 		String place = rooms[rand.nextInt(rooms.length)];
@@ -112,51 +187,58 @@ public class Loader {
 			if (name.equals(person) || name.equals(tool) || name.equals(place)) {
 				sol.add(c);		//add to solution and remove card from 'pool'
 				cards.remove(i);
+				i--;		//next card has shifted into this index
 			}
 		}
 		solution.putInEnvelope(sol);
 	}
 
 	/**
-	 * Returns map of roomNames to weaponNames
+	 * Returns which room each weapon is in
 	 * Put weapons in random rooms (1 weapon per room at most) ????
 	 * -- see Section 2.4 of instructions
 	 * @return
 	 */
-	public Map<String, String> putInRoom() {
-		Map <String, String> inRoom = new HashMap<String, String>(); 
-		//add loaded weapons and rooms from hardcoded names to a collection
-		ArrayList<String> tools = new ArrayList<String>(Arrays.asList(weapons));
-		ArrayList<String> places = new ArrayList<String>(Arrays.asList(rooms));
+	public WeaponPlacement putInRoom() {
+		return putInRoom(new GameRandom());
+	}
+
+	/**
+	 * Same as putInRoom() using a given random source
+	 * Shuffles exactly as before, so a seed still puts every weapon in the same room
+	 * @param rand -- random source of the game, see GameRandom
+	 * @return
+	 */
+	public WeaponPlacement putInRoom(Random rand) {
+		WeaponPlacement inRoom = new WeaponPlacement();
+		//number loaded weapons and rooms as in Deck
+		ArrayList<Integer> tools = new ArrayList<Integer>();
+		ArrayList<Integer> places = new ArrayList<Integer>();
+		for (int i = 0; i < weapons.length; i++) 	tools.add(i);
+		for (int i = 0; i < rooms.length; i++) 	places.add(i);
 		//shuffle both collections
-		Collections.shuffle(places);
-		Collections.shuffle(tools);
-		while (!tools.isEmpty()) {		//for each weapon
-			String key = places.remove(0);	//remove first element in each collection
-			String val = tools.remove(0);
-			
-			inRoom.put(key, val);		//put in map
-		}
-		
-		while (!places.isEmpty()) {		//for the remaining rooms
-			inRoom.put(places.remove(0), null);
+		Collections.shuffle(places, rand);
+		Collections.shuffle(tools, rand);
+		for (int i = 0; i < tools.size(); i++) {		//for each weapon, rooms left over stay empty
+			inRoom.move(tools.get(i), places.get(i));
 		}
 		return inRoom;
 	}
 	
 	/*HELPER METHOD*/
-	//Used by Board class to construct board game
-	public String[][] getCoords() {
-		return coords;
+	//Used by Board class to construct board game, nothing to parse
+	public BoardTopology getTopology() {
+		return topology;
 	}
 
 	/*GETTERS*/
-	public static int rows() {
-		return rows;
+	//size of this Loader's board
+	public int rows() {
+		return topology.rows();
 	}
 	
-	public static int cols() {
-		return cols;
+	public int cols() {
+		return topology.cols();
 	}
 	
 	public static String [] getPeople() {
@@ -0,0 +1,338 @@
+package main;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gameplay metrics of the whole JVM: counters and latency histograms, read on demand with snapshot()
+ * <br> -- Counters are LongAdders, so threads playing games at the same time do not fight over one cache line
+ * <br> -- Latencies go in log-linear buckets (HdrHistogram style): 64 buckets per power of two,
+ * so any value is kept to within 1.6% without keeping the values themselves
+ * <br> -- A game engine counts in a Tally of plain longs and publishes it once per game,
+ * so the hot path of a simulation never touches a shared counter
+ * <br> -- Turns of a GameEngine are timed one in SAMPLE, enough for the percentiles at a fraction of the cost
+ * @author Ronni Perez
+ *
+ */
+public final class Metrics {
+	public static final int SAMPLE = 16;		//GameEngine times every 16th turn
+
+	/**
+	 * What is counted
+	 */
+	public enum Counter {
+		TURNS("turns"),
+		STEPS("steps"),		//squares moved
+		SUGGESTIONS("suggestions"),
+		REFUTED("refuted"),		//suggestions someone could refute
+		UNREFUTED("unrefuted"),		//suggestions no one could refute
+		ACCUSATIONS("accusations"),
+		EXPULSIONS("expulsions");		//false accusations
+
+		public final String key;		//name in text and JSON output
+
+		Counter(String key) {
+			this.key = key;
+		}
+	}
+
+	/**
+	 * What is timed, all in nanoseconds
+	 */
+	public enum Timer {
+		TURN("turn_ns"),		//roll to end of turn
+		INPUT("input_wait_ns"),		//blocked in InputParser waiting for a line
+		RENDER("render_ns");		//drawing the board in OutputStream.outBoard
+
+		public final String key;		//name in text and JSON output
+
+		Timer(String key) {
+			this.key = key;
+		}
+	}
+
+	private static final LongAdder[] counters = new LongAdder[Counter.values().length];
+	private static final Histogram[] timers = new Histogram[Timer.values().length];
+	static {
+		for (int i = 0; i < counters.length; i++) {
+			counters[i] = new LongAdder();
+		}
+		for (int i = 0; i < timers.length; i++) {
+			timers[i] = new Histogram();
+		}
+	}
+
+	private Metrics() {
+	}
+
+	/**
+	 * Count one
+	 * @param c -- i.e. Counter.TURNS
+	 */
+	public static void increment(Counter c) {
+		counters[c.ordinal()].increment();
+	}
+
+	/**
+	 * Count many
+	 * @param c -- i.e. Counter.STEPS
+	 * @param n -- how many
+	 */
+	public static void add(Counter c, long n) {
+		counters[c.ordinal()].add(n);
+	}
+
+	/**
+	 * Record a latency
+	 * @param t -- i.e. Timer.RENDER
+	 * @param nanos -- how long it took, see System.nanoTime()
+	 */
+	public static void record(Timer t, long nanos) {
+		timers[t.ordinal()].record(nanos);
+	}
+
+	/**
+	 * @param c -- i.e. Counter.TURNS
+	 * @return count so far
+	 */
+	public static long count(Counter c) {
+		return counters[c.ordinal()].sum();
+	}
+
+	/**
+	 * @param t -- i.e. Timer.TURN
+	 * @return the histogram of t
+	 */
+	public static Histogram histogram(Timer t) {
+		return timers[t.ordinal()];
+	}
+
+	/**
+	 * @return every counter and histogram as of now
+	 */
+	public static Snapshot snapshot() {
+		return new Snapshot();
+	}
+
+	/**
+	 * Start counting from zero i.e. between benchmark runs
+	 * Counts made while resetting may or may not survive it
+	 */
+	public static void reset() {
+		for (LongAdder c : counters) {
+			c.reset();
+		}
+		for (Histogram h : timers) {
+			h.reset();
+		}
+	}
+
+	/**
+	 * Latencies in log-linear buckets, thread-safe
+	 * Values below 128 have a bucket each, above that every power of two is split in 64 buckets
+	 */
+	public static class Histogram {
+		private static final int SUB_BITS = 6;		//64 buckets per power of two
+		private static final int HALF = 1 << SUB_BITS;
+		private static final int BUCKETS = 2 * HALF + (63 - SUB_BITS) * HALF;
+
+		private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+		private final LongAdder total = new LongAdder();		//sum of values, for the mean
+		private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+		/**
+		 * @param value -- not negative, negative values count as 0
+		 */
+		public void record(long value) {
+			value = Math.max(0, value);
+			counts.getAndIncrement(index(value));
+			total.add(value);
+			max.accumulate(value);
+		}
+
+		/**
+		 * @return values recorded
+		 */
+		public long count() {
+			long n = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				n += counts.get(i);
+			}
+			return n;
+		}
+
+		/**
+		 * @return average value, 0 if none was recorded
+		 */
+		public double mean() {
+			long n = count();
+			return n == 0 ? 0 : (double) total.sum() / n;
+		}
+
+		public long max() {
+			return max.get();
+		}
+
+		/**
+		 * @param percent -- i.e. 99 for the 99th percentile
+		 * @return highest value of the bucket the percentile falls in, 0 if none was recorded
+		 */
+		public long percentile(double percent) {
+			long[] snapshot = new long[BUCKETS];
+			long n = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				n += snapshot[i] = counts.get(i);
+			}
+			long rank = Math.max(1, (long) Math.ceil(percent / 100 * n));
+			for (int i = 0; i < BUCKETS; i++) {
+				rank -= snapshot[i];
+				if (rank <= 0) {
+					return Math.min(highest(i), max());
+				}
+			}
+			return 0;
+		}
+
+		void reset() {
+			for (int i = 0; i < BUCKETS; i++) {
+				counts.set(i, 0);
+			}
+			total.reset();
+			max.reset();
+		}
+
+		/**
+		 * @return bucket of value
+		 */
+		static int index(long value) {
+			if (value < 2 * HALF) {
+				return (int) value;
+			}
+			int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;		//value >>> shift is in [HALF, 2 * HALF)
+			return 2 * HALF + (shift - 1) * HALF + (int) (value >>> shift) - HALF;
+		}
+
+		/**
+		 * @return highest value that goes in bucket i
+		 */
+		static long highest(int i) {
+			if (i < 2 * HALF) {
+				return i;
+			}
+			int shift = (i - 2 * HALF) / HALF + 1;
+			long sub = (i - 2 * HALF) % HALF + HALF;
+			long highest = ((sub + 1) << shift) - 1;
+			return highest < 0 ? Long.MAX_VALUE : highest;		//last bucket
+		}
+	}
+
+	/**
+	 * Counts of one game, plain longs: not thread-safe, one per game engine
+	 * publish() adds them to the shared counters and starts again from zero
+	 */
+	public static class Tally {
+		private final long[] counts = new long[Counter.values().length];
+
+		public void increment(Counter c) {
+			counts[c.ordinal()]++;
+		}
+
+		public void add(Counter c, long n) {
+			counts[c.ordinal()] += n;
+		}
+
+		public void publish() {
+			for (int i = 0; i < counts.length; i++) {
+				if (counts[i] != 0) {
+					counters[i].add(counts[i]);
+					counts[i] = 0;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Every counter and histogram summary at one point in time
+	 * toString() for people, toJson() for machines
+	 */
+	public static class Snapshot {
+		private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+		private final long[] counts = new long[counters.length];
+		private final long[][] latencies = new long[timers.length][];		//per timer: count, p50, p90, p99, p99.9, max
+		private final double[] means = new double[timers.length];
+
+		private Snapshot() {
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] = counters[i].sum();
+			}
+			for (int i = 0; i < timers.length; i++) {
+				Histogram h = timers[i];
+				long[] l = latencies[i] = new long[PERCENTILES.length + 2];
+				l[0] = h.count();
+				for (int p = 0; p < PERCENTILES.length; p++) {
+					l[p + 1] = h.percentile(PERCENTILES[p]);
+				}
+				l[l.length - 1] = h.max();
+				means[i] = h.mean();
+			}
+		}
+
+		/**
+		 * @param c -- i.e. Counter.TURNS
+		 * @return count when the snapshot was taken
+		 */
+		public long count(Counter c) {
+			return counts[c.ordinal()];
+		}
+
+		/**
+		 * @param t -- i.e. Timer.TURN
+		 * @return values recorded when the snapshot was taken
+		 */
+		public long samples(Timer t) {
+			return latencies[t.ordinal()][0];
+		}
+
+		public String toJson() {
+			StringBuilder sb = new StringBuilder("{\"counters\":{");
+			for (Counter c : Counter.values()) {
+				sb.append(c.ordinal() == 0 ? "" : ",").append('"').append(c.key).append("\":").append(counts[c.ordinal()]);
+			}
+			sb.append("},\"timers\":{");
+			for (Timer t : Timer.values()) {
+				long[] l = latencies[t.ordinal()];
+				sb.append(t.ordinal() == 0 ? "" : ",").append('"').append(t.key).append("\":{\"count\":").append(l[0])
+					.append(",\"mean\":").append(String.format(Locale.ROOT, "%.1f", means[t.ordinal()]));
+				for (int p = 0; p < PERCENTILES.length; p++) {
+					sb.append(",\"p").append(label(PERCENTILES[p])).append("\":").append(l[p + 1]);
+				}
+				sb.append(",\"max\":").append(l[l.length - 1]).append('}');
+			}
+			return sb.append("}}").toString();
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+			for (Counter c : Counter.values()) {
+				sb.append(String.format("%-16s %d%n", c.key, counts[c.ordinal()]));
+			}
+			for (Timer t : Timer.values()) {
+				long[] l = latencies[t.ordinal()];
+				sb.append(String.format(Locale.ROOT, "%-16s count %d, mean %.0f", t.key, l[0], means[t.ordinal()]));
+				for (int p = 0; p < PERCENTILES.length; p++) {
+					sb.append(", p").append(label(PERCENTILES[p])).append(' ').append(l[p + 1]);
+				}
+				sb.append(", max ").append(l[l.length - 1]).append('\n');
+			}
+			return sb.toString();
+		}
+
+		private static String label(double percentile) {
+			return percentile == (long) percentile ? Long.toString((long) percentile) : Double.toString(percentile);
+		}
+	}
+}
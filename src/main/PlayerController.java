@@ -0,0 +1,52 @@
+package main;
+
+import model.Board;
+import model.Notebook;
+
+/**
+ * Makes every decision of one seat, so any seat can be a human at the keyboard or the computer
+ * <br> -- Cluedo asks the controller of the current player at every step of a turn
+ * <br> -- A controller only reads the board and the player's own 'Detective Pad' i.e. no peeking at the solution
+ * <br> -- notes.owner() is the player ID of the seat
+ * @author Ronni Perez
+ *
+ */
+public interface PlayerController {
+
+	/**
+	 * Pick what to do next
+	 * @param board -- the game board
+	 * @param notes -- the player's 'Detective Pad'
+	 * @param remaining -- moves left this turn
+	 * @param canSuggest -- a suggestion is allowed now i.e. in a room and none made yet this turn
+	 * @return 0 view cards, 1 MOVE one step, 2 make an ACCUSATION, 3 announce SUGGESTION (only if canSuggest)
+	 */
+	int choose(Board board, Notebook notes, int remaining, boolean canSuggest);
+
+	/**
+	 * Pick where to move one step
+	 * This DOES NOT have to be valid - checked later
+	 * @param board -- the game board
+	 * @param notes -- the player's 'Detective Pad'
+	 * @param remaining -- moves left this turn
+	 * @return int [] containing coordinates in {row, col} format
+	 */
+	int[] move(Board board, Notebook notes, int remaining);
+
+	/**
+	 * Pick suspect and weapon of a suggestion
+	 * @param board -- the game board
+	 * @param notes -- the player's 'Detective Pad'
+	 * @param room -- room the player is in
+	 * @return {person, weapon}
+	 */
+	String[] suggest(Board board, Notebook notes, String room);
+
+	/**
+	 * Pick suspect, weapon and room of an accusation
+	 * @param board -- the game board
+	 * @param notes -- the player's 'Detective Pad'
+	 * @return {person, weapon, room}
+	 */
+	String[] accuse(Board board, Notebook notes);
+}
@@ -0,0 +1,428 @@
+package main;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import view.BoardRenderer;
+
+/**
+ * Non-blocking front end: many text clients served by a few selector threads, see TextSession
+ * <br> -- Every selector thread (Loop) owns its connections, a read buffer, a board renderer
+ * and a pool of direct buffers, nothing is shared between threads but the accept queue
+ * <br> -- Input is framed into lines, every line goes to the client's TextSession
+ * <br> -- Output is written into pooled direct buffers and handed to the socket with one gathering write,
+ * buffers go back to the pool as soon as they are sent
+ * <br> -- An idle connection holds its TextSession and nothing else, no thread and no buffer
+ * <br> -- A client that does not read its output is not read from until it does
+ * @author Ronni Perez
+ *
+ */
+public class SelectorServer implements AutoCloseable {
+	private static final int CHUNK = 4096;		//bytes per pooled buffer
+	private static final int POOLED = 256;		//buffers kept per thread at most
+	private static final int MAX_LINE = 256;		//longest line accepted
+	private static final int MAX_PENDING = 64 * 1024;		//output queued before a client stops being read
+
+	private final ServerSocketChannel server;
+	private final Loop[] loops;
+	private final Thread[] threads;		//one per loop
+	private final AtomicInteger sessions = new AtomicInteger();		//connections open now
+	private int next;		//thread the next connection goes to, only touched by the accepting thread
+
+	/**
+	 * Constructor, starts accepting connections
+	 * @param port -- port to listen on, 0 for any free port
+	 * @param threads -- selector threads i.e. number of cores
+	 * @param loader -- board to play on
+	 */
+	public SelectorServer(int port, int threads, Loader loader) {
+		try {
+			server = ServerSocketChannel.open();
+			server.bind(new InetSocketAddress(port), 4096);		//deep backlog, clients arrive in bursts
+			server.configureBlocking(false);
+			loops = new Loop[threads];
+			for (int i = 0; i < threads; i++) {
+				loops[i] = new Loop(loader);
+			}
+			server.register(loops[0].selector, SelectionKey.OP_ACCEPT);		//first thread also accepts
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		this.threads = new Thread[threads];
+		for (int i = 0; i < threads; i++) {
+			this.threads[i] = new Thread(loops[i], "selector-"+i);
+			this.threads[i].setDaemon(true);
+			this.threads[i].start();
+		}
+	}
+
+	/**
+	 * Accept every pending connection, spread them over the threads in turn
+	 */
+	private void accept() throws IOException {
+		for (SocketChannel channel; (channel = server.accept()) != null; ) {
+			try {
+				channel.configureBlocking(false);
+				channel.socket().setTcpNoDelay(true);
+			} catch (IOException e) {		//client gave up while being accepted
+				channel.close();
+				continue;
+			}
+			sessions.incrementAndGet();
+			loops[next].add(channel);
+			next = (next + 1) % loops.length;
+		}
+	}
+
+	/**
+	 * @return port the server listens on
+	 */
+	public int getPort() {
+		return server.socket().getLocalPort();
+	}
+
+	/**
+	 * @return connections open now
+	 */
+	public int sessions() {
+		return sessions.get();
+	}
+
+	/**
+	 * Stop accepting, disconnect every client
+	 * Every thread closes its own connections, this returns once they all have
+	 * <br> -- The accepting thread stops first, so no connection is handed to a thread that already stopped
+	 */
+	@Override
+	public void close() {
+		try {
+			for (int i = 0; i < loops.length; i++) {
+				loops[i].close();
+				threads[i].join();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		try {
+			server.close();
+		} catch (IOException e) {
+		}
+	}
+
+	/**
+	 * One selector thread and everything only it touches
+	 */
+	private class Loop implements Runnable {
+		private final Selector selector;
+		private final Queue<SocketChannel> added = new ConcurrentLinkedQueue<SocketChannel>();	//accepted, not registered yet
+		private final ByteBuffer in = ByteBuffer.allocateDirect(16 * 1024);		//every read of this thread
+		private final ArrayDeque<ByteBuffer> pool = new ArrayDeque<ByteBuffer>();
+		private final BoardRenderer renderer = new BoardRenderer(false);
+		private final Loader loader;
+		private volatile boolean closing;		//set by close(), seen by this thread once woken up
+
+		Loop(Loader loader) throws IOException {
+			this.loader = loader;
+			selector = Selector.open();
+		}
+
+		void add(SocketChannel channel) {
+			added.add(channel);
+			selector.wakeup();
+		}
+
+		/**
+		 * Ask this thread to stop, it disconnects its clients itself, see shutdown()
+		 */
+		void close() {
+			closing = true;
+			selector.wakeup();
+		}
+
+		@Override
+		public void run() {
+			try {
+				while (!closing) {
+					selector.select();
+					register();
+					Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+					while (keys.hasNext() && !closing) {
+						SelectionKey key = keys.next();
+						keys.remove();
+						handle(key);
+					}
+				}
+			} catch (IOException e) {		//selector broken, nothing more to serve
+				System.err.println("Selector failed: "+e);
+			} finally {
+				shutdown();
+			}
+		}
+
+		/**
+		 * Close every connection of this thread, so their buffers go back to the pool and they are counted out,
+		 * then the selector
+		 */
+		private void shutdown() {
+			for (SocketChannel channel; (channel = added.poll()) != null; ) {		//accepted, never registered
+				sessions.decrementAndGet();
+				try {
+					channel.close();
+				} catch (IOException e) {
+				}
+			}
+			for (SelectionKey key : selector.keys()) {
+				Connection c = (Connection) key.attachment();
+				if (c != null) {
+					c.close();
+				}
+			}
+			try {
+				selector.close();
+			} catch (IOException e) {
+			}
+		}
+
+		/**
+		 * Start serving connections handed over by accept()
+		 * A connection that fails here is closed on its own, the others and the thread carry on
+		 */
+		private void register() {
+			for (SocketChannel channel; (channel = added.poll()) != null; ) {
+				Connection c = new Connection(channel, this);
+				try {
+					c.key = channel.register(selector, SelectionKey.OP_READ, c);
+					c.session.open();
+					c.send();
+				} catch (IOException | RuntimeException e) {		//i.e. client reset right after connecting
+					drop(c, e);
+				}
+			}
+		}
+
+		private void handle(SelectionKey key) {
+			if (!key.isValid()) {
+				return;
+			}
+			try {
+				if (key.isAcceptable()) {
+					accept();
+					return;
+				}
+				Connection c = (Connection) key.attachment();
+				if (key.isWritable()) {
+					c.send();
+				}
+				if (key.isValid() && key.isReadable()) {
+					c.receive();
+				}
+			} catch (IOException | RuntimeException e) {		//only this connection is dropped
+				drop((Connection) key.attachment(), e);
+			}
+		}
+
+		/**
+		 * Close a connection that failed, a bug in its session is reported
+		 * @param c -- the connection, null for the accepting key
+		 * @param e -- what failed
+		 */
+		private void drop(Connection c, Exception e) {
+			if (e instanceof RuntimeException) {
+				System.err.println("Session closed: "+e);
+			}
+			if (c != null) {
+				c.close();
+			}
+		}
+
+		ByteBuffer borrow() {
+			ByteBuffer b = pool.poll();
+			return b != null ? b : ByteBuffer.allocateDirect(CHUNK);
+		}
+
+		void release(ByteBuffer b) {
+			if (pool.size() < POOLED) {
+				b.clear();
+				pool.push(b);
+			}
+		}
+	}
+
+	/**
+	 * A client: its session, the line it is typing and the output it has not received yet
+	 */
+	private class Connection {
+		private final SocketChannel channel;
+		private final Loop loop;
+		private final Outbox out;
+		private final TextSession session;
+		private SelectionKey key;
+		private byte[] line;		//start of a line split across reads, null if none
+		private int length;		//bytes used in line
+		private boolean closing;		//disconnect once the output is sent
+
+		Connection(SocketChannel channel, Loop loop) {
+			this.channel = channel;
+			this.loop = loop;
+			this.out = new Outbox(loop);
+			this.session = new TextSession(loop.loader, loop.renderer, out);
+		}
+
+		/**
+		 * Read what arrived, answer every complete line
+		 * Longer lines than MAX_LINE are cut short
+		 */
+		void receive() throws IOException {
+			ByteBuffer in = loop.in;
+			in.clear();
+			if (channel.read(in) < 0) {
+				close();
+				return;
+			}
+			in.flip();
+			while (in.hasRemaining() && !closing) {
+				byte b = in.get();
+				if (b == '\n') {
+					String text = new String(line == null ? new byte[0] : line, 0, length, StandardCharsets.ISO_8859_1);
+					line = null;
+					length = 0;
+					closing = !session.line(text.endsWith("\r") ? text.substring(0, text.length() - 1) : text);
+				} else if (length < MAX_LINE) {
+					if (line == null || length == line.length) {		//grow
+						line = line == null ? new byte[32] : Arrays.copyOf(line, line.length * 2);
+					}
+					line[length++] = b;
+				}
+			}
+			send();		//stops reading if the client is not reading its output
+		}
+
+		/**
+		 * Write as much output as the socket takes, return sent buffers to the pool
+		 */
+		void send() throws IOException {
+			out.writeTo(channel);
+			int ops = out.size() > 0 ? SelectionKey.OP_WRITE : 0;
+			if (out.size() < MAX_PENDING && !closing) {
+				ops |= SelectionKey.OP_READ;
+			}
+			if (ops == 0) {		//closing and all sent
+				close();
+				return;
+			}
+			key.interestOps(ops);
+		}
+
+		void close() {
+			if (!channel.isOpen()) {
+				return;
+			}
+			out.discard();
+			sessions.decrementAndGet();
+			try {
+				channel.close();
+			} catch (IOException e) {
+			}
+		}
+	}
+
+	/**
+	 * Output of one client, in direct buffers borrowed from its thread's pool
+	 * An OutputStream so a BoardRenderer can draw straight into it
+	 */
+	static class Outbox extends java.io.OutputStream {
+		private final Loop loop;
+		private final ArrayDeque<ByteBuffer> queued = new ArrayDeque<ByteBuffer>();	//filled, oldest first
+		private int size;		//bytes queued and not sent
+
+		private Outbox(Loop loop) {
+			this.loop = loop;
+		}
+
+		/**
+		 * Queue text
+		 * @param text -- i.e. a message, line breaks included
+		 */
+		void print(String text) {
+			byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+			write(bytes, 0, bytes.length);
+		}
+
+		@Override
+		public void write(int b) {
+			write(new byte[] {(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			size += len;
+			while (len > 0) {
+				ByteBuffer last = queued.peekLast();
+				if (last == null || !last.hasRemaining()) {
+					last = loop.borrow();
+					queued.add(last);
+				}
+				int n = Math.min(len, last.remaining());
+				last.put(b, off, n);
+				off += n;
+				len -= n;
+			}
+		}
+
+		/**
+		 * One gathering write of everything queued
+		 */
+		void writeTo(SocketChannel channel) throws IOException {
+			if (size == 0) {
+				return;
+			}
+			ByteBuffer[] buffers = queued.toArray(new ByteBuffer[queued.size()]);
+			for (ByteBuffer b : buffers) {
+				b.flip();
+			}
+			size -= (int) channel.write(buffers);
+			while (!queued.isEmpty() && !queued.peekFirst().hasRemaining()) {		//fully sent
+				loop.release(queued.pollFirst());
+			}
+			for (ByteBuffer b : queued) {		//back to filling: keep unsent bytes at the front
+				b.compact();
+			}
+		}
+
+		int size() {
+			return size;
+		}
+
+		void discard() {
+			while (!queued.isEmpty()) {
+				loop.release(queued.poll());
+			}
+			size = 0;
+		}
+	}
+
+	/**
+	 * Main
+	 * @param args -- port (default 4001), selector threads (default number of cores)
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : 4001;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		SelectorServer server = new SelectorServer(port, threads, new Loader());
+		System.out.println("Listening on port "+server.getPort()+" with "+threads+" selector thread(s)");
+		Thread.currentThread().join();		//until killed
+	}
+}
@@ -0,0 +1,138 @@
+package main;
+
+/**
+ * Aggregated results of many simulated games
+ * Each fork-join task fills its own instance, instances are merged when tasks join
+ * so no counter is ever shared between threads
+ * @author Ronni Perez
+ *
+ */
+public class SimulationStats {
+	private long games;		//games played
+	private long[] wins = new long[7];		//wins per seat i.e. wins[1] for P1, index 0 unused
+	private long unsolved;		//games without a winner i.e. everyone expelled or turn limit reached
+	private long turnsToWin;		//sum of turns of games that were won
+	private long minTurns = Long.MAX_VALUE;		//fastest win
+	private long maxTurns;		//slowest win
+	private long falseAccusations;
+	private long suggestions;
+	private long refuted;		//suggestions that someone could refute
+	private long unrefuted;		//suggestions no one could refute
+
+	/**
+	 * Record the outcome of a finished game
+	 * @param winner -- player ID of winner, 0 if no one won
+	 * @param turns -- turns played in the game
+	 */
+	public void recordGame(int winner, long turns) {
+		games++;
+		if (winner == 0) {
+			unsolved++;
+			return;
+		}
+		wins[winner]++;
+		turnsToWin += turns;
+		minTurns = Math.min(minTurns, turns);
+		maxTurns = Math.max(maxTurns, turns);
+	}
+
+	public void recordFalseAccusation() {
+		falseAccusations++;
+	}
+
+	/**
+	 * @param refuter -- player ID who refuted the suggestion, 0 if no one could
+	 */
+	public void recordSuggestion(int refuter) {
+		suggestions++;
+		if (refuter == 0) 	unrefuted++;
+		else 	refuted++;
+	}
+
+	/**
+	 * Add another set of results into this one
+	 * @param other -- results of another task
+	 * @return this, for chaining
+	 */
+	public SimulationStats merge(SimulationStats other) {
+		games += other.games;
+		for (int i = 0; i < wins.length; i++) {
+			wins[i] += other.wins[i];
+		}
+		unsolved += other.unsolved;
+		turnsToWin += other.turnsToWin;
+		minTurns = Math.min(minTurns, other.minTurns);
+		maxTurns = Math.max(maxTurns, other.maxTurns);
+		falseAccusations += other.falseAccusations;
+		suggestions += other.suggestions;
+		refuted += other.refuted;
+		unrefuted += other.unrefuted;
+		return this;
+	}
+
+	/*GETTERS*/
+	public long games() {
+		return games;
+	}
+
+	/**
+	 * @param seat -- player ID 1...6
+	 * @return number of games won by that seat
+	 */
+	public long wins(int seat) {
+		return wins[seat];
+	}
+
+	public long unsolved() {
+		return unsolved;
+	}
+
+	/**
+	 * @return average turns of won games, 0 if none was won
+	 */
+	public double averageTurnsToWin() {
+		long won = games - unsolved;
+		return won == 0 ? 0 : (double) turnsToWin / won;
+	}
+
+	public long minTurnsToWin() {
+		return games == unsolved ? 0 : minTurns;
+	}
+
+	public long maxTurnsToWin() {
+		return maxTurns;
+	}
+
+	public long falseAccusations() {
+		return falseAccusations;
+	}
+
+	public long suggestions() {
+		return suggestions;
+	}
+
+	public long refuted() {
+		return refuted;
+	}
+
+	public long unrefuted() {
+		return unrefuted;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("Games played: ").append(games).append('\n');
+		for (int seat = 1; seat < wins.length; seat++) {
+			if (wins[seat] > 0) {
+				sb.append(String.format("P%d won %d (%.2f%%)%n", seat, wins[seat], 100.0 * wins[seat] / games));
+			}
+		}
+		sb.append("No winner: ").append(unsolved).append('\n');
+		sb.append(String.format("Turns to win: avg %.2f, min %d, max %d%n", averageTurnsToWin(), minTurnsToWin(), maxTurns));
+		sb.append("False accusations: ").append(falseAccusations).append('\n');
+		sb.append("Suggestions: ").append(suggestions)
+			.append(" (refuted ").append(refuted).append(", unrefuted ").append(unrefuted).append(')');
+		return sb.toString();
+	}
+}
@@ -0,0 +1,206 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import main.GameEngine.Phase;
+import main.GameEngine.Refutation;
+import model.Board;
+import model.Deck;
+import model.Notebook;
+
+/**
+ * Monte Carlo simulator: plays many independent computer-only games in parallel on a fork-join pool
+ * <br> -- Every game has its own GameEngine i.e. its own Board, deck and solution
+ * <br> -- Every task rolls with its own GameRandom, split off its parent's when the task splits,
+ * so no random state is shared and the same seed gives the same results on any number of cores
+ * <br> -- Every task keeps its own SimulationStats, merged when tasks join
+ * <br> -- Every seat is a BotController, the same one Cluedo uses for computer seats
+ * @author Ronni Perez
+ *
+ */
+public class Simulator {
+	private static final int BATCH = 64;		//games played by one task without splitting further
+
+	private final int players;		//players per game
+	private final long maxTurns;		//give up on a game after this many turns
+	private final Loader loader;		//board every game is played on
+
+	/**
+	 * Constructor
+	 * @param players -- players per game i.e. 3 to 6
+	 * @param maxTurns -- turn limit of each game, games reaching it count as unsolved
+	 */
+	public Simulator(int players, long maxTurns) {
+		this(players, maxTurns, new Loader());
+	}
+
+	/**
+	 * Constructor
+	 * @param players -- players per game i.e. 3 to 6
+	 * @param maxTurns -- turn limit of each game, games reaching it count as unsolved
+	 * @param loader -- board every game is played on i.e. new Loader(path) of a generated board
+	 */
+	public Simulator(int players, long maxTurns, Loader loader) {
+		this.players = players;
+		this.maxTurns = maxTurns;
+		this.loader = loader;
+	}
+
+	/**
+	 * Play games on the common fork-join pool i.e. all cores
+	 * @param games -- number of games to play
+	 * @return aggregated results
+	 */
+	public SimulationStats run(int games) {
+		return run(games, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Play games on a given pool
+	 * @param games -- number of games to play
+	 * @param pool -- pool that plays the games
+	 * @return aggregated results
+	 */
+	public SimulationStats run(int games, ForkJoinPool pool) {
+		return run(games, pool, new GameRandom().seed());
+	}
+
+	/**
+	 * Play games on a given pool, reproducibly
+	 * @param games -- number of games to play
+	 * @param pool -- pool that plays the games
+	 * @param seed -- master seed, same seed same results
+	 * @return aggregated results
+	 */
+	public SimulationStats run(int games, ForkJoinPool pool, long seed) {
+		return pool.invoke(new Batch(0, games, new GameRandom(seed)));
+	}
+
+	/**
+	 * Play one full game with every seat played by a BotController
+	 * @param rand -- random source of the game and of its players' decisions
+	 * @param stats -- where results are recorded
+	 */
+	public void playGame(Random rand, SimulationStats stats) {
+		GameEngine engine = new GameEngine(players, rand, loader);
+		Board board = engine.getBoard();
+		Notebook[] notes = new Notebook[players + 1];		//per seat deductions, index 0 unused
+		PlayerController[] seats = new PlayerController[players + 1];
+		for (int ID = 1; ID <= players; ID++) {
+			notes[ID] = new Notebook(players, ID, board.getPlayer(ID).hand());
+			seats[ID] = new BotController(rand);
+		}
+
+		while (engine.getPhase() != Phase.GAME_OVER && engine.getTurns() <= maxTurns) {
+			engine.roll();
+			int ID = engine.getCurrent();
+			while (engine.getPhase() == Phase.ACTION) {
+				switch (seats[ID].choose(board, notes[ID], engine.getRemaining(), engine.canSuggest())) {
+				case 1:
+					int[] to = seats[ID].move(board, notes[ID], engine.getRemaining());
+					engine.move(to[0], to[1]);
+					break;
+				case 2:
+					String[] accusation = seats[ID].accuse(board, notes[ID]);
+					if (!engine.accuse(accusation[0], accusation[1], accusation[2])) {
+						stats.recordFalseAccusation();
+					}
+					break;
+				case 3:
+					suggest(engine, notes, seats[ID].suggest(board, notes[ID], board.inRoom(ID)), stats);
+					break;
+				}
+			}
+			if (engine.getPhase() == Phase.TURN_OVER) {
+				engine.advance();
+			}
+		}
+		engine.publishMetrics();		//games stopped at maxTurns
+		stats.recordGame(engine.getWinner(), engine.getTurns());
+	}
+
+	/**
+	 * Make current player's suggestion, then every seat writes the answer in its notebook
+	 * @param engine -- the game
+	 * @param notes -- notebook of every seat
+	 * @param pick -- {person, weapon}
+	 * @param stats -- where results are recorded
+	 */
+	private void suggest(GameEngine engine, Notebook[] notes, String[] pick, SimulationStats stats) {
+		int ID = engine.getCurrent();
+		int suggestion = Deck.mask(pick[0], pick[1], engine.getBoard().inRoom(ID));
+		Refutation r = engine.suggest(pick[0], pick[1]);
+		stats.recordSuggestion(r.refuter);
+		for (int seat = 1; seat < notes.length; seat++) {		//only the suggester sees the card
+			notes[seat].suggestion(ID, suggestion, r.refuter, seat == ID ? r.index : -1);
+		}
+	}
+
+	/**
+	 * Plays games [from, to), split in halves until small enough
+	 * Splits happen in the same places for the same number of games, so does every GameRandom split
+	 */
+	private class Batch extends RecursiveTask<SimulationStats> {
+		private static final long serialVersionUID = 1L;
+		private final int from;
+		private final int to;
+		private final GameRandom rand;		//owned by this task only
+
+		Batch(int from, int to, GameRandom rand) {
+			this.from = from;
+			this.to = to;
+			this.rand = rand;
+		}
+
+		@Override
+		protected SimulationStats compute() {
+			if (to - from <= BATCH) {
+				SimulationStats stats = new SimulationStats();
+				for (int i = from; i < to; i++) {
+					playGame(rand, stats);
+				}
+				return stats;
+			}
+			int mid = (from + to) >>> 1;
+			Batch left = new Batch(from, mid, rand.split());
+			left.fork();
+			SimulationStats right = new Batch(mid, to, rand).compute();
+			return right.merge(left.join());
+		}
+	}
+
+	/**
+	 * Main
+	 * @param args -- number of games (default 10000), players per game (default 4),
+	 * 	board file (default assets/board.txt), master seed (default random),
+	 * 	optional --metrics or --metrics=json to print gameplay metrics at the end, see Metrics
+	 */
+	public static void main(String[] args) {
+		String metrics = null;
+		List<String> positional = new ArrayList<String>();
+		for (String arg : args) {
+			if (arg.startsWith("--metrics")) 	metrics = arg;
+			else 	positional.add(arg);
+		}
+		args = positional.toArray(new String[positional.size()]);
+		int games = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		int players = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+		long start = System.nanoTime();
+		Loader loader = args.length > 2 ? new Loader(args[2]) : new Loader();
+		long seed = args.length > 3 ? Long.parseLong(args[3]) : new GameRandom().seed();
+		SimulationStats stats = new Simulator(players, 10000, loader).run(games, ForkJoinPool.commonPool(), seed);
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.println(stats);
+		System.out.println("seed "+seed);
+		System.out.printf("%.2f s, %.0f games/s on %d cores%n", seconds, games / seconds,
+				Runtime.getRuntime().availableProcessors());
+		if (metrics != null) {
+			Metrics.Snapshot snapshot = Metrics.snapshot();
+			System.out.println(metrics.equals("--metrics=json") ? snapshot.toJson() : snapshot);
+		}
+	}
+}
@@ -0,0 +1,264 @@
+package main;
+
+import main.GameEngine.Phase;
+import main.GameEngine.Refutation;
+import model.Board;
+import model.Deck;
+import model.Notebook;
+import model.Square;
+import view.BoardRenderer;
+
+/**
+ * One client of SelectorServer: a game against the computer, driven one line at a time
+ * <br> -- Nothing here blocks, every line is answered before the next one is read
+ * <br> -- The client plays P1, the computer every other seat (same BotController as everywhere else)
+ * <br> -- Commands: move row,col | suggest person weapon | accuse person weapon room | cards | board | help | quit
+ * with person, weapon and room numbered as in help
+ * @author Ronni Perez
+ *
+ */
+class TextSession {
+	private static final int HUMAN = 1;		//seat of the client
+	private static final long MAX_TURNS = 10000;		//computer players give up after this many turns
+	private static final String HELP = menu();
+
+	private final Loader loader;		//board to play on
+	private final BoardRenderer renderer;		//shared by every session of a selector thread
+	private final SelectorServer.Outbox out;		//what goes back to the client
+	private GameRandom rand;
+	private GameEngine engine;		//null until the client says how many play
+	private Notebook[] notes;		//per seat, index 0 unused
+	private BotController[] bots;		//per seat, index 0 and HUMAN unused
+	private boolean over;		//game ended, next line says how many play the next one
+
+	TextSession(Loader loader, BoardRenderer renderer, SelectorServer.Outbox out) {
+		this.loader = loader;
+		this.renderer = renderer;
+		this.out = out;
+	}
+
+	/**
+	 * Greet a new client
+	 */
+	void open() {
+		message("Welcome to Cluedo game");
+		message("How many players are playing the game? 3 to 6 players");
+	}
+
+	/**
+	 * Answer one line from the client
+	 * @param line -- without its line break
+	 * @return false iff the client is done and should be disconnected
+	 */
+	boolean line(String line) {
+		String[] words = line.trim().split("\\s+");
+		String command = words[0].toLowerCase();
+		if (command.equals("quit")) {
+			message("Bye");
+			return false;
+		}
+		if (engine == null || over) {
+			start(command);
+			return true;
+		}
+		try {
+			switch (command) {
+			case "move": case "m": move(words); break;
+			case "suggest": case "s": suggest(words); break;
+			case "accuse": case "a": accuse(words); break;
+			case "cards": case "c": cards(); break;
+			case "board": case "b": board(); break;
+			case "help": case "h": out.print(HELP); break;
+			default: message("Unknown command, type help");
+			}
+		} catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+			message("Invalid. Type help for how to write each command");
+		} catch (IllegalStateException e) {		//i.e. suggesting outside a room
+			message(e.getMessage());
+		}
+		return true;
+	}
+
+	/**
+	 * New game, the answer is how many play
+	 */
+	private void start(String answer) {
+		int players;
+		try {
+			players = Integer.parseInt(answer);
+		} catch (NumberFormatException e) {
+			players = 0;
+		}
+		if (players < 3 || players > 6) {
+			message("Invalid. Enter number between (inclusive) 3 and  (inclusive) 6");
+			return;
+		}
+		rand = new GameRandom();
+		over = false;
+		engine = new GameEngine(players, rand, loader);
+		notes = new Notebook[players + 1];
+		bots = new BotController[players + 1];
+		for (int ID = 1; ID <= players; ID++) {
+			notes[ID] = new Notebook(players, ID, engine.getBoard().getPlayer(ID).hand());
+			bots[ID] = new BotController(rand);
+		}
+		message("You are P1, the computer plays P2 to P"+players);
+		out.print(HELP);
+		nextTurn();
+	}
+
+	private void move(String[] words) {
+		String[] coords = words[1].split(",");
+		if (!engine.move(Integer.parseInt(coords[0].trim()), Integer.parseInt(coords[1].trim()))) {
+			message("Move invalid");
+			return;
+		}
+		board();
+		if (engine.getPhase() == Phase.TURN_OVER) {
+			Square loc = engine.getLocation();
+			message(loc.kind == Square.Type.ROOM ? "Your turn has ended because you have entered "+loc.getName()
+					: "Your turn has ended");
+			endTurn();
+		} else {
+			message("P1 has "+engine.getRemaining()+" moves remaining");
+		}
+	}
+
+	private void suggest(String[] words) {
+		String person = Deck.PEOPLE[Integer.parseInt(words[1]) - 1];
+		String weapon = Deck.WEAPONS[Integer.parseInt(words[2]) - 1];
+		String room = engine.getBoard().inRoom(HUMAN);
+		Refutation r = engine.suggest(person, weapon);
+		message("You suggested: "+person+", "+room+", "+weapon);
+		record(HUMAN, Deck.mask(person, weapon, room), r);
+		message(r.refuter != 0 ? "Player "+r.refuter+" has the card "+r.card : "No one can refute the suggestion");
+	}
+
+	private void accuse(String[] words) {
+		String person = Deck.PEOPLE[Integer.parseInt(words[1]) - 1];
+		String weapon = Deck.WEAPONS[Integer.parseInt(words[2]) - 1];
+		String room = Deck.ROOMS[Integer.parseInt(words[3]) - 1];
+		if (engine.accuse(person, weapon, room)) {
+			message("You WON!!! The suspect is "+person+". He/She used the "+weapon+" to kill Dr Black in the "+room);
+			gameOver();
+			return;
+		}
+		message("P1's accusations are baseless. P1 is expelled from the game");
+		endTurn();
+	}
+
+	private void cards() {
+		StringBuilder sb = new StringBuilder("/**  You have the following cards:\n");
+		for (int hand = engine.getBoard().getPlayer(HUMAN).hand(); hand != 0; hand &= hand - 1) {
+			sb.append(Deck.name(Integer.numberOfTrailingZeros(hand))).append('\n');
+		}
+		out.print(sb.toString());
+	}
+
+	private void board() {
+		renderer.render(engine.getBoard(), out);		//straight into the pooled buffers
+	}
+
+	/**
+	 * Pass the turn on, computer players play theirs, until it is the client's turn again or the game ends
+	 */
+	private void endTurn() {
+		engine.advance();
+		nextTurn();
+	}
+
+	private void nextTurn() {
+		Board board = engine.getBoard();
+		boolean watching = board.isPlaying(HUMAN);		//no commentary on a game the client is out of
+		while (engine.getPhase() == Phase.ROLL && engine.getTurns() <= MAX_TURNS) {
+			if (engine.getCurrent() == HUMAN) {
+				board();
+				message("It's your turn\nThe dice rolled "+engine.roll());
+				return;
+			}
+			botTurn(watching);
+			if (engine.getPhase() == Phase.TURN_OVER) {
+				engine.advance();
+			}
+		}
+		gameOver();
+	}
+
+	/**
+	 * One whole turn of a computer player
+	 * @param watching -- true to tell the client what it did
+	 */
+	private void botTurn(boolean watching) {
+		Board board = engine.getBoard();
+		int ID = engine.getCurrent();
+		engine.roll();
+		while (engine.getPhase() == Phase.ACTION) {
+			switch (bots[ID].choose(board, notes[ID], engine.getRemaining(), engine.canSuggest())) {
+			case 1:
+				int[] to = bots[ID].move(board, notes[ID], engine.getRemaining());
+				engine.move(to[0], to[1]);
+				break;
+			case 2:
+				String[] a = bots[ID].accuse(board, notes[ID]);
+				boolean won = engine.accuse(a[0], a[1], a[2]);
+				if (watching || won) {
+					message("P"+ID+" accused "+a[0]+", "+a[2]+", "+a[1]+(won ? " and WON" : " and is expelled"));
+				}
+				break;
+			case 3:
+				String room = board.inRoom(ID);
+				String[] s = bots[ID].suggest(board, notes[ID], room);
+				Refutation r = engine.suggest(s[0], s[1]);
+				record(ID, Deck.mask(s[0], s[1], room), r);
+				if (watching) {
+					message("P"+ID+" suggested "+s[0]+", "+room+", "+s[1]+(r.refuter == HUMAN ? ", you showed "+r.card
+							: r.refuter != 0 ? ", P"+r.refuter+" showed a card" : ", no one could refute"));
+				}
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Every seat writes the answer to a suggestion in its notebook, only the suggester sees the card
+	 */
+	private void record(int suggester, int suggestion, Refutation r) {
+		for (int ID = 1; ID < notes.length; ID++) {
+			notes[ID].suggestion(suggester, suggestion, r.refuter, ID == suggester ? r.index : -1);
+		}
+	}
+
+	private void gameOver() {
+		over = true;
+		engine.publishMetrics();		//games stopped at MAX_TURNS
+		if (engine.getWinner() == 0) {
+			message("Game OVER! The case has gone cold");
+		} else if (engine.getWinner() != HUMAN) {
+			message("P"+engine.getWinner()+" won the game");
+		}
+		message("How many players for the next game? 3 to 6, or quit");
+	}
+
+	private void message(String msg) {
+		out.print("/** "+msg+"\n");
+	}
+
+	/**
+	 * @return the commands, with every card numbered
+	 */
+	private static String menu() {
+		StringBuilder sb = new StringBuilder("/** Commands: move row,col | suggest person weapon | accuse person weapon room"
+				+" | cards | board | help | quit\n");
+		list(sb, "People", Deck.PEOPLE);
+		list(sb, "Weapons", Deck.WEAPONS);
+		list(sb, "Rooms", Deck.ROOMS);
+		return sb.toString();
+	}
+
+	private static void list(StringBuilder sb, String title, String[] names) {
+		sb.append(title).append(':');
+		for (int i = 0; i < names.length; i++) {
+			sb.append(' ').append(i + 1).append(" - ").append(names[i]).append(i + 1 < names.length ? "," : "\n");
+		}
+	}
+}
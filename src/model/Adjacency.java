@@ -0,0 +1,167 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Immutable neighbor graph of a board in compressed sparse row (CSR) form
+ * <br> -- Every Square has a cell id: row * cols + col
+ * <br> -- Neighbors of cell id are targets[offsets[id]] ... targets[offsets[id+1] - 1]
+ * <br> -- Edges are directed i.e. a doorway leads into a room and a room leads out to its doorways
+ * Two int arrays for the whole board, no object per edge
+ * @author Ronni Perez
+ *
+ */
+public final class Adjacency {
+	private final int rows;
+	private final int cols;
+	private final int[] offsets;		//start of each cell's neighbors in targets, one extra entry at the end
+	private final int[] targets;		//cell ids of neighbors, grouped by cell
+
+	private Adjacency(int rows, int cols, int[] offsets, int[] targets) {
+		this.rows = rows;
+		this.cols = cols;
+		this.offsets = offsets;
+		this.targets = targets;
+	}
+
+	/**
+	 * @return cell id of row,col
+	 */
+	public int id(int row, int col) {
+		return row * cols + col;
+	}
+
+	public int row(int id) {
+		return id / cols;
+	}
+
+	public int col(int id) {
+		return id % cols;
+	}
+
+	/**
+	 * @return number of cells in the board
+	 */
+	public int cells() {
+		return rows * cols;
+	}
+
+	/**
+	 * @return number of edges in the board
+	 */
+	public int edges() {
+		return targets.length;
+	}
+
+	/**
+	 * @param id -- cell id
+	 * @return number of neighbors of cell
+	 */
+	public int degree(int id) {
+		return offsets[id + 1] - offsets[id];
+	}
+
+	/**
+	 * @param id -- cell id
+	 * @param i -- index of neighbor from 0 to degree(id) - 1
+	 * @return cell id of the i-th neighbor
+	 */
+	public int neighbour(int id, int i) {
+		return targets[offsets[id] + i];
+	}
+
+	/**
+	 * Checks if row,col is a neighbor of cell id
+	 * Out of bounds row,col is never a neighbor
+	 * @param id -- cell id
+	 * @param row
+	 * @param col
+	 * @return true iff cell id has Square at row,col as it's neighbor
+	 */
+	public boolean hasEdge(int id, int row, int col) {
+		if (row < 0 || row >= rows || col < 0 || col >= cols) {
+			return false;
+		}
+		int to = row * cols + col;
+		for (int i = offsets[id], end = offsets[id + 1]; i < end; i++) {
+			if (targets[i] == to) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return a graph with every edge reversed i.e. to answer "where can I come from"
+	 */
+	public Adjacency transpose() {
+		Builder reversed = new Builder(rows, cols);
+		for (int id = 0; id < cells(); id++) {
+			for (int i = offsets[id], end = offsets[id + 1]; i < end; i++) {
+				reversed.add(row(targets[i]), col(targets[i]), row(id), col(id));
+			}
+		}
+		return reversed.build();
+	}
+
+	/**
+	 * Collects edges in any order then packs them into an Adjacency
+	 */
+	public static class Builder {
+		private final int rows;
+		private final int cols;
+		private int[] from = new int[256];		//edge sources
+		private int[] to = new int[256];		//edge targets
+		private int size;		//number of edges collected
+
+		public Builder(int rows, int cols) {
+			this.rows = rows;
+			this.cols = cols;
+		}
+
+		/**
+		 * Add edge from fromRow,fromCol to toRow,toCol
+		 */
+		public void add(int fromRow, int fromCol, int toRow, int toCol) {
+			if (size == from.length) {		//grow
+				from = Arrays.copyOf(from, size * 2);
+				to = Arrays.copyOf(to, size * 2);
+			}
+			from[size] = fromRow * cols + fromCol;
+			to[size] = toRow * cols + toCol;
+			size++;
+		}
+
+		/**
+		 * Add edges from row,col to every coordinate
+		 * @param coords -- coordinates of neighbors in row,col format (ALWAYS even number of elements)
+		 *            e.g. new int [] {1,4,5,5} means neighbors are: {1,4} {5,5}
+		 */
+		public void add(int row, int col, int[] coords) {
+			for (int i = 0; i < coords.length; i += 2) {
+				add(row, col, coords[i], coords[i + 1]);
+			}
+		}
+
+		/**
+		 * Counting sort of edges by source cell
+		 * @return the packed graph
+		 */
+		public Adjacency build() {
+			int cells = rows * cols;
+			int[] offsets = new int[cells + 1];
+			for (int i = 0; i < size; i++) {		//count neighbors of each cell
+				offsets[from[i] + 1]++;
+			}
+			for (int id = 0; id < cells; id++) {		//running total
+				offsets[id + 1] += offsets[id];
+			}
+			int[] targets = new int[size];
+			int[] next = Arrays.copyOf(offsets, cells);		//next free slot of each cell
+			for (int i = 0; i < size; i++) {		//same order edges were added
+				targets[next[from[i]]++] = to[i];
+			}
+			return new Adjacency(rows, cols, offsets, targets);
+		}
+	}
+}
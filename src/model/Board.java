@@ -1,6 +1,8 @@
 package model;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import model.Square.Type;
@@ -11,233 +13,116 @@ import model.Square.Type;
  *
  */
 public class Board {
-	private Square[][] squares;		//internal data representation
+	private final BoardTopology topology;		//squares and neighbors, shared by every game
+	private final String[] occupant;		//per cell id, String representation of the occupying Player
 	private Map <Integer, Player> characters;
+	private Adjacency graph;		//neighbors of every Square
+	private int[] visited;		//scratch for reachable(): generation a cell was last reached in
+	private int[] depth;		//scratch for reachable(): steps to reach a cell
+	private int[] queue;		//scratch for reachable(): BFS queue of cell ids
+	private int generation;		//bumped every reachable() call so scratch never needs clearing
+
+	public static final int UNREACHABLE = Integer.MAX_VALUE;		//distance to a room that cannot be entered
 
 	/**
 	 * Constructor
-	 * @param arr -- string representation of Board
+	 * @param topology -- squares, neighbors and distances, shared with other games
 	 * @param players -- number of players initially playing the game
 	 */
-	public Board(String[][] arr, int players) {		
-		squares = new Square[arr.length][arr[0].length];		
+	public Board(BoardTopology topology, int players) {
+		this.topology = topology;
+		graph = topology.getAdjacency();
+		occupant = new String[graph.cells()];
 		characters = new HashMap<Integer,Player>();		//holds Player instances
-		
-		for (int row = 0; row < arr.length; row++) {
-			for (int col = 0; col < arr[0].length; col++) {
-				String[] tokens = arr[row][col].split("\\.");		//parse board string
-				squares[row][col] = parse(row, col, tokens[0], tokens[1]);
-			}
-		}
-		
-		//map and add neighbors of every Square - above, below, left, right (EXCEPT room Squares)
-		assignNeighbours();
-		//add room Squares as neighbors to room
-		connectToDoorways();
-		//change code of doorways
-		setDoorwayCode();
 		//put players in starting positions
 		positionPlayers(players);
 	}
 
 	/**
-	 * Create and return a new Square
-	 * Each row,col index in the data representation is a Square
-	 * @param row
-	 * @param col
-	 * @param arg1 -- the Type of the Square:  PlayArea or Room
-	 * @param arg2 -- the name of a Room
-	 * @return
+	 * @param id -- cell id
+	 * @return Square of cell
 	 */
-	private Square parse(int row, int col, String arg1, String arg2) {
-		Type kind = parseKind(arg1);		//parse kind/type
-		if (kind == Type.ROOM) {		
-			String name = parseRoom(arg2);	//parse room name
-			return new Room(row, col, Type.ROOM, name, arg2);
-		}
-		return new Square(row, col, kind, arg2);
+	private Square squareOf(int id) {
+		return topology.squareOf(id);
 	}
 
 	/**
-	 * Returns name of the room depending on the String arg passed
-	 * @param arg
-	 * @return
+	 * Steps needed by player with ID to enter a room from where it stands
+	 * @param ID -- player
+	 * @param room -- long name of room i.e. Kitchen
+	 * @return steps, 0 if already in the room, UNREACHABLE if it cannot be entered or no such room
 	 */
-	private String parseRoom(String arg) {
-		switch (arg) {
-		case "KC":
-			return "Kitchen";
-		case "BR":
-			return "Ball Room";
-		case "CV":
-			return "Conservatory";
-		case "BL":
-			return "Billiard Room";
-		case "LB":
-			return "Library";
-		case "SD":
-			return "Study";
-		case "HL":
-			return "Hall";
-		case "LN":
-			return "Lounge";
-		case "DR":
-			return "Dining Room";
-		}
-		//dead code
-		return null;
+	public int distanceToRoom(int ID, String room) {
+		Square loc = characters.get(ID).getLocation();
+		return distanceToRoom(loc.row, loc.col, room);
 	}
 
 	/**
-	 * Returns Type of the room depending on the String arg passed
-	 * @param arg
-	 * @return
-	 */
-	private Type parseKind(String arg) {
-		if (arg.equals("RM")) {
-			return Type.ROOM;
-		} else if (arg.equals("NL")) {
-			return Type.NULL;
-		} else {		//"PA":
-			return Type.PLAYAREA;
-		}
-	}
-	
-	/**
-	 * Helper method
-	 * Distinguish if Square at row,col is a PLAYAREA or ROOM
-	 */
-	private void assignNeighbours() {
-		for (int row = 0; row < squares.length; row++) {
-			for (int col = 0; col < squares[0].length; col++) {
-				if (squares[row][col].kind == Type.PLAYAREA) {		//is playarea
-					validNeigbours(row, col);
-				} else if (squares[row][col].kind == Type.ROOM) {		//is room
-					roomNeigbours(row, col);
-				}
-			}
-		}
-	}
-	
-	/**
-	 * Assign neighbors of a Square at row,col - above, below, left, right
-	 * PROVIDED that neighbor is NOT a room
+	 * Steps needed to enter a room from row,col
 	 * @param row
 	 * @param col
+	 * @param room -- long name of room i.e. Kitchen
+	 * @return steps, 0 if row,col is in the room, UNREACHABLE if it cannot be entered or no such room
 	 */
-	private void validNeigbours(int row, int col) {
-		int leftCol = col - 1;		int rightCol = col + 1;		int aboveRow = row - 1;		int belowRow = row + 1;
-		squares[row][col].addNeighbour(row, leftCol, squares);
-		squares[row][col].addNeighbour(row, rightCol, squares);
-		squares[row][col].addNeighbour(aboveRow, col, squares);
-		squares[row][col].addNeighbour(belowRow, col, squares);
+	public int distanceToRoom(int row, int col, String room) {
+		return topology.distanceToRoom(row, col, room);
 	}
 
 	/**
-	 * Assign neighbors of a Room (which extends a Square) at row,col
-	 * -- the doorways FROM INSIDE the room TO the OUTSIDE
-	 * This also takes care of the stairwells
-	 * @param row
-	 * @param col
+	 * Squares player with ID can get to using at most steps moves
+	 * A room Square is listed when it can be entered but nothing beyond it, as entering ends the turn
+	 * @param ID -- player
+	 * @param steps -- moves available i.e. the roll
+	 * @return Squares reachable in 1 to steps moves, nearest first
 	 */
-	private void roomNeigbours(int row, int col) {
-		String code = squares[row][col].getCode();
-		switch (code) {
-		case "KC":	//has stairwell
-			squares[row][col].addNeighbour(new int[] {3,3,16,16});	break;
-		case "BR":
-			squares[row][col].addNeighbour(new int[] {2,5,4,7,4,10,2,12});	break;
-		case "CV":	//has stairwell
-			squares[row][col].addNeighbour(new int[] {4,14,16,1});	break;
-		case "BL":
-			squares[row][col].addNeighbour(new int[] {5,13,8,16});	break;
-		case "LB":
-			squares[row][col].addNeighbour(new int[] {9,15,11,13});	break;
-		case "SD":	//has stairwell
-			squares[row][col].addNeighbour(new int[] {14,14,1,1});	break;
-		case "HL":
-			squares[row][col].addNeighbour(new int[] {14,12,12,9});	break;
-		case "LN":	//has stairwell
-			squares[row][col].addNeighbour(new int[] {13,4,1,16});	break;
-		case "DR":
-			squares[row][col].addNeighbour(new int[] {11,3,7,5});	break;
+	public List<Square> reachable(int ID, int steps) {
+		Square loc = characters.get(ID).getLocation();
+		int start = graph.id(loc.row, loc.col);
+		if (visited == null) {		//first call, most games (and big boards) never need it
+			visited = new int[graph.cells()];
+			depth = new int[graph.cells()];
+			queue = new int[graph.cells()];
 		}
-	}
-
-	/**
-	 * Assign neighbors of a Square
-	 * -- the doorways FROM OUTSIDE(i.e. playarea) which leads TO INSIDE of the ROOM
-	 * NOTE that validNeigbours(row,col) ignored rooms
-	 * @param row
-	 * @param col
-	 */
-	private void connectToDoorways() {
-		squares[3][3].neighbours.add(new int []{2,3});
-		
-		squares[2][5].neighbours.add(new int []{2,6});
-		squares[4][7].neighbours.add(new int []{3,7});
-		squares[4][10].neighbours.add(new int []{3,10});
-		squares[2][12].neighbours.add(new int []{2,11});
-		
-		squares[4][14].neighbours.add(new int []{3,14});
-
-		squares[5][13].neighbours.add(new int []{5,14});
-		squares[8][16].neighbours.add(new int []{7,16});
-
-		squares[9][15].neighbours.add(new int []{10,15});
-		squares[11][13].neighbours.add(new int []{11,14});
-
-		squares[14][14].neighbours.add(new int []{15,14});
-
-		squares[14][12].neighbours.add(new int []{14,11});
-		squares[12][9].neighbours.add(new int []{13,9});
-
-		squares[13][4].neighbours.add(new int []{14,4});
-
-		squares[11][3].neighbours.add(new int []{10,3});
-		squares[7][5].neighbours.add(new int []{7,4});
-	}
-	
-	/**
-	 * Set every PLAYAREA Square that has a Room neighbor to code: 'dw'
-	 */
-	private void setDoorwayCode() {
-		for (int row = 0; row < squares.length; row++) {
-			for (int col = 0; col < squares[0].length; col++) {
-				if (squares[row][col].kind == Type.PLAYAREA) {	//check if playarea
-					squares[row][col].changeToDoorway(this);
+		generation++;
+		int head = 0, tail = 0;
+		visited[start] = generation;
+		depth[start] = 0;
+		queue[tail++] = start;
+		List<Square> result = new ArrayList<Square>();
+		while (head < tail) {
+			int id = queue[head++];
+			if (id != start) {
+				result.add(squareOf(id));
+				if (squareOf(id).kind == Type.ROOM) {		//turn would end here
+					continue;
+				}
+			}
+			if (depth[id] == steps) {		//no moves left
+				continue;
+			}
+			for (int i = 0; i < graph.degree(id); i++) {
+				int next = graph.neighbour(id, i);
+				if (visited[next] != generation) {
+					visited[next] = generation;
+					depth[next] = depth[id] + 1;
+					queue[tail++] = next;
 				}
 			}
 		}
+		return result;
 	}
-
+	
 	/**
-	 * Put players in starting positions
+	 * Put players in starting positions declared by the board
 	 * @param players -- how many will play
 	 */
 	private void positionPlayers(int players) {
-		int [][] position = new int [] []{
-				{0, 0},		//not used
-				
-				{17,5},		//starting positions for player 1
-				{12,0},		//p 2
-				{0,5},		//p 3
-				{0,12},		//and so on
-				{9,17},
-				{13,17}	};
-		String [] chars = new String []{
-				null,		//not used
-				"Miss Scarlett",		//characters for player 1
-				"Colonel Mustard",		//p 2
-				"Mrs. White",		//p 3
-				"The Reverend Green",		//and so on
-				"Mrs. Peacock",
-				"Professor Plum"	};
 		for (int ID = 1; ID <= players; ID++) {
-			//assume the role of a character
-			Player p = new Player (ID, chars[ID], squares[position[ID][0]][position[ID][1]] ) ;
+			Square start = topology.start(ID);
+			//assume the role of a character i.e. P1 is Miss Scarlett, P2 is Colonel Mustard and so on
+			Player p = new Player (ID, Deck.PEOPLE[ID-1], start) ;
 			characters.put(ID, p);			//put in map
-			squares[position[ID][0]][position[ID][1]].occupied = "P"+ID; 	//put in Board
+			occupant[graph.id(start.row, start.col)] = "P"+ID; 	//put in Board
 		}
 	}
 	
@@ -250,18 +135,31 @@ public class Board {
 	 * @return true iff newRow,newCol is a neighbor of current location
 	 */
 	public boolean movePiece(int ID, int newRow, int newCol) {
+		GameEvents.Move event = GameEvents.Move.enabled() ? new GameEvents.Move() : null;	//every step, so no event unless recording
+		if (event != null) 	event.begin();
 		Player p = characters.get(ID);
 		Square loc = p.getLocation();
 		//check if new coordinates is neighbor of current player's position
-		if (squares[loc.row][loc.col].hasNeigbour(newRow, newCol)) {	
+		boolean valid = graph.hasEdge(graph.id(loc.row, loc.col), newRow, newCol);
+		if (valid) {	
 			//update board
-			squares [newRow][newCol].occupied = "P"+ID;
-			squares[loc.row][loc.col].occupied = null;
+			occupant[graph.id(newRow, newCol)] = p.toString();
+			occupant[graph.id(loc.row, loc.col)] = null;
 			//update player location
-			p.setLocation(squares [newRow] [newCol]);
-			return true;
+			p.setLocation(getSquare(newRow, newCol));
 		}
-		return false;
+		if (event != null) {
+			event.end();
+			if (event.shouldCommit()) {
+				event.player = ID;
+				event.row = newRow;
+				event.col = newCol;
+				event.valid = valid;
+				event.room = valid ? inRoom(ID) : null;
+				event.commit();
+			}
+		}
+		return valid;
 	}
 	
 	/**
@@ -275,10 +173,35 @@ public class Board {
 		Player p = characters.get(ID);
 		Square loc = p.getLocation();
 		//update board
-		squares [newRow][newCol].occupied = "P"+ID;
-		squares[loc.row][loc.col].occupied = null;
+		occupant[graph.id(newRow, newCol)] = p.toString();
+		occupant[graph.id(loc.row, loc.col)] = null;
 		//update player location
-		p.setLocation(squares [newRow] [newCol]);
+		p.setLocation(getSquare(newRow, newCol));
+	}
+	
+	/**
+	 * Move a player with ID to the first vacant Square of a room
+	 * Used when a player's character is named in a suggestion
+	 * @param ID -- uID of Player chosen in suggestion
+	 * @param room -- long name of the room i.e. Kitchen, Lounge etc
+	 * @return the Square the player was moved to, null if room has no vacant Square
+	 */
+	public Square moveToRoom(int ID, String room) {
+		for (int id : topology.roomCells(room)) {		//row-major order
+			if (occupant[id] == null) {	//if vacant space found
+				Square sq = squareOf(id);
+				movePlayerViaSuggestion(ID, sq.row, sq.col);		//move player token to row,col
+				return sq;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * @return neighbors of every Square
+	 */
+	public Adjacency getAdjacency() {
+		return graph;
 	}
 	
 	/**
@@ -289,7 +212,54 @@ public class Board {
 	 * @return
 	 */
 	public Square getSquare(int row, int col) {
-		return squares[row][col];
+		return topology.getSquare(row, col);
+	}
+
+	/**
+	 * String representation of Square at row,col, showing who stands on it
+	 * Assume it will NEVER go out of bounds
+	 * @param row
+	 * @param col
+	 * @return i.e. "KC ", "P1 ", "__ "
+	 */
+	public String toString(int row, int col) {
+		String who = occupant[graph.id(row, col)];
+		return who != null ? who + " " : getSquare(row, col).toString();
+	}
+
+	/**
+	 * @param row
+	 * @param col
+	 * @return String representation of the Player at row,col, null if vacant
+	 */
+	public String getOccupied(int row, int col) {
+		return occupant[graph.id(row, col)];
+	}
+
+	/**
+	 * @param id -- cell id
+	 * @return ID of the Player whose token is on the cell, 0 if vacant
+	 */
+	public int occupantOf(int id) {
+		String who = occupant[id];
+		return who == null ? 0 : Integer.parseInt(who.substring(1));
+	}
+
+	/**
+	 * Put a Player's token on a cell without moving the Player
+	 * Used when restoring a GameSnapshot, where tokens and locations are stored separately
+	 * @param id -- cell id
+	 * @param ID -- player, 0 to leave the cell vacant
+	 */
+	public void setOccupant(int id, int ID) {
+		occupant[id] = ID == 0 ? null : characters.get(ID).toString();
+	}
+
+	/**
+	 * @return squares, neighbors and distances this board was built on
+	 */
+	public BoardTopology getTopology() {
+		return topology;
 	}
 
 	/**
@@ -0,0 +1,381 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import model.Square.Type;
+
+/**
+ * Everything about a board that never changes during a game
+ * <br> -- Squares (kind, room name, two-letter code incl. doorways), neighbors and distances to rooms
+ * <br> -- Built once from a board file (see Layout), then shared by every Board i.e. every game
+ * <br> -- Immutable after construction, so safe to share between threads
+ * <br> -- A Board adds what changes: who stands where
+ * @author Ronni Perez
+ *
+ */
+public final class BoardTopology {
+	private final Square[][] squares;		//internal data representation
+	private final Adjacency graph;		//neighbors of every Square
+	private Adjacency.Builder edges;		//collects neighbors while the topology is constructed
+	private final Map <String, Integer> roomIndex;		//room name to index in roomDistance and roomCells
+	private final int[][] roomDistance;		//per room, steps from every cell needed to enter it
+	private final int[][] roomCells;		//per room, cell ids of its Squares in row-major order
+	private final Square[] starts;		//starting Square of P1, P2 ...
+
+	/**
+	 * Constructor
+	 * @param layout -- Squares, rooms, doors, stairwells and start positions read from a board file
+	 */
+	public BoardTopology(Layout layout) {
+		int rows = layout.rows(), cols = layout.cols();
+		squares = new Square[rows][cols];
+		for (int row = 0; row < rows; row++) {
+			for (int col = 0; col < cols; col++) {
+				String token = layout.grid.get(row)[col];		//parse board string, KIND.CODE
+				int dot = token.indexOf('.');
+				if (dot < 0) {
+					throw new IllegalArgumentException("Square "+row+","+col+" is not KIND.CODE: "+token);
+				}
+				squares[row][col] = parse(row, col, token.substring(0, dot), token.substring(dot + 1), layout.rooms);
+			}
+		}
+		
+		edges = new Adjacency.Builder(rows, cols);
+		//map and add neighbors of every Square - above, below, left, right (EXCEPT room Squares)
+		//and the doorways and stairwells leading out of every room Square
+		assignNeighbours(exits(layout));
+		//add room Squares as neighbors to doorways
+		connectToDoorways(layout);
+		//pack neighbors and hand them to every Square
+		graph = edges.build();
+		edges = null;		//no longer needed
+		for (Square[] line : squares) {
+			for (Square sq : line) {
+				sq.connect(graph);
+			}
+		}
+		//number rooms in order they first appear
+		roomIndex = new HashMap<String, Integer>();
+		for (Square[] line : squares) {
+			for (Square sq : line) {
+				if (sq.kind == Type.ROOM && !roomIndex.containsKey(sq.getName())) {
+					roomIndex.put(sq.getName(), roomIndex.size());
+				}
+			}
+		}
+		roomCells = new int[roomIndex.size()][];
+		roomDistance = new int[roomIndex.size()][graph.cells()];
+		//steps from every Square to every room
+		computeDistances();
+		//change code of doorways
+		setDoorwayCode();
+		starts = new Square[layout.starts.size()];
+		for (int i = 0; i < starts.length; i++) {
+			int[] at = layout.starts.get(i);
+			starts[i] = squares[at[0]][at[1]];
+		}
+	}
+
+	/**
+	 * Create and return a new Square
+	 * Each row,col index in the data representation is a Square
+	 * @param row
+	 * @param col
+	 * @param arg1 -- the Type of the Square:  PlayArea or Room
+	 * @param arg2 -- the two-letter code of a Room
+	 * @param rooms -- two-letter code to long name of every room
+	 * @return
+	 */
+	private Square parse(int row, int col, String arg1, String arg2, Map<String, String> rooms) {
+		Type kind = parseKind(arg1);		//parse kind/type
+		if (kind == Type.ROOM) {		
+			String name = rooms.get(arg2);	//parse room name
+			if (name == null) {
+				throw new IllegalArgumentException("Square "+row+","+col+" is in undeclared room "+arg2);
+			}
+			return new Room(row, col, Type.ROOM, name, arg2);
+		}
+		return new Square(row, col, kind, arg2);
+	}
+
+	/**
+	 * Returns Type of the room depending on the String arg passed
+	 * @param arg
+	 * @return
+	 */
+	private Type parseKind(String arg) {
+		if (arg.equals("RM")) {
+			return Type.ROOM;
+		} else if (arg.equals("NL")) {
+			return Type.NULL;
+		} else {		//"PA":
+			return Type.PLAYAREA;
+		}
+	}
+	
+	/**
+	 * Squares each room leads to i.e. its doorways and stairwells, in the order declared
+	 * @param layout -- the board file
+	 * @return two-letter room code to row,col of every exit
+	 */
+	private Map<String, List<int[]>> exits(Layout layout) {
+		Map<String, List<int[]>> exits = new HashMap<String, List<int[]>>();
+		for (int[] link : layout.links) {
+			Square from = squares[link[0]][link[1]];
+			if (from.kind != Type.ROOM) {
+				throw new IllegalArgumentException("Door or stairwell at "+link[0]+","+link[1]+" is not in a room");
+			}
+			List<int[]> list = exits.get(from.getCode());
+			if (list == null) {
+				list = new ArrayList<int[]>();
+				exits.put(from.getCode(), list);
+			}
+			list.add(new int[] {link[2], link[3]});
+		}
+		return exits;
+	}
+
+	/**
+	 * Helper method
+	 * Distinguish if Square at row,col is a PLAYAREA or ROOM
+	 * @param exits -- two-letter room code to row,col of every exit
+	 */
+	private void assignNeighbours(Map<String, List<int[]>> exits) {
+		for (int row = 0; row < squares.length; row++) {
+			for (int col = 0; col < squares[0].length; col++) {
+				if (squares[row][col].kind == Type.PLAYAREA) {		//is playarea
+					validNeigbours(row, col);
+				} else if (squares[row][col].kind == Type.ROOM) {		//is room
+					List<int[]> out = exits.get(squares[row][col].getCode());
+					for (int i = 0; out != null && i < out.size(); i++) {
+						edges.add(row, col, out.get(i)[0], out.get(i)[1]);
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Assign neighbors of a Square at row,col - above, below, left, right
+	 * PROVIDED that neighbor is NOT a room
+	 * @param row
+	 * @param col
+	 */
+	private void validNeigbours(int row, int col) {
+		int leftCol = col - 1;		int rightCol = col + 1;		int aboveRow = row - 1;		int belowRow = row + 1;
+		addPlayarea(row, col, row, leftCol);
+		addPlayarea(row, col, row, rightCol);
+		addPlayarea(row, col, aboveRow, col);
+		addPlayarea(row, col, belowRow, col);
+	}
+
+	/**
+	 * Add newRow,newCol as neighbor of row,col
+	 * PROVIDED that it is in bounds and is playArea
+	 * @param row
+	 * @param col
+	 * @param newRow
+	 * @param newCol
+	 */
+	private void addPlayarea(int row, int col, int newRow, int newCol) {
+		// check for bounds
+		if (newRow >= 0 && newRow < squares.length && newCol >= 0
+				&& newCol < squares[0].length) {
+			// add if newRow,newCol is playArea ONLY
+			if (squares[newRow][newCol].kind == Type.PLAYAREA)
+				edges.add(row, col, newRow, newCol);
+		}
+	}
+
+	/**
+	 * Assign neighbors of a Square
+	 * -- the doorways FROM OUTSIDE(i.e. playarea) which leads TO INSIDE of the ROOM
+	 * NOTE that validNeigbours(row,col) ignored rooms
+	 * @param layout -- the board file
+	 */
+	private void connectToDoorways(Layout layout) {
+		for (int[] link : layout.links) {
+			if (link[4] != 0) {		//doors lead both ways, stairwells are already room to room
+				edges.add(link[2], link[3], link[0], link[1]);
+			}
+		}
+	}
+	
+	/**
+	 * Precompute a distance field per room with a reverse BFS from the room's Squares
+	 * Entering a room ends a turn, so a path may start in a room but never passes through one
+	 * Stairwells are ordinary room to room edges and so cost 1 step
+	 */
+	private void computeDistances() {
+		int cells = graph.cells();
+		Adjacency reverse = graph.transpose();
+		int[] queue = new int[cells];
+		for (Map.Entry<String, Integer> entry : roomIndex.entrySet()) {
+			int[] dist = roomDistance[entry.getValue()];
+			Arrays.fill(dist, Board.UNREACHABLE);
+			int head = 0, tail = 0;
+			for (int id = 0; id < cells; id++) {		//every Square of the room is a target
+				if (squareOf(id).getName().equals(entry.getKey())) {
+					dist[id] = 0;
+					queue[tail++] = id;
+				}
+			}
+			roomCells[entry.getValue()] = Arrays.copyOf(queue, tail);
+			while (head < tail) {
+				int id = queue[head++];
+				if (dist[id] > 0 && squareOf(id).kind == Type.ROOM) {		//paths end at other rooms
+					continue;
+				}
+				for (int i = 0; i < reverse.degree(id); i++) {
+					int from = reverse.neighbour(id, i);
+					if (dist[from] == Board.UNREACHABLE) {
+						dist[from] = dist[id] + 1;
+						queue[tail++] = from;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Set every PLAYAREA Square that has a Room neighbor to code: 'dw'
+	 */
+	private void setDoorwayCode() {
+		for (int row = 0; row < squares.length; row++) {
+			for (int col = 0; col < squares[0].length; col++) {
+				if (squares[row][col].kind == Type.PLAYAREA) {	//check if playarea
+					squares[row][col].changeToDoorway(this);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Steps needed to enter a room from row,col
+	 * @param row
+	 * @param col
+	 * @param room -- long name of room i.e. Kitchen
+	 * @return steps, 0 if row,col is in the room, Board.UNREACHABLE if it cannot be entered or no such room
+	 */
+	public int distanceToRoom(int row, int col, String room) {
+		Integer index = roomIndex.get(room);
+		if (index == null) {
+			return Board.UNREACHABLE;
+		}
+		return roomDistance[index][graph.id(row, col)];
+	}
+
+	/**
+	 * @param room -- long name of room i.e. Kitchen
+	 * @return cell ids of the room's Squares in row-major order, empty if no such room
+	 */
+	int[] roomCells(String room) {
+		Integer index = roomIndex.get(room);
+		return index == null ? new int[0] : roomCells[index];
+	}
+
+	/**
+	 * @param id -- cell id
+	 * @return Square of cell
+	 */
+	public Square squareOf(int id) {
+		return squares[graph.row(id)][graph.col(id)];
+	}
+
+	/*GETTERS*/
+	/**
+	 * Get Square at row, col
+	 * Assume it will NEVER go out of bounds
+	 */
+	public Square getSquare(int row, int col) {
+		return squares[row][col];
+	}
+
+	/**
+	 * @param ID -- player
+	 * @return where player with ID starts the game
+	 */
+	public Square start(int ID) {
+		if (ID < 1 || ID > starts.length) {
+			throw new IllegalArgumentException("Board has no start position for P"+ID);
+		}
+		return starts[ID - 1];
+	}
+
+	/**
+	 * @return most players the board has start positions for
+	 */
+	public int starts() {
+		return starts.length;
+	}
+
+	public int rows() {
+		return squares.length;
+	}
+
+	public int cols() {
+		return squares[0].length;
+	}
+
+	/**
+	 * @return neighbors of every Square
+	 */
+	public Adjacency getAdjacency() {
+		return graph;
+	}
+
+	/**
+	 * What a board file declares, filled in line by line by Loader
+	 * <br> -- grid: one token per Square, KIND.CODE i.e. RM.KC (room Kitchen), PA.0 (playarea), NL.CR (unused)
+	 * <br> -- room: long name of a two-letter room code
+	 * <br> -- door: a room Square and the playarea Square outside it, leading both ways
+	 * <br> -- stairwell: a room Square and a Square of another room it leads to
+	 * <br> -- start: where P1, P2 ... start, in order
+	 * Every Square of a room shares the room's doors and stairwells
+	 */
+	public static class Layout {
+		private final List<String[]> grid = new ArrayList<String[]>();		//tokens of each row
+		private final Map<String, String> rooms = new HashMap<String, String>();		//two-letter code to long name
+		private final List<int[]> links = new ArrayList<int[]>();		//{roomRow, roomCol, toRow, toCol, 1 if door}
+		private final List<int[]> starts = new ArrayList<int[]>();		//{row, col} of P1, P2 ...
+
+		/**
+		 * Add the next row of the grid
+		 * @param tokens -- one KIND.CODE per Square
+		 */
+		public void row(String[] tokens) {
+			if (!grid.isEmpty() && tokens.length != cols()) {
+				throw new IllegalArgumentException("Row "+grid.size()+" has "+tokens.length+" Squares, expected "+cols());
+			}
+			grid.add(tokens);
+		}
+
+		public void room(String code, String name) {
+			rooms.put(code, name);
+		}
+
+		public void door(int roomRow, int roomCol, int outRow, int outCol) {
+			links.add(new int[] {roomRow, roomCol, outRow, outCol, 1});
+		}
+
+		public void stairwell(int roomRow, int roomCol, int toRow, int toCol) {
+			links.add(new int[] {roomRow, roomCol, toRow, toCol, 0});
+		}
+
+		public void start(int row, int col) {
+			starts.add(new int[] {row, col});
+		}
+
+		public int rows() {
+			return grid.size();
+		}
+
+		public int cols() {
+			return grid.isEmpty() ? 0 : grid.get(0).length;
+		}
+	}
+}
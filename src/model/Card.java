@@ -8,10 +8,19 @@ package model;
 public class Card {
 	public final Type kind;	//character, weapon or room
 	public final String name;	//long name of card
+	public final int index;	//position in the Deck, -1 if not one of the game's cards
 
 	public Card(Type kind, String name) {
 		this.kind = kind;
 		this.name = name;
+		this.index = Deck.index(name);
+	}
+
+	/**
+	 * @return the bit of this card in a set of cards, 0 if not one of the game's cards
+	 */
+	public int bit() {
+		return index < 0 ? 0 : 1 << index;
 	}
 	
 	@Override
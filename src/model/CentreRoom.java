@@ -14,13 +14,16 @@ public class CentreRoom {
 	private String suspect;	//self explanatory
 	private String weapon;
 	private String place;
+	private int mask;	//set of the three solution cards, see Deck
 
 	/**
 	 * Supplementary method used by Loader.pickSolution() to put appropriate solution in
 	 * @param cards -- ALWAYS have 3 elements
 	 */
 	public void putInEnvelope(List<Card> cards) {
+		mask = 0;
 		for (Card c: cards) {
+			mask |= c.bit();
 			if (c.kind == Type.CHARACTER) {
 				this.suspect = c.name;
 			} else if (c.kind == Type.WEAPON) {
@@ -31,6 +34,17 @@ public class CentreRoom {
 		}
 	}
 
+	/**
+	 * Checks an accusation against the solution
+	 * @param person -- suspect
+	 * @param weapon -- weapon
+	 * @param room -- room
+	 * @return true iff all three match the solution
+	 */
+	public boolean matches(String person, String weapon, String room) {
+		return Integer.bitCount(mask) == 3 && Deck.mask(person, weapon, room) == mask;
+	}
+
 	//GETTERS
 	public String getSuspect() {
 		return suspect;
@@ -43,4 +57,8 @@ public class CentreRoom {
 	public String getPlace() {
 		return place;
 	}
+
+	public int mask() {
+		return mask;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+package model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import model.Card.Type;
+
+/**
+ * The 21 cards of the game, each with a fixed index from 0 to 20
+ * <br> -- 0 to 5 are characters, 6 to 11 weapons, 12 to 20 rooms
+ * <br> -- A set of cards (a hand, a suggestion, the solution) is an int with bit i set for card i
+ * so checking if a player can refute a suggestion is a single AND
+ * @author Ronni Perez
+ *
+ */
+public final class Deck {
+	public static final String[] PEOPLE = {
+			"Miss Scarlett","Colonel Mustard","Mrs. White","The Reverend Green","Mrs. Peacock","Professor Plum"
+			};
+	public static final String[] WEAPONS = {
+			"Candlestick","Dagger","Lead Pipe","Revolver","Rope","Spanner"
+			};
+	public static final String[] ROOMS = {
+			"Kitchen","Ball Room","Conservatory","Billiard Room","Library","Study","Hall","Lounge","Dining Room"
+			};
+
+	public static final int SIZE = PEOPLE.length + WEAPONS.length + ROOMS.length;
+	public static final int PEOPLE_MASK = (1 << PEOPLE.length) - 1;		//bits of every character card
+	public static final int WEAPONS_MASK = ((1 << WEAPONS.length) - 1) << PEOPLE.length;		//bits of every weapon card
+	public static final int ROOMS_MASK = ((1 << ROOMS.length) - 1) << (PEOPLE.length + WEAPONS.length);	//bits of every room card
+	public static final int ALL = (1 << SIZE) - 1;
+
+	private static final String[] NAMES = new String[SIZE];		//index to long name
+	private static final Card[] CARDS = new Card[SIZE];		//index to Card
+	private static final Map<String, Integer> INDEX = new HashMap<String, Integer>();	//long name to index
+
+	static {
+		int i = 0;
+		for (String s : PEOPLE) 	NAMES[i++] = s;
+		for (String s : WEAPONS) 	NAMES[i++] = s;
+		for (String s : ROOMS) 	NAMES[i++] = s;
+		for (i = 0; i < SIZE; i++) {
+			INDEX.put(NAMES[i], i);
+		}
+		for (i = 0; i < SIZE; i++) {		//after INDEX is filled, Card looks itself up
+			CARDS[i] = new Card(kind(i), NAMES[i]);
+		}
+	}
+
+	private Deck() {
+	}
+
+	/**
+	 * @param name -- long name of card
+	 * @return index of card, -1 if there is no such card
+	 */
+	public static int index(String name) {
+		Integer i = INDEX.get(name);
+		return i == null ? -1 : i;
+	}
+
+	/**
+	 * @param name -- long name of card
+	 * @return the card's bit, 0 if there is no such card
+	 */
+	public static int bit(String name) {
+		int i = index(name);
+		return i < 0 ? 0 : 1 << i;
+	}
+
+	/**
+	 * A name given in the wrong place i.e. a weapon as the suspect is left out of the set
+	 * @return set of the three cards of a suggestion or accusation
+	 */
+	public static int mask(String person, String weapon, String room) {
+		return (bit(person) & PEOPLE_MASK) | (bit(weapon) & WEAPONS_MASK) | (bit(room) & ROOMS_MASK);
+	}
+
+	/**
+	 * @param index -- index of card
+	 * @return long name of card
+	 */
+	public static String name(int index) {
+		return NAMES[index];
+	}
+
+	/**
+	 * @param index -- index of card
+	 * @return the (shared, immutable) Card
+	 */
+	public static Card card(int index) {
+		return CARDS[index];
+	}
+
+	/**
+	 * @param index -- index of card
+	 * @return whether card is a character, weapon or room
+	 */
+	public static Type kind(int index) {
+		if (index < PEOPLE.length) 	return Type.CHARACTER;
+		if (index < PEOPLE.length + WEAPONS.length) 	return Type.WEAPON;
+		return Type.ROOM;
+	}
+}
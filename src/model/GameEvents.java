@@ -0,0 +1,136 @@
+package model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events of a game, see assets/cluedo.jfc and main.JfrSummary
+ * <br> -- Turn: from the roll to the end of the turn, emitted by Cluedo and GameEngine
+ * <br> -- Move: one step on the Board, valid or not
+ * <br> -- Suggestion: who suggested what, who refuted it and with what card
+ * <br> -- Accusation: who accused what, right or wrong
+ * <br> -- Cost next to nothing while not recording: begin() and commit() do nothing,
+ * and events of hot paths (Turn, Move) are not even allocated unless enabled()
+ * No stack traces, a game records many events and they all come from the same few places
+ * @author Ronni Perez
+ *
+ */
+public final class GameEvents {
+	private GameEvents() {
+	}
+
+	@Name("cluedo.Turn")
+	@Label("Turn")
+	@Category("Cluedo")
+	@Description("One player's turn, from the roll to the end of the turn")
+	@StackTrace(false)
+	public static class Turn extends Event {
+		private static final EventType TYPE = EventType.getEventType(Turn.class);
+
+		@Label("Player")
+		public int player;
+
+		@Label("Roll")
+		public int roll;
+
+		@Label("Turn Number")
+		@Description("Turns played so far in the game, 0 if the game does not count them")
+		public long turn;
+
+		@Label("Room")
+		@Description("Room the player ended the turn in, if any")
+		public String room;
+
+		/**
+		 * @return true iff turns are being recorded, so a turn spanning many calls only makes an event if so
+		 */
+		public static boolean enabled() {
+			return TYPE.isEnabled();
+		}
+	}
+
+	@Name("cluedo.Move")
+	@Label("Move")
+	@Category("Cluedo")
+	@Description("One step of a player on the board")
+	@StackTrace(false)
+	public static class Move extends Event {
+		private static final EventType TYPE = EventType.getEventType(Move.class);
+
+		@Label("Player")
+		public int player;
+
+		@Label("Row")
+		public int row;
+
+		@Label("Column")
+		public int col;
+
+		@Label("Valid")
+		public boolean valid;
+
+		@Label("Room")
+		@Description("Room entered or moved within, if any")
+		public String room;
+
+		/**
+		 * @return true iff moves are being recorded, so a step only allocates an event if so
+		 */
+		public static boolean enabled() {
+			return TYPE.isEnabled();
+		}
+	}
+
+	@Name("cluedo.Suggestion")
+	@Label("Suggestion")
+	@Category("Cluedo")
+	@Description("A suggestion and its refutation")
+	@StackTrace(false)
+	public static class Suggestion extends Event {
+		@Label("Player")
+		public int player;
+
+		@Label("Suspect")
+		public String person;
+
+		@Label("Weapon")
+		public String weapon;
+
+		@Label("Room")
+		public String room;
+
+		@Label("Refuter")
+		@Description("Player who showed a card, 0 if no one could")
+		public int refuter;
+
+		@Label("Card Shown")
+		public String card;
+	}
+
+	@Name("cluedo.Accusation")
+	@Label("Accusation")
+	@Category("Cluedo")
+	@Description("An accusation, the player wins or is expelled")
+	@StackTrace(false)
+	public static class Accusation extends Event {
+		@Label("Player")
+		public int player;
+
+		@Label("Suspect")
+		public String person;
+
+		@Label("Weapon")
+		public String weapon;
+
+		@Label("Room")
+		public String room;
+
+		@Label("Correct")
+		public boolean correct;
+	}
+}
@@ -0,0 +1,289 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * A 'Detective Pad' i.e. what one player can deduce about who holds which card
+ * <br> -- For every player: cards it must have, cannot have, or might have
+ * <br> -- For the envelope: cards that must or cannot be in the solution,
+ * narrowing the 6 x 6 x 9 = 324 possible solutions
+ * <br> -- Updated incrementally by every suggestion, then propagated until nothing new follows
+ * <br> -- All sets of cards are bitmasks, see Deck
+ * @author Ronni Perez
+ *
+ */
+public class Notebook {
+	private static final int[] KINDS = {Deck.PEOPLE_MASK, Deck.WEAPONS_MASK, Deck.ROOMS_MASK};
+
+	private final int players;		//number of players, IDs 1...players
+	private final int owner;		//player ID whose notebook this is, 0 if only public information is known
+	private final int[] handSize;	//number of cards dealt to each player, index 0 unused
+	private final int[] has;		//cards each player must have
+	private final int[] hasNot;		//cards each player cannot have
+	private final int[][] clauses;	//per player, sets of cards it has at least one of i.e. unknown card shown
+	private final int[] clauseCount;	//number of clauses in use per player
+	private int envelope;		//cards that must be in the solution
+	private int notEnvelope;		//cards that cannot be in the solution
+
+	/**
+	 * Constructor
+	 * @param players -- number of players, cards are dealt one at a time starting with P1
+	 * @param owner -- player ID whose notebook this is, 0 if only public information is known
+	 * @param hand -- owner's own cards, ignored if owner is 0
+	 */
+	public Notebook(int players, int owner, int hand) {
+		this.players = players;
+		this.owner = owner;
+		handSize = new int[players + 1];
+		has = new int[players + 1];
+		hasNot = new int[players + 1];
+		clauses = new int[players + 1][4];
+		clauseCount = new int[players + 1];
+		int dealt = Deck.SIZE - 3;		//everything but the solution
+		for (int ID = 1; ID <= players; ID++) {
+			handSize[ID] = dealt / players + (ID <= dealt % players ? 1 : 0);
+		}
+		if (owner != 0) {
+			has[owner] = hand;
+			hasNot[owner] = Deck.ALL & ~hand;
+		}
+		propagate();
+	}
+
+	/**
+	 * Record the whole answer to a suggestion as seen by the owner
+	 * Players between suggester and refuter (in seat order) could not refute
+	 * @param suggester -- player ID who made the suggestion
+	 * @param suggestion -- set of the three suggested cards
+	 * @param refuter -- player ID who showed a card, 0 if no one could
+	 * @param card -- Deck index of card shown, -1 if it was not shown to the owner
+	 */
+	public void suggestion(int suggester, int suggestion, int refuter, int card) {
+		int next = suggester;
+		for (int i = 1; i < players; i++) {
+			next = next >= players ? 1 : next + 1;
+			if (next == refuter) {
+				if (card >= 0) 	shown(refuter, card);
+				else 	shownUnknown(refuter, suggestion);
+				return;
+			}
+			noRefute(next, suggestion);
+		}
+	}
+
+	/**
+	 * A player could not refute a suggestion, so it has none of its cards
+	 * @param player -- player ID
+	 * @param suggestion -- set of the three suggested cards
+	 */
+	public void noRefute(int player, int suggestion) {
+		if ((hasNot[player] | suggestion) != hasNot[player]) {
+			hasNot[player] |= suggestion;
+			propagate();
+		}
+	}
+
+	/**
+	 * A player showed a card to the owner
+	 * @param player -- player ID
+	 * @param card -- Deck index of card shown
+	 */
+	public void shown(int player, int card) {
+		if ((has[player] & 1 << card) == 0) {
+			has[player] |= 1 << card;
+			propagate();
+		}
+	}
+
+	/**
+	 * A player showed a card to someone else, so it has at least one of the suggested cards
+	 * @param player -- player ID
+	 * @param suggestion -- set of the three suggested cards
+	 */
+	public void shownUnknown(int player, int suggestion) {
+		for (int i = 0; i < clauseCount[player]; i++) {		//already known
+			if (clauses[player][i] == suggestion) {
+				return;
+			}
+		}
+		if (clauseCount[player] == clauses[player].length) {		//grow
+			clauses[player] = Arrays.copyOf(clauses[player], clauseCount[player] * 2);
+		}
+		clauses[player][clauseCount[player]++] = suggestion;
+		propagate();
+	}
+
+	/**
+	 * Apply every rule until nothing new can be deduced
+	 * <br> -- a card is in exactly one place: a player's hand or the envelope
+	 * <br> -- the envelope has exactly one card of each kind
+	 * <br> -- a player holds exactly as many cards as it was dealt
+	 * <br> -- a player who showed an unknown card has at least one of the suggested cards
+	 */
+	private void propagate() {
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			int held = 0;		//cards some player must have
+			int free = Deck.ALL;		//cards every player cannot have
+			for (int ID = 1; ID <= players; ID++) {
+				changed |= reduceClauses(ID);
+				held |= has[ID];
+				free &= hasNot[ID];
+			}
+			//cards held by someone are not held by anyone else, nor in the envelope
+			for (int ID = 1; ID <= players; ID++) {
+				int others = (held & ~has[ID]) | envelope;
+				if ((hasNot[ID] | others) != hasNot[ID]) {
+					hasNot[ID] |= others;
+					changed = true;
+				}
+			}
+			int out = notEnvelope | held;
+			int in = envelope | free;
+			for (int kind : KINDS) {		//one card of each kind in the envelope
+				int candidates = kind & ~out;
+				if (Integer.bitCount(candidates) == 1) 	in |= candidates;
+				if ((in & kind) != 0) 	out |= kind & ~in;
+			}
+			//a card not in the envelope that all players but one cannot have, is held by that one
+			for (int ID = 1; ID <= players; ID++) {
+				int elsewhere = Deck.ALL;
+				for (int other = 1; other <= players; other++) {
+					if (other != ID) 	elsewhere &= hasNot[other];
+				}
+				int gained = elsewhere & out & ~has[ID];
+				if (gained != 0) {
+					has[ID] |= gained;
+					changed = true;
+				}
+			}
+			if (in != envelope || out != notEnvelope) {
+				envelope = in;
+				notEnvelope = out;
+				changed = true;
+			}
+			changed |= countCards();
+		}
+	}
+
+	/**
+	 * Drop clauses that are satisfied, turn clauses down to one possible card into a known card
+	 * @param ID -- player
+	 * @return true iff anything was deduced
+	 */
+	private boolean reduceClauses(int ID) {
+		boolean changed = false;
+		int[] list = clauses[ID];
+		for (int i = 0; i < clauseCount[ID]; i++) {
+			int open = list[i] & ~hasNot[ID];		//cards of the clause player might still have
+			if ((open & has[ID]) != 0 || Integer.bitCount(open) == 1) {
+				if ((open & has[ID]) == 0) {		//only one card left, so it is held
+					has[ID] |= open;
+					changed = true;
+				}
+				list[i--] = list[--clauseCount[ID]];		//resolved, recheck the one moved here
+			} else {
+				list[i] = open;
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Use hand sizes: a full hand has nothing else, as many possible cards as hand size means all are held
+	 * @return true iff anything was deduced
+	 */
+	private boolean countCards() {
+		boolean changed = false;
+		for (int ID = 1; ID <= players; ID++) {
+			int possible = Deck.ALL & ~hasNot[ID];
+			if (Integer.bitCount(has[ID]) == handSize[ID] && possible != has[ID]) {
+				hasNot[ID] = Deck.ALL & ~has[ID];
+				changed = true;
+			} else if (Integer.bitCount(possible) == handSize[ID] && possible != has[ID]) {
+				has[ID] = possible;
+				changed = true;
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * @param player -- player ID
+	 * @param card -- Deck index
+	 * @return what is known about player holding card
+	 */
+	public Status status(int player, int card) {
+		if ((has[player] & 1 << card) != 0) 	return Status.HAS;
+		if ((hasNot[player] & 1 << card) != 0) 	return Status.HAS_NOT;
+		return Status.MAYBE;
+	}
+
+	/**
+	 * @return cards that might still be in the envelope
+	 */
+	public int candidates() {
+		return Deck.ALL & ~notEnvelope;
+	}
+
+	/**
+	 * @return number of possible solutions left, from 324 down to 1
+	 */
+	public int solutions() {
+		int count = 1;
+		for (int kind : KINDS) {
+			count *= Integer.bitCount(kind & ~notEnvelope);
+		}
+		return count;
+	}
+
+	/**
+	 * @return the three solution cards when known, 0 otherwise
+	 */
+	public int solution() {
+		return solutions() == 1 ? candidates() : 0;
+	}
+
+	/*GETTERS*/
+	public int players() {
+		return players;
+	}
+
+	public int owner() {
+		return owner;
+	}
+
+	public int handSize(int player) {
+		return handSize[player];
+	}
+
+	public int has(int player) {
+		return has[player];
+	}
+
+	public int hasNot(int player) {
+		return hasNot[player];
+	}
+
+	public int envelope() {
+		return envelope;
+	}
+
+	public int notEnvelope() {
+		return notEnvelope;
+	}
+
+	/**
+	 * @param player -- player ID
+	 * @return sets of cards player has at least one of, not yet resolved
+	 */
+	public int[] clauses(int player) {
+		return Arrays.copyOf(clauses[player], clauseCount[player]);
+	}
+
+	//what is known about a player holding a card
+	public enum Status {
+		HAS, HAS_NOT, MAYBE
+	}
+}
@@ -1,7 +1,7 @@
 package model;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 
 import view.OutputStream;
 
@@ -14,17 +14,19 @@ public class Player {
 	// public because final
 	public final int ID;		//unique identifier, also the player number
 	public final String character;		//character portrayed by this player
+	private final String token;		//String representation on the board i.e. P1
 	
 	private boolean isPlaying;		//disqualified or not?
 	private Square location;		//current location in the board
-	private Set<Card> cards;	//cards in-hand
+	private int hand;	//cards in-hand, one bit per card, see Deck
 	
 	public Player(int ID, String character, Square location) {
 		this.ID = ID;
 		this.isPlaying = true;
 		this.character = character;
+		this.token = "P"+ID;
 		this.location = location;
-		this.cards = new HashSet<Card>();
+		this.hand = 0;
 	}
 	
 	/**
@@ -32,7 +34,7 @@ public class Player {
 	 * @param cd
 	 */
 	public void addCard (Card cd) {
-		cards.add(cd);
+		hand |= cd.bit();
 	}
 	
 	/**
@@ -40,22 +42,32 @@ public class Player {
 	 * Checks if Player has Card with the name
 	 * Used by Cluedo.checkSuggestion() 
 	 * @param name -- long name of card
-	 * @param isTesting is true iff in 'jUnit testing'. Set to true when testing
+	 * @param out -- where to announce it, null to stay quiet i.e. in 'jUnit testing'
 	 * @return true iff player has card
 	 */
-	public boolean hasCard(String name, boolean isTesting) {
-		for (Card c: cards) {
-			if (c.name.equals(name)) {
-				if (!isTesting) {		//if not testing, output
-					OutputStream.message("Player "+ID+" has the card "+name, false);
-					OutputStream.sleep(2000);
-				}
-				return true;
+	public boolean hasCard(String name, OutputStream out) {
+		if ((hand & Deck.bit(name)) != 0) {
+			if (out != null) {		//if not testing, output
+				out.message("Player "+ID+" has the card "+name, false);
+				out.sleep(2000);
 			}
+			return true;
 		}
 		return false;
 	}
 	
+	/**
+	 * Supplementary method
+	 * Picks the card this player shows to refute a suggestion
+	 * Used by Cluedo.checkSuggestion() and GameEngine
+	 * @param suggestion -- set of suggested cards, see Deck
+	 * @return index of first held card in order suspect, weapon, room; -1 if none is held
+	 */
+	public int refute(int suggestion) {
+		int held = hand & suggestion;
+		return held == 0 ? -1 : Integer.numberOfTrailingZeros(held);
+	}
+	
 	/**
 	 * Supplementary method
 	 * Used by Board.movePiece()
@@ -81,14 +93,28 @@ public class Player {
 	
 	@Override
 	public String toString () {
-		return "P"+ID;
+		return token;
 	}
 
 	public boolean isPlaying() {
 		return isPlaying;
 	}
 	
-	public Set<Card> allCards() {
-		return cards;
+	/**
+	 * @return cards in-hand, in Deck order
+	 */
+	public List<Card> allCards() {
+		List<Card> list = new ArrayList<Card>();
+		for (int bits = hand; bits != 0; bits &= bits - 1) {		//each set bit
+			list.add(Deck.card(Integer.numberOfTrailingZeros(bits)));
+		}
+		return list;
+	}
+
+	/**
+	 * @return cards in-hand, one bit per card, see Deck
+	 */
+	public int hand() {
+		return hand;
 	}
 }
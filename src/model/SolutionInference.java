@@ -0,0 +1,343 @@
+package model;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Probability of every card being in the envelope, given what a Notebook knows
+ * <br> -- Every deal (solution plus hands) consistent with the notebook is equally likely
+ * <br> -- Few unknown cards: every consistent deal is enumerated, the answer is exact
+ * <br> -- Many unknown cards: deals are sampled in parallel (sequential importance sampling)
+ * <br> -- Answers are cached per knowledge state, asking again after nothing new was learnt is free
+ * @author Ronni Perez
+ *
+ */
+public class SolutionInference {
+	private static final int[] KINDS = {Deck.PEOPLE_MASK, Deck.WEAPONS_MASK, Deck.ROOMS_MASK};
+	private static final double EXACT_BUDGET = 2e6;		//most deals worth enumerating
+	private static final int CHUNK = 1024;		//samples drawn by one parallel task
+
+	private final int samples;		//deals drawn when sampling
+	private final Map<Key, double[]> cache;		//knowledge state to answer, least recently used dropped first
+
+	/**
+	 * Constructor
+	 * @param samples -- deals drawn when there are too many to enumerate i.e. 20000
+	 * @param cacheSize -- number of answers kept
+	 */
+	public SolutionInference(int samples, final int cacheSize) {
+		this.samples = samples;
+		this.cache = new LinkedHashMap<Key, double[]>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, double[]> eldest) {
+				return size() > cacheSize;
+			}
+		};
+	}
+
+	/**
+	 * @param n -- what a player knows
+	 * @return for every Deck index, probability of that card being in the envelope
+	 */
+	public double[] probabilities(Notebook n) {
+		Key key = new Key(n);
+		synchronized (cache) {
+			double[] known = cache.get(key);
+			if (known != null) {
+				return known.clone();
+			}
+		}
+		State s = new State(n);
+		double[] result = s.isSmall() ? exact(s) : sample(n, key.hashCode());
+		synchronized (cache) {
+			cache.put(key, result);
+		}
+		return result.clone();
+	}
+
+	/**
+	 * @param n -- what a player knows
+	 * @param kind -- bits of every card of a kind i.e. Deck.WEAPONS_MASK
+	 * @return Deck index of the card of that kind most likely in the envelope
+	 */
+	public int mostLikely(Notebook n, int kind) {
+		double[] p = probabilities(n);
+		int best = -1;
+		for (int card = 0; card < Deck.SIZE; card++) {
+			if ((kind & 1 << card) != 0 && (best < 0 || p[card] > p[best])) {
+				best = card;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Enumerate every consistent deal
+	 */
+	private double[] exact(State s) {
+		double[] counts = new double[Deck.SIZE];
+		double total = s.enumerate(0, 0, counts);
+		return normalise(counts, total);
+	}
+
+	/**
+	 * Draw deals in parallel, each task with its own random source split off a seed
+	 * so the same knowledge state always gives the same answer
+	 */
+	private double[] sample(final Notebook n, int seed) {
+		final SplittableRandom root = new SplittableRandom(seed);
+		int tasks = (samples + CHUNK - 1) / CHUNK;
+		final SplittableRandom[] rands = new SplittableRandom[tasks];
+		for (int i = 0; i < tasks; i++) {
+			rands[i] = root.split();
+		}
+		double[] sums = IntStream.range(0, tasks).parallel()
+			.mapToObj(i -> {
+				State s = new State(n);
+				double[] weights = new double[Deck.SIZE + 1];		//last entry is total weight
+				int count = Math.min(CHUNK, samples - i * CHUNK);
+				for (int k = 0; k < count; k++) {
+					s.sample(rands[i], weights);
+				}
+				return weights;
+			})
+			.reduce(new double[Deck.SIZE + 1], (a, b) -> {
+				double[] sum = new double[a.length];
+				for (int i = 0; i < sum.length; i++) 	sum[i] = a[i] + b[i];
+				return sum;
+			});
+		return normalise(Arrays.copyOf(sums, Deck.SIZE), sums[Deck.SIZE]);
+	}
+
+	private static double[] normalise(double[] counts, double total) {
+		if (total > 0) {
+			for (int i = 0; i < counts.length; i++) 	counts[i] /= total;
+		}
+		return counts;
+	}
+
+	/**
+	 * Working copy of a notebook: cards still to place and room left in each hand
+	 */
+	private static class State {
+		private final int players;
+		private final int[] hand;		//cards placed in each hand so far, starts with known cards
+		private final int[] hasNot;		//cards each player cannot have
+		private final int[] room;		//cards each hand still needs
+		private final int[][] clauses;	//sets of cards each player has at least one of
+		private final int envelope;		//cards known in the envelope
+		private final int candidates;		//cards that might be in the envelope
+		private final int[] unknown;		//Deck index of every card whose place is not known
+
+		State(Notebook n) {
+			players = n.players();
+			hand = new int[players + 1];
+			hasNot = new int[players + 1];
+			room = new int[players + 1];
+			clauses = new int[players + 1][];
+			int placed = 0;
+			for (int ID = 1; ID <= players; ID++) {
+				hand[ID] = n.has(ID);
+				hasNot[ID] = n.hasNot(ID);
+				room[ID] = n.handSize(ID) - Integer.bitCount(n.has(ID));
+				clauses[ID] = n.clauses(ID);
+				placed |= n.has(ID);
+			}
+			envelope = n.envelope();
+			candidates = n.candidates();
+			int open = Deck.ALL & ~placed & ~envelope;
+			unknown = new int[Integer.bitCount(open)];
+			for (int i = 0; open != 0; open &= open - 1) {
+				unknown[i++] = Integer.numberOfTrailingZeros(open);
+			}
+		}
+
+		/**
+		 * @return true iff enumerating every deal is cheap enough
+		 */
+		boolean isSmall() {
+			double deals = 1;
+			for (int card : unknown) {
+				int options = (candidates & 1 << card) != 0 ? 1 : 0;
+				for (int ID = 1; ID <= players; ID++) {
+					if ((hasNot[ID] & 1 << card) == 0) 	options++;
+				}
+				deals *= Math.max(1, options);
+			}
+			return deals <= EXACT_BUDGET;
+		}
+
+		/**
+		 * Place unknown[i...] in every consistent way
+		 * @param i -- next card to place
+		 * @param env -- cards put in the envelope so far, besides known ones
+		 * @param counts -- per card, number of deals with it in the envelope
+		 * @return number of consistent deals
+		 */
+		double enumerate(int i, int env, double[] counts) {
+			if (i == unknown.length) {
+				int solution = envelope | env;
+				if (!complete(solution)) {
+					return 0;
+				}
+				for (int bits = solution; bits != 0; bits &= bits - 1) {
+					counts[Integer.numberOfTrailingZeros(bits)]++;
+				}
+				return 1;
+			}
+			int card = unknown[i];
+			int bit = 1 << card;
+			double total = 0;
+			if ((candidates & bit) != 0 && ((envelope | env) & kindOf(card)) == 0) {	//kind not in envelope yet
+				total += enumerate(i + 1, env | bit, counts);
+			}
+			for (int ID = 1; ID <= players; ID++) {
+				if (room[ID] > 0 && (hasNot[ID] & bit) == 0) {
+					room[ID]--;
+					hand[ID] |= bit;
+					total += enumerate(i + 1, env, counts);
+					hand[ID] &= ~bit;
+					room[ID]++;
+				}
+			}
+			return total;
+		}
+
+		/**
+		 * Deal unknown cards at random, recording how likely the deal was
+		 * @param rand -- random source
+		 * @param weights -- per card, weight of deals with it in the envelope; last entry total weight
+		 */
+		void sample(SplittableRandom rand, double[] weights) {
+			int solution = envelope;
+			for (int kind : KINDS) {		//uniform among candidates of kinds not known yet
+				if ((solution & kind) == 0) {
+					int options = candidates & kind;
+					if (options == 0) {		//contradiction, nothing to sample
+						return;
+					}
+					for (int skip = rand.nextInt(Integer.bitCount(options)); skip > 0; skip--) {
+						options &= options - 1;
+					}
+					solution |= options & -options;
+				}
+			}
+			int[] left = room.clone();
+			int[] dealt = hand.clone();
+			int slots = 0;
+			for (int ID = 1; ID <= players; ID++) 	slots += left[ID];
+			double weight = 1;
+			int[] order = unknown.clone();
+			for (int i = order.length - 1; i > 0; i--) {		//shuffle, so no card is always placed first
+				int j = rand.nextInt(i + 1);
+				int t = order[i]; order[i] = order[j]; order[j] = t;
+			}
+			for (int card : order) {
+				int bit = 1 << card;
+				if ((solution & bit) != 0) {
+					continue;
+				}
+				int allowed = 0;
+				for (int ID = 1; ID <= players; ID++) {
+					if ((hasNot[ID] & bit) == 0) 	allowed += left[ID];
+				}
+				if (allowed == 0) {		//dead end
+					return;
+				}
+				weight *= (double) allowed / slots;		//correct for only offering allowed hands
+				int pick = rand.nextInt(allowed);
+				for (int ID = 1; ID <= players; ID++) {
+					if ((hasNot[ID] & bit) == 0) {
+						pick -= left[ID];
+						if (pick < 0) {
+							left[ID]--;
+							dealt[ID] |= bit;
+							break;
+						}
+					}
+				}
+				slots--;
+			}
+			if (!satisfies(dealt)) {
+				return;
+			}
+			for (int bits = solution; bits != 0; bits &= bits - 1) {
+				weights[Integer.numberOfTrailingZeros(bits)] += weight;
+			}
+			weights[Deck.SIZE] += weight;
+		}
+
+		/**
+		 * @return true iff every hand is full, the envelope has one card of each kind and every clause holds
+		 */
+		private boolean complete(int solution) {
+			for (int kind : KINDS) {
+				if (Integer.bitCount(solution & kind) != 1) 	return false;
+			}
+			for (int ID = 1; ID <= players; ID++) {
+				if (room[ID] != 0) 	return false;
+			}
+			return satisfies(hand);
+		}
+
+		private boolean satisfies(int[] dealt) {
+			for (int ID = 1; ID <= players; ID++) {
+				for (int clause : clauses[ID]) {
+					if ((clause & dealt[ID]) == 0) 	return false;
+				}
+			}
+			return true;
+		}
+
+		private static int kindOf(int card) {
+			for (int kind : KINDS) {
+				if ((kind & 1 << card) != 0) 	return kind;
+			}
+			return 0;
+		}
+	}
+
+	/**
+	 * Everything a notebook knows, as one comparable value
+	 */
+	private static class Key {
+		private final int[] facts;
+		private final int hash;
+
+		Key(Notebook n) {
+			int size = 3;
+			for (int ID = 1; ID <= n.players(); ID++) {
+				size += 3 + n.clauses(ID).length;
+			}
+			facts = new int[size];
+			int i = 0;
+			facts[i++] = n.players();
+			facts[i++] = n.envelope();
+			facts[i++] = n.notEnvelope();
+			for (int ID = 1; ID <= n.players(); ID++) {
+				int[] clauses = n.clauses(ID);
+				Arrays.sort(clauses);		//same clauses learnt in another order are the same state
+				facts[i++] = n.has(ID);
+				facts[i++] = n.hasNot(ID);
+				facts[i++] = clauses.length;
+				for (int clause : clauses) 	facts[i++] = clause;
+			}
+			hash = Arrays.hashCode(facts);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Key && Arrays.equals(facts, ((Key) o).facts);
+		}
+	}
+}
@@ -1,10 +1,8 @@
 package model;
 
-import java.util.HashSet;
-import java.util.Set;
-
 /**
  * A Square is the actual object at row,col of a board
+ * Part of a BoardTopology, so shared by every game: who stands on it is kept by Board
  * @author  Ronni Perez
  *
  */
@@ -13,14 +11,12 @@ public class Square {
 	public final int row; // coordinates in array
 	public final int col;
 	public final Type kind; // room or playArea
-	public final Set<int[]> neighbours; // COORDINATES of surrounding Squares of
-										// this Square in row,col format
 	// protected because used by subclasses
 	protected String name; // long name of this Square, no name if playArea
-	protected String occupied; // String representation of the occupying Player
-								// of this Square
 	//private because not meant to be edited illegally
 	private String code; // String representation of this Square ()
+	private Adjacency graph; // neighbors of every Square in the board, set by BoardTopology
+	private int id; // cell id of this Square in graph
 
 	public Square(int row, int col, Type kind, String code) {
 		this.row = row;
@@ -28,42 +24,19 @@ public class Square {
 		this.kind = kind;
 		this.name = " ";
 		this.code = code;
-		this.neighbours = new HashSet<int[]>();
-		this.occupied = null;
 	}
 
 	/**
-	 * Supplementary method used by Board.validNeigbours(row, col) to add
-	 * neighbors
+	 * Supplementary method used by BoardTopology once all neighbors are known
 	 * 
-	 * @param newRow
-	 * @param newCol
-	 * @param board
+	 * @param graph
+	 *            -- neighbors of every Square in the board
 	 */
-	public void addNeighbour(int newRow, int newCol, Square[][] board) {
-		// check for bounds
-		if (newRow >= 0 && newRow < board.length && newCol >= 0
-				&& newCol < board[0].length) {
-			// add if newRow,newCol is playArea ONLY
-			if (board[newRow][newCol].kind == Type.PLAYAREA)
-				neighbours.add(new int[] { newRow, newCol });
-		}
+	void connect(Adjacency graph) {
+		this.graph = graph;
+		this.id = graph.id(row, col);
 	}
 
-	/**
-	 * Supplementary method used by Board.roomNeigbours(row, col) and
-	 * Board.connectToDoorways() to add neighbors
-	 * 
-	 * @param coords
-	 *            -- coordinates of neighbors in row,col format (ALWAYS even number of elements) 
-	 *            e.g. new int [] {1,4,5,5,8,4,5,4} means neighbors are: {1,4} {5,5} {8,4} {5,4}
-	 */
-	public void addNeighbour(int[] coords) {
-		for (int i = 0; i < coords.length; i += 2) {
-			neighbours.add(new int[] { coords[i], coords[i + 1] });
-		}
-	}
-	
 	/**
 	 * Checks if row,col is a neighbor of this Square
 	 * @param row
@@ -71,21 +44,39 @@ public class Square {
 	 * @return true iff this square has Square at row,col as it's neighbor
 	 */
 	public boolean hasNeigbour(int row, int col) {
-		for (int[] pair : neighbours) {		//each row,col coordinates
-			if (pair[0] == row && pair[1] == col) {
-				return true;
-			}
-		}
-		return false;
+		return graph.hasEdge(id, row, col);
+	}
+
+	/**
+	 * @return number of neighbors of this Square
+	 */
+	public int neighbourCount() {
+		return graph.degree(id);
+	}
+
+	/**
+	 * @param i -- index of neighbor from 0 to neighbourCount() - 1
+	 * @return row of the i-th neighbor
+	 */
+	public int neighbourRow(int i) {
+		return graph.row(graph.neighbour(id, i));
+	}
+
+	/**
+	 * @param i -- index of neighbor from 0 to neighbourCount() - 1
+	 * @return col of the i-th neighbor
+	 */
+	public int neighbourCol(int i) {
+		return graph.col(graph.neighbour(id, i));
 	}
 	
 	/**
 	 * Checks if this Square has a "Room" Square neighbor i.e. is a doorway
-	 * @param board -- the game board
+	 * @param topology -- the board being built
 	 */
-	public void changeToDoorway(Board board) {
-		for (int[] pair : neighbours) {		//get row,col coordinates
-			if (board.getSquare(pair[0], pair[1]).kind == Type.ROOM ) {
+	void changeToDoorway(BoardTopology topology) {
+		for (int i = 0; i < neighbourCount(); i++) {		//get row,col coordinates
+			if (topology.getSquare(neighbourRow(i), neighbourCol(i)).kind == Type.ROOM ) {
 				this.code = "dw";		//change code i.e. string output to dw
 				return;
 			}
@@ -94,10 +85,6 @@ public class Square {
 
 	@Override
 	public String toString() {
-		if (occupied != null) {
-			return occupied.toString() + " ";
-		}
-		
 		if (this.kind == Type.ROOM) {		//if room, then use two-letter code for output
 			return code + " ";
 		} else if (this.kind == Type.NULL) {		//if null type, then use two-letter code for output
@@ -114,10 +101,6 @@ public class Square {
 		return name;
 	}
 
-	public String getOccupied() {
-		return occupied;
-	}
-	
 	public String getCode () {
 		return code;
 	}
@@ -0,0 +1,144 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Which room each weapon token is in, and which weapon token each room has -- see Section 2.4 of instructions
+ * <br> -- Weapons and rooms are numbered as in Deck.WEAPONS and Deck.ROOMS i.e. 0 is the Candlestick, 0 is the Kitchen
+ * <br> -- Two arrays, room to weapon and weapon to room, changed together so they always agree
+ * <br> -- Every lookup is one array read, nothing is allocated
+ * <br> -- A room has at most one weapon, NONE if it has none
+ * @author Ronni Perez
+ *
+ */
+public class WeaponPlacement {
+	public static final int NONE = -1;		//no weapon in the room, or weapon in no room
+
+	private final int[] weaponIn = new int[Deck.ROOMS.length];		//room to weapon
+	private final int[] roomOf = new int[Deck.WEAPONS.length];		//weapon to room
+
+	/**
+	 * Every room empty, every weapon nowhere
+	 */
+	public WeaponPlacement() {
+		Arrays.fill(weaponIn, NONE);
+		Arrays.fill(roomOf, NONE);
+	}
+
+	/**
+	 * Copy of another placement
+	 * @param other -- placement to copy
+	 */
+	public WeaponPlacement(WeaponPlacement other) {
+		System.arraycopy(other.weaponIn, 0, weaponIn, 0, weaponIn.length);
+		System.arraycopy(other.roomOf, 0, roomOf, 0, roomOf.length);
+	}
+
+	/**
+	 * Put a weapon in a room, the weapon that was there (if any) goes to the room the weapon came from
+	 * i.e. Kitchen has the Dagger, Lounge has the Candlestick, moving the Dagger to the Lounge
+	 * puts the Candlestick in the Kitchen
+	 * @param weapon -- 0 to 5, see Deck.WEAPONS
+	 * @param room -- 0 to 8, see Deck.ROOMS
+	 */
+	public void move(int weapon, int room) {
+		int from = roomOf[weapon];
+		int swapped = weaponIn[room];
+		if (from != NONE) {
+			weaponIn[from] = swapped;
+		}
+		if (swapped != NONE) {
+			roomOf[swapped] = from;
+		}
+		weaponIn[room] = weapon;
+		roomOf[weapon] = room;
+	}
+
+	/**
+	 * Same as move(int, int) using long names
+	 * @param weapon -- i.e. "Dagger"
+	 * @param room -- i.e. "Lounge"
+	 */
+	public void move(String weapon, String room) {
+		move(weapon(weapon), room(room));
+	}
+
+	/*GETTERS*/
+	/**
+	 * @param room -- 0 to 8, see Deck.ROOMS
+	 * @return weapon in room, NONE if none
+	 */
+	public int weaponIn(int room) {
+		return weaponIn[room];
+	}
+
+	/**
+	 * @param weapon -- 0 to 5, see Deck.WEAPONS
+	 * @return room weapon is in, NONE if none
+	 */
+	public int roomOf(int weapon) {
+		return roomOf[weapon];
+	}
+
+	/**
+	 * @param room -- long name of room
+	 * @return long name of weapon in room, null if none
+	 */
+	public String weaponIn(String room) {
+		int w = weaponIn[room(room)];
+		return w == NONE ? null : Deck.WEAPONS[w];
+	}
+
+	/**
+	 * @param weapon -- long name of weapon
+	 * @return long name of room weapon is in, null if none
+	 */
+	public String roomOf(String weapon) {
+		int r = roomOf[weapon(weapon)];
+		return r == NONE ? null : Deck.ROOMS[r];
+	}
+
+	/**
+	 * @return 0 to 5 for a weapon name
+	 * @throws IllegalArgumentException if not a weapon
+	 */
+	private static int weapon(String name) {
+		int i = Deck.index(name) - Deck.PEOPLE.length;
+		if (i < 0 || i >= Deck.WEAPONS.length) {
+			throw new IllegalArgumentException("Not a weapon: "+name);
+		}
+		return i;
+	}
+
+	/**
+	 * @return 0 to 8 for a room name
+	 * @throws IllegalArgumentException if not a room
+	 */
+	private static int room(String name) {
+		int i = Deck.index(name) - Deck.PEOPLE.length - Deck.WEAPONS.length;
+		if (i < 0 || i >= Deck.ROOMS.length) {
+			throw new IllegalArgumentException("Not a room: "+name);
+		}
+		return i;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return o instanceof WeaponPlacement && Arrays.equals(roomOf, ((WeaponPlacement) o).roomOf);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(roomOf);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (int w = 0; w < roomOf.length; w++) {
+			sb.append(w == 0 ? "" : ", ").append(Deck.WEAPONS[w]).append(" in ")
+				.append(roomOf[w] == NONE ? "none" : Deck.ROOMS[roomOf[w]]);
+		}
+		return sb.toString();
+	}
+}
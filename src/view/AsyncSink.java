@@ -0,0 +1,146 @@
+package view;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Output that never makes the game wait for the terminal
+ * <br> -- Writes are copied into a bounded ring of bytes and return at once
+ * <br> -- A dedicated writer thread drains everything queued so far in one go: one write, one flush per batch
+ * <br> -- The game only waits when the ring is full (a terminal far slower than the game) or on flush()
+ * <br> -- flush() returns once everything written before it has reached the terminal, call it before reading input
+ * @author Ronni Perez
+ *
+ */
+public class AsyncSink extends OutputStream {
+	private final OutputStream target;		//the terminal i.e. FileOutputStream(FileDescriptor.out)
+	private final byte[] ring;		//queued bytes
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition queued = lock.newCondition();		//signalled when bytes are added or on close
+	private final Condition drained = lock.newCondition();		//signalled when bytes are written out
+	private final Thread writer;
+	private long produced;		//bytes ever queued, ring position is produced % ring.length
+	private long consumed;		//bytes ever written out
+	private boolean closed;
+	private IOException failure;		//first error writing to target, reported to the game on flush
+
+	/**
+	 * Constructor, starts the writer thread
+	 * @param target -- where bytes end up
+	 * @param capacity -- size of the ring in bytes i.e. 1 << 16
+	 */
+	public AsyncSink(OutputStream target, int capacity) {
+		this.target = target;
+		this.ring = new byte[capacity];
+		writer = new Thread(this::drain, "console-writer");
+		writer.setDaemon(true);		//never keeps the program alive
+		writer.start();
+	}
+
+	@Override
+	public void write(int b) {
+		write(new byte[] {(byte) b}, 0, 1);
+	}
+
+	/**
+	 * Queue bytes, waiting only while the ring is full
+	 */
+	@Override
+	public void write(byte[] b, int off, int len) {
+		lock.lock();
+		try {
+			while (len > 0) {
+				while (produced - consumed == ring.length && !closed) {		//full, let the writer catch up
+					drained.awaitUninterruptibly();
+				}
+				if (closed) {
+					throw new IllegalStateException("sink is closed");
+				}
+				int at = (int) (produced % ring.length);
+				int n = Math.min(len, Math.min(ring.length - (int) (produced - consumed), ring.length - at));
+				System.arraycopy(b, off, ring, at, n);
+				produced += n;
+				off += n;
+				len -= n;
+				queued.signal();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Wait until everything queued so far has been written out and flushed
+	 */
+	@Override
+	public void flush() {
+		lock.lock();
+		try {
+			long mark = produced;
+			while (consumed < mark && failure == null) {
+				drained.awaitUninterruptibly();
+			}
+			if (failure != null) {
+				throw new UncheckedIOException(failure);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Write out what is queued, then stop the writer thread
+	 */
+	@Override
+	public void close() {
+		flush();
+		lock.lock();
+		try {
+			closed = true;
+			queued.signal();
+			drained.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Writer thread: take everything queued (up to the end of the ring), write it, repeat
+	 */
+	private void drain() {
+		while (true) {
+			int at, n;
+			lock.lock();
+			try {
+				while (produced == consumed && !closed) {
+					queued.awaitUninterruptibly();
+				}
+				if (produced == consumed) {		//closed and nothing left
+					return;
+				}
+				at = (int) (consumed % ring.length);
+				n = (int) Math.min(produced - consumed, ring.length - at);
+			} finally {
+				lock.unlock();
+			}
+			IOException error = null;
+			try {
+				target.write(ring, at, n);		//outside the lock, the game keeps queueing meanwhile
+				target.flush();		//one flush per batch
+			} catch (IOException e) {
+				error = e;
+			}
+			lock.lock();
+			try {
+				consumed += n;
+				if (error != null && failure == null) 	failure = error;
+				drained.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+}
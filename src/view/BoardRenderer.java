@@ -0,0 +1,234 @@
+package view;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import model.Board;
+import model.BoardTopology;
+
+/**
+ * Draws the board into one reusable byte buffer, written out with a single write per frame
+ * <br> -- Full mode: the whole board every frame, same text as before i.e. "P1 ", "KC ", "__ "
+ * <br> -- Differential mode: the first frame clears the screen and draws the whole board at the top,
+ * then keeps messages scrolling below it; later frames only move the cursor (ANSI escapes)
+ * to Squares whose occupant changed and repaint those
+ * <br> -- The text of every Square is worked out once per board, no String per Square per frame
+ * @author Ronni Perez
+ *
+ */
+public class BoardRenderer {
+	private static final byte ESC = 27;
+	private static final byte[] NEWLINE = System.lineSeparator().getBytes();
+
+	private final boolean differential;		//repaint only what changed
+	private byte[] buffer = new byte[4096];		//frame being written, grows as needed
+	private int size;		//bytes used in buffer
+	private BoardTopology topology;		//board the cached text belongs to
+	private byte[] empty;		//2 chars per cell: how each Square looks with no one on it
+	private byte[] shown;		//2 chars per cell: what is on screen now, differential mode only
+	private Board last;		//board on screen now, differential mode only
+	private int digits;		//width of row numbers
+
+	/**
+	 * Constructor
+	 * @param differential -- true to repaint only changed Squares, needs an ANSI terminal
+	 */
+	public BoardRenderer(boolean differential) {
+		this.differential = differential;
+	}
+
+	/**
+	 * Draw a frame and write it out in one go
+	 * Not flushed here: out may be asynchronous, whoever reads input next flushes it
+	 * @param board -- the game board
+	 * @param out -- where to write i.e. System.out
+	 * @throws UncheckedIOException if the frame cannot be written
+	 */
+	public void render(Board board, OutputStream out) {
+		size = 0;
+		prepare(board.getTopology());
+		if (differential && board == last) {
+			repaint(board);
+		} else {
+			frame(board);
+			last = differential ? board : null;
+		}
+		if (size == 0) {		//nothing changed
+			return;
+		}
+		try {
+			out.write(buffer, 0, size);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Let messages scroll over the whole screen again, differential mode only
+	 * @param out -- where frames were written
+	 */
+	public void release(OutputStream out) {
+		if (last == null) {
+			return;
+		}
+		last = null;
+		size = 0;
+		escape("[r");
+		try {
+			out.write(buffer, 0, size);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * @return bytes of the last frame i.e. for testing
+	 */
+	public byte[] lastFrame() {
+		return Arrays.copyOf(buffer, size);
+	}
+
+	/**
+	 * Work out how every Square looks with no one on it, once per board
+	 */
+	private void prepare(BoardTopology t) {
+		if (t == topology) {
+			return;
+		}
+		topology = t;
+		empty = new byte[t.rows() * t.cols() * 2];
+		for (int row = 0; row < t.rows(); row++) {
+			for (int col = 0; col < t.cols(); col++) {
+				String text = t.getSquare(row, col).toString();		//i.e. "KC "
+				int at = (row * t.cols() + col) * 2;
+				empty[at] = (byte) text.charAt(0);
+				empty[at + 1] = (byte) text.charAt(1);
+			}
+		}
+		shown = new byte[empty.length];
+		digits = Math.max(2, Integer.toString(t.rows() - 1).length());
+		last = null;
+	}
+
+	/**
+	 * The whole board: a line of column numbers then one line per row
+	 */
+	private void frame(Board board) {
+		int rows = topology.rows(), cols = topology.cols();
+		if (differential) {		//whole screen is ours: clear, draw at the top, scroll messages below
+			escape("[r");
+			escape("[2J");
+			escape("[H");
+		}
+		for (int i = 0; i < digits + 1; i++) 	put((byte) ' ');
+		for (int col = 0; col < cols; col++) {		//print column numbers from 00 to 17
+			number(col % 100, 2);
+			put((byte) ' ');
+		}
+		put(NEWLINE);
+		for (int row = 0; row < rows; row++) {
+			number(row, digits);		//print row numbers from 00 to 17
+			put((byte) ' ');
+			for (int col = 0; col < cols; col++) {
+				cell(board, row, col);
+				int at = (row * cols + col) * 2;
+				put(shown[at]);
+				put(shown[at + 1]);
+				put((byte) ' ');
+			}
+			put(NEWLINE);
+		}
+		if (differential) {
+			escape("[" + (rows + 2) + "r");		//scrolling region starts below the board
+			escape("[" + (rows + 2) + ";1H");
+		}
+	}
+
+	/**
+	 * Only Squares whose text changed, cursor saved and restored around them
+	 */
+	private void repaint(Board board) {
+		int cols = topology.cols();
+		boolean any = false;
+		for (int row = 0; row < topology.rows(); row++) {
+			for (int col = 0; col < cols; col++) {
+				int at = (row * cols + col) * 2;
+				byte first = shown[at], second = shown[at + 1];
+				cell(board, row, col);
+				if (shown[at] == first && shown[at + 1] == second) {
+					continue;
+				}
+				if (!any) {
+					put(ESC);
+					put((byte) '7');		//save cursor
+					any = true;
+				}
+				put(ESC);
+				put((byte) '[');
+				number(row + 2, 1);		//line 1 is column numbers
+				put((byte) ';');
+				number(digits + 2 + col * 3, 1);
+				put((byte) 'H');
+				put(shown[at]);
+				put(shown[at + 1]);
+			}
+		}
+		if (any) {
+			put(ESC);
+			put((byte) '8');		//restore cursor
+		}
+	}
+
+	/**
+	 * Work out the text of Square at row,col into shown
+	 */
+	private void cell(Board board, int row, int col) {
+		int at = (row * topology.cols() + col) * 2;
+		String who = board.getOccupied(row, col);
+		if (who != null) {
+			shown[at] = (byte) who.charAt(0);
+			shown[at + 1] = (byte) who.charAt(1);
+		} else {
+			shown[at] = empty[at];
+			shown[at + 1] = empty[at + 1];
+		}
+	}
+
+	/**
+	 * Write a non-negative number, zero padded to width
+	 */
+	private void number(int n, int width) {
+		int len = 1;
+		for (int rest = n / 10; rest > 0; rest /= 10) 	len++;
+		for (int i = len; i < width; i++) 	put((byte) '0');
+		ensure(len);
+		for (int i = size + len - 1; i >= size; i--, n /= 10) {
+			buffer[i] = (byte) ('0' + n % 10);
+		}
+		size += len;
+	}
+
+	private void escape(String sequence) {
+		put(ESC);
+		for (int i = 0; i < sequence.length(); i++) 	put((byte) sequence.charAt(i));
+	}
+
+	private void put(byte[] bytes) {
+		ensure(bytes.length);
+		System.arraycopy(bytes, 0, buffer, size, bytes.length);
+		size += bytes.length;
+	}
+
+	private void put(byte b) {
+		ensure(1);
+		buffer[size++] = b;
+	}
+
+	private void ensure(int more) {
+		if (size + more > buffer.length) {		//grow
+			buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + more));
+		}
+	}
+}
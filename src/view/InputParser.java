@@ -1,17 +1,190 @@
 package view;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
 import java.util.NoSuchElementException;
-import java.util.Scanner;
 
 import main.Loader;
+import main.Metrics;
+import main.Metrics.Timer;
 
 /**
- * Manages the parsing of user input through System.in
+ * Manages the parsing of user input through System.in, or any other stream or Reader i.e. a socket or a script
+ * <br> -- Prompts and complaints about invalid input go to the session's OutputStream
+ * <br> -- Input is read in blocks into one reusable buffer and numbers are parsed straight from its bytes,
+ * so answering a question creates no Strings, however much input is piped in
+ * <br> -- Same rules as Integer.parseInt and String.split(","): no spaces around numbers, trailing commas ignored
+ * Not thread-safe, one per session
  * @author Ronni Perez
  *
  */
 public class InputParser {
-	private Scanner scanner = new Scanner( System.in );	//lexer used
+	private static final int BUFFER = 4096;		//bytes read at once
+	private static final long INVALID = Long.MIN_VALUE;		//a field that is not a number
+
+	private final InputStream in;		//null if reading a Reader
+	private final Reader reader;		//null if reading an InputStream
+	private final OutputStream out;		//output of the same session
+	private final byte[] buf = new byte[BUFFER];
+	private char[] chars;		//scratch for reading a Reader, made on first use
+	private int pos;		//next byte of buf to read
+	private int limit;		//bytes in buf
+	private boolean afterCR;		//last line ended with '\r', a '\n' right after it is part of the same line break
+	private final long[] fields = new long[2];		//numbers of the line just read, INVALID if not a number
+	private int count;		//fields in the line just read, trailing empty ones not counted
+	private int commas;		//commas in the line just read
+
+	/**
+	 * Read from System.in
+	 * @param out -- where prompts and complaints go
+	 */
+	public InputParser(OutputStream out) {
+		this(System.in, out);
+	}
+
+	/**
+	 * Read from any stream
+	 * @param in -- i.e. the input stream of a client's socket
+	 * @param out -- where prompts and complaints go
+	 */
+	public InputParser(InputStream in, OutputStream out) {
+		this.in = in;
+		this.reader = null;
+		this.out = out;
+	}
+
+	/**
+	 * Read from any Reader
+	 * @param in -- i.e. a StringReader holding a scripted game
+	 * @param out -- where prompts and complaints go
+	 */
+	public InputParser(Reader in, OutputStream out) {
+		this.in = null;
+		this.reader = in;
+		this.out = out;
+	}
+
+	/*GETTERS*/
+	/**
+	 * @return where prompts and complaints go
+	 */
+	public OutputStream getOutput() {
+		return out;
+	}
+
+	/**
+	 * Read the next line as numbers separated by commas, into fields, count and commas
+	 * Only the first two numbers are kept, the rest are counted
+	 * @throws NoSuchElementException if input was closed i.e. the client went away, no use asking again
+	 */
+	private void nextLine() {
+		count = 0;
+		commas = 0;
+		int empty = 0;		//empty fields not followed by a number yet
+		boolean any = false;		//line has at least one character
+		long value = 0;		//of the field being read
+		int digits = 0;
+		boolean signed = false;		//field starts with + or -
+		boolean negative = false;
+		boolean bad = false;		//field has something that is not a digit
+		while (true) {
+			if (pos == limit && !fill()) {		//end of input
+				if (!any) {
+					throw new NoSuchElementException("Input closed");
+				}
+				break;		//last line had no line break
+			}
+			byte b = buf[pos++];
+			if (afterCR) {
+				afterCR = false;
+				if (b == '\n') {		//rest of a \r\n
+					continue;
+				}
+			}
+			if (b == '\n' || b == '\r') {
+				afterCR = b == '\r';
+				break;
+			}
+			any = true;
+			if (b == ',') {
+				empty = field(empty, negative ? -value : value, digits, signed, bad);
+				commas++;
+				value = 0;
+				digits = 0;
+				signed = negative = bad = false;
+			} else if (b >= '0' && b <= '9') {
+				if (value <= Integer.MAX_VALUE + 1L) {		//past that it is no int either way, and cannot overflow the long
+					value = value * 10 + (b - '0');
+				}
+				digits++;
+			} else if ((b == '-' || b == '+') && digits == 0 && !signed && !bad) {
+				signed = true;
+				negative = b == '-';
+			} else {
+				bad = true;
+			}
+		}
+		field(empty, negative ? -value : value, digits, signed, bad);
+	}
+
+	/**
+	 * End a field of the line being read
+	 * @param empty -- empty fields before this one, not followed by a number yet
+	 * @param n -- the number in it
+	 * @param digits -- digits in it
+	 * @param signed -- true iff it starts with + or -
+	 * @param bad -- true iff it has anything but a sign and digits
+	 * @return empty fields not followed by a number now
+	 */
+	private int field(int empty, long n, int digits, boolean signed, boolean bad) {
+		if (digits == 0 && !signed && !bad) {		//nothing in it, only a field if something follows
+			return empty + 1;
+		}
+		for (; empty > 0; empty--) {		//empty fields in the middle are fields
+			keep(INVALID);
+		}
+		keep(bad || digits == 0 || n > Integer.MAX_VALUE || n < Integer.MIN_VALUE ? INVALID : n);
+		return 0;
+	}
+
+	private void keep(long n) {
+		if (count < fields.length) {
+			fields[count] = n;
+		}
+		count++;
+	}
+
+	/**
+	 * Read the next block of input into buf
+	 * Everything printed is flushed first, so the prompt is on screen before waiting
+	 * @return false iff input was closed
+	 */
+	private boolean fill() {
+		out.flush();
+		long start = System.nanoTime();
+		try {
+			int n;
+			if (in != null) {
+				n = in.read(buf, 0, BUFFER);
+			} else {
+				if (chars == null) {
+					chars = new char[BUFFER];
+				}
+				n = reader.read(chars, 0, BUFFER);
+				for (int i = 0; i < n; i++) {
+					buf[i] = (byte) (chars[i] < 0x100 ? chars[i] : '?');		//commands are ASCII, the rest is never a digit
+				}
+			}
+			pos = 0;
+			limit = Math.max(n, 0);
+			return n > 0;
+		} catch (IOException e) {		//i.e. connection reset, same as closed
+			throw new NoSuchElementException("Input closed: "+e.getMessage());
+		} finally {
+			Metrics.record(Timer.INPUT, System.nanoTime() - start);		//time blocked waiting for input
+		}
+	}
 	
 	/**
 	 * Returns a number required for the user to enter from low to high
@@ -24,17 +197,17 @@ public class InputParser {
 	public int parseNum (int low, int high) {
 		int result = -1000;		// default value
 		while (result < 0) {		//while input invalid
-			try {
-				String input = scanner.nextLine();	//get input
-				result = Integer.parseInt(input);		//parse number
-				if (result < low || result > high) {		//check bounds
-					OutputStream.message("Invalid. Enter number between (inclusive) "+low+" and  (inclusive) "+high, true);
-					result = -1000;
-				}
-			} catch (NumberFormatException | NoSuchElementException e) {
+			nextLine();	//get input
+			if (commas > 0 || count != 1 || fields[0] == INVALID) {
 				//invalid. either string entered or entered blank (no number)
-				OutputStream.message("Invalid. Expected number", true);
+				out.message("Invalid. Expected number", true);
 				result = -1000;		//set to default so loop would repeat
+				continue;
+			}
+			result = (int) fields[0];
+			if (result < low || result > high) {		//check bounds
+				out.message("Invalid. Enter number between (inclusive) "+low+" and  (inclusive) "+high, true);
+				result = -1000;
 			}
 		}
 		return result;
@@ -51,21 +224,17 @@ public class InputParser {
 		int row = -1000;	//default values
 		int col = -1000;
 		while (row < 0 || col < 0) {		//while either row or col is invalid
-			try {
-				String input = scanner.nextLine();	//get input as one line
-				String[] tokens = input.split("\\,");	//separate row,col input by the comma
-				//require exactly two values -- row, col
-				if (tokens.length != 2) {
-					throw new NumberFormatException();
-				}
-				row = Integer.parseInt(tokens[0]);	//parse numbers
-				col = Integer.parseInt(tokens[1]);
-			} catch (NumberFormatException | NoSuchElementException e) {
+			nextLine();	//get input as one line, separated by the comma
+			//require exactly two values -- row, col
+			if (count != 2 || fields[0] == INVALID || fields[1] == INVALID) {
 				//invalid. either string entered or entered blank (no number) or too many coordinate arguments
-				OutputStream.message("Invalid. Expected row, column format", true);
+				out.message("Invalid. Expected row, column format", true);
 				row = -1000;	//set to default so loop would repeat
 				col = -1000;
+				continue;
 			}
+			row = (int) fields[0];
+			col = (int) fields[1];
 		}
 		return new int [] {row,col};
 	}
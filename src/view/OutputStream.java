@@ -1,29 +1,117 @@
 package view;
 
-import java.util.Map;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
-import main.Loader;
+import main.Metrics;
+import main.Metrics.Timer;
 import model.Board;
 import model.Card;
+import model.Deck;
+import model.Notebook;
 import model.Player;
 import model.Square;
+import model.WeaponPlacement;
 
 /**
- * Manages printing of output and user options through System.out
+ * Manages printing of output and user options of one game session
+ * <br> -- Prints to System.out, or any other stream or Writer i.e. a client's socket or a StringWriter,
+ * so games in the same JVM each have their own output
+ * <br> -- Optionally asynchronous (see async()): printing queues the text and returns,
+ * a writer thread puts it on the terminal, flush() waits for it
+ * Not thread-safe, one per session
  * @author Ronni Perez
  *
  */
 public class OutputStream {
+	private final PrintStream out;		//where output goes
+	private final boolean owned;		//out was made here and is closed by finish()
+	private Pacing pacing;	//delays between outputs
+	private BoardRenderer renderer;	//draws the board, made on first use, a session may never draw a board
+
+	/**
+	 * Print to System.out at interactive speed
+	 */
+	public OutputStream() {
+		this(System.out, Pacing.Profile.INTERACTIVE);
+	}
+
+	/**
+	 * Print to any stream
+	 * @param target -- i.e. the output stream of a client's socket
+	 * @param pacing -- how long to pause between outputs i.e. Pacing.Profile.NONE
+	 */
+	public OutputStream(java.io.OutputStream target, Pacing pacing) {
+		this(target instanceof PrintStream ? (PrintStream) target : new PrintStream(target, false), false, pacing);
+	}
+
+	/**
+	 * Print to any Writer
+	 * @param target -- i.e. a StringWriter collecting the output of a test
+	 * @param pacing -- how long to pause between outputs i.e. Pacing.Profile.NONE
+	 */
+	public OutputStream(Writer target, Pacing pacing) {
+		this(new PrintStream(new WriterSink(target), false, StandardCharsets.ISO_8859_1), false, pacing);
+	}
+
+	private OutputStream(PrintStream out, boolean owned, Pacing pacing) {
+		this.out = out;
+		this.owned = owned;
+		this.pacing = pacing;
+	}
+
+	/**
+	 * Print to the terminal through a bounded queue drained by a writer thread,
+	 * so the game never waits for a slow terminal or pipe
+	 * @param capacity -- bytes queued at most i.e. 1 << 16
+	 * @param pacing -- how long to pause between outputs i.e. Pacing.Profile.NONE
+	 * @return the session's output, finish() stops the writer thread
+	 */
+	public static OutputStream async(int capacity, Pacing pacing) {
+		System.out.flush();
+		return new OutputStream(new PrintStream(new AsyncSink(new FileOutputStream(FileDescriptor.out), capacity), false),
+				true, pacing);
+	}
+
+	/**
+	 * Change how long sleep() pauses i.e. Pacing.Profile.NONE for batch runs
+	 * @param pace -- the pacing to use from now on
+	 */
+	public void setPacing(Pacing pace) {
+		pacing = pace;
+	}
+
+	/**
+	 * @return the pacing in use
+	 */
+	public Pacing getPacing() {
+		return pacing;
+	}
+
+	/**
+	 * Wait until everything printed so far is on the terminal
+	 * Called before reading input, so a prompt is always seen before the game waits for an answer
+	 */
+	public void flush() {
+		out.flush();
+	}
+
 	/**
 	 * Print weapons in rooms (where a room has a weapon in it)
-	 * @param weaponsInRoom -- map of room to weapon
+	 * @param weapons -- room of each weapon
 	 */
-	public static void weaponMappings(Map<String, String> weaponsInRoom) {
-		for (Map.Entry<String, String> entry: weaponsInRoom.entrySet()) {
-			if (entry.getValue() != null) {		//if has weapon
-				System.out.println("A "+entry.getValue()+" was seen in the "+entry.getKey());
+	public void weaponMappings(WeaponPlacement weapons) {
+		for (int room = 0; room < Deck.ROOMS.length; room++) {		//rooms in board order
+			int weapon = weapons.weaponIn(room);
+			if (weapon != WeaponPlacement.NONE) {		//if has weapon
+				out.println("A "+Deck.WEAPONS[weapon]+" was seen in the "+Deck.ROOMS[room]);
 			} else {		//else, no weapon
-				System.out.println("No weapon seen in the "+entry.getKey());
+				out.println("No weapon seen in the "+Deck.ROOMS[room]);
 			}
 			sleep(750);	//delay
 		}
@@ -33,24 +121,37 @@ public class OutputStream {
 	 * Print the game board
 	 * @param brd -- the game board
 	 */
-	public static void outBoard (Board brd) {
-		System.out.printf("   ");
-		for (int i = 0; i < Loader.cols(); i++) {		//print column numbers from 00 to 17
-			if (i != Loader.cols()-1)
-				System.out.printf("%02d ", i);
-			else
-				System.out.printf("%02d \n", i);
-		}
-		
-		for (int row = 0; row < Loader.rows(); row++) {
-			System.out.printf("%02d ", row);	//print row numbers from 00 to 17
-			for (int col = 0; col < Loader.cols(); col++) {	//print string representation of each Square
-				System.out.print(brd.getSquare(row, col).toString());
-			}
-			System.out.println("");
+	public void outBoard (Board brd) {
+		if (renderer == null) {		//first board of the session
+			renderer = new BoardRenderer(false);
 		}
+		long start = System.nanoTime();
+		renderer.render(brd, out);		//one write per frame
+		Metrics.record(Timer.RENDER, System.nanoTime() - start);
 		sleep(750);		//delay
 	}
+
+	/**
+	 * Change how the board is drawn i.e. new BoardRenderer(true) to repaint only what changed
+	 * @param r -- the renderer to use from now on
+	 */
+	public void setRenderer(BoardRenderer r) {
+		renderer = r;
+	}
+
+	/**
+	 * Give the terminal back i.e. undo what a differential renderer set up, before the session ends
+	 */
+	public void finish() {
+		if (renderer != null) {
+			renderer.release(out);
+		}
+		if (owned) {
+			out.close();		//writes out what is queued, stops the writer thread
+		} else {
+			out.flush();
+		}
+	}
 	
 	/**
 	 * Prints a notification message
@@ -58,10 +159,10 @@ public class OutputStream {
 	 * @param prompt -- is true iff the program needs to wait for some sort of a user input,
 	 * 	it prints "--> Waiting for input"
 	 */
-	public static void message (String msg, boolean prompt) {
-		System.out.println("/** "+msg);
+	public void message (String msg, boolean prompt) {
+		out.println("/** "+msg);
 		if (prompt) {		//if required, print "waiting"
-			System.out.println("--> Waiting for input");
+			out.println("--> Waiting for input");
 		}
 	}
 	
@@ -73,12 +174,12 @@ public class OutputStream {
 				"Candlestick","Dagger","Lead Pipe","Revolver","Rope","Spanner"
 				};
 	 */
-	public static void printOptions (String msg, String [] arr) {
-		System.out.println("/** "+msg);
+	public void printOptions (String msg, String [] arr) {
+		out.println("/** "+msg);
 		for (int i = 0; i < arr.length;i++) {	//one line per each option
-			System.out.println(" "+(i+1)+" - "+arr[i]);
+			out.println(" "+(i+1)+" - "+arr[i]);
 		}
-		System.out.println("--> Waiting for input");	//print "waiting"
+		out.println("--> Waiting for input");	//print "waiting"
 	}
 
 	/**
@@ -86,37 +187,99 @@ public class OutputStream {
 	 * i.e. all valid Squares that a player can move to
 	 * @param location -- Square of a player
 	 */
-	public static void printNeighbours(Square location) {
-		System.out.println("You can move to: ");
-		System.out.println("Row, Colunm");
-		for (int[] pair :location.neighbours) {		//one line per each neighbors
-			System.out.println(pair[0]+" , "+pair[1]);
+	public void printNeighbours(Square location) {
+		out.println("You can move to: ");
+		out.println("Row, Colunm");
+		for (int i = 0; i < location.neighbourCount(); i++) {		//one line per each neighbors
+			out.println(location.neighbourRow(i)+" , "+location.neighbourCol(i));
 		}
-		System.out.println("--> Waiting for input");	//print "waiting"
+		out.println("--> Waiting for input");	//print "waiting"
 	}
 	
 	/**
 	 * Prints all cards held by given player
 	 * @param p -- Player's 'instance'
 	 */
-	public static void printCards(Player p) {
-		System.out.println("/**  You have the following cards:");
+	public void printCards(Player p) {
+		out.println("/**  You have the following cards:");
 		for (Card c: p.allCards()) {		//print each card by player
-			System.out.println(c.toString());
+			out.println(c.toString());
 		}
 		sleep(500);		//delay after print
 	}
 
+	/**
+	 * Prints a 'Detective Pad': for every card, what is known about each player holding it
+	 * X has it, - does not have it, ? might have it
+	 * @param n -- the player's notebook
+	 * @param chance -- per card, probability of it being in the envelope
+	 */
+	public void printNotebook(Notebook n, double[] chance) {
+		out.println("/**  Your detective pad (X has, - has not, ? might have):");
+		out.printf("%-20s", "");
+		for (int ID = 1; ID <= n.players(); ID++) {
+			out.printf("P%d ", ID);
+		}
+		out.println("Envelope");
+		for (int card = 0; card < Deck.SIZE; card++) {		//one line per card
+			out.printf("%-20s", Deck.name(card));
+			for (int ID = 1; ID <= n.players(); ID++) {
+				switch (n.status(ID, card)) {
+				case HAS: out.print("X  "); break;
+				case HAS_NOT: out.print("-  "); break;
+				default: out.print("?  "); break;
+				}
+			}
+			if ((n.envelope() & 1 << card) != 0) 	out.println("X");
+			else if ((n.notEnvelope() & 1 << card) != 0) 	out.println("-");
+			else 	out.printf("? %3.0f%%%n", 100 * chance[card]);
+		}
+		out.println("/**  Possible solutions left: "+n.solutions());
+		sleep(500);		//delay after print
+	}
+
 	/**
 	 * Causes the currently executing thread to sleep (temporarily cease
-     * execution) for the specified number of milliseconds
-	 * @param mills -- the length of time to sleep in milliseconds
-	 */
-	public static void sleep(int mills) {
-		try {
-			Thread.sleep(mills);
-		} catch (InterruptedException e) {
-			e.printStackTrace();
+     * execution) for the specified number of milliseconds, scaled by the pacing in use
+	 * @param mills -- the length of time to sleep in milliseconds at interactive speed
+	 */
+	public void sleep(int mills) {
+		pacing.pause(mills);
+	}
+
+	/**
+	 * Bytes printed, handed to a Writer as characters
+	 * Every byte is one ISO-8859-1 character, the charset the PrintStream in front of it encodes with
+	 */
+	private static class WriterSink extends java.io.OutputStream {
+		private final Writer target;
+
+		WriterSink(Writer target) {
+			this.target = target;
+		}
+
+		@Override
+		public void write(int b) {
+			write(new byte[] {(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			try {
+				target.write(new String(b, off, len, StandardCharsets.ISO_8859_1));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			target.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			target.close();
 		}
 	}
 }
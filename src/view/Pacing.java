@@ -0,0 +1,55 @@
+package view;
+
+/**
+ * Decides how long the game pauses between outputs so users can follow what is happening
+ * Used by OutputStream.sleep(), which is how Cluedo and Player pause
+ * @author Ronni Perez
+ *
+ */
+public interface Pacing {
+	/**
+	 * Pause the currently executing thread
+	 * @param mills -- the delay asked for in milliseconds, at interactive speed
+	 */
+	public void pause(int mills);
+
+	//ready made paces
+	public enum Profile implements Pacing {
+		INTERACTIVE(100),		//delays as asked, for people at the keyboard
+		FAST(10),		//a tenth of the delay, to skim through a game
+		NONE(0);		//no delay at all, for batch runs and testing
+
+		private final int percent;		//percentage of asked delay that is actually slept
+
+		private Profile(int percent) {
+			this.percent = percent;
+		}
+
+		@Override
+		public void pause(int mills) {
+			int delay = mills * percent / 100;
+			if (delay <= 0) {		//nothing to wait for
+				return;
+			}
+			try {
+				Thread.sleep(delay);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();		//keep interrupt status for the caller
+			}
+		}
+
+		/**
+		 * Returns profile by name, case insensitive i.e. "fast"
+		 * @param name -- name of profile
+		 * @return the profile, INTERACTIVE if name is unknown
+		 */
+		public static Profile parse(String name) {
+			for (Profile p : values()) {
+				if (p.name().equalsIgnoreCase(name)) {
+					return p;
+				}
+			}
+			return INTERACTIVE;
+		}
+	}
+}
@@ -0,0 +1,106 @@
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import main.BatchRunner;
+import main.BatchRunner.Result;
+import main.BatchRunner.Status;
+import main.Loader;
+
+/**
+ * Test replays of scripted games
+ * @author Ronni Perez
+ *
+ */
+public class BatchTests {
+	private static final String BOTS_ONLY = "# bots 6\n3\n2\n";	//3 players, all played by the computer, then quit
+
+	@Rule
+	public TemporaryFolder dir = new TemporaryFolder();
+
+	private Path script(String name, String text) throws Exception {
+		Path p = dir.getRoot().toPath().resolve(name);
+		Files.write(p, text.getBytes(StandardCharsets.ISO_8859_1));
+		return p;
+	}
+
+	@Test
+	public void recordThenMatch() throws Exception {
+		Path s = script("bots.script", "# seed 7\n"+BOTS_ONLY);
+		BatchRunner runner = new BatchRunner(new Loader(), 0, false, false);
+		Result first = runner.run(s);
+		assertEquals(first.error, Status.RECORDED, first.status);
+		assertTrue(first.digest.startsWith("ended quit\nplayers 3\n"));
+		assertTrue(first.digest.contains("won P") || first.digest.contains("expelled"));
+		assertTrue(Files.exists(dir.getRoot().toPath().resolve("bots.digest")));
+
+		Result second = runner.run(s);
+		assertEquals(Status.MATCHED, second.status);
+		assertEquals(first.digest, second.digest);
+	}
+
+	@Test
+	public void changedDigestMismatches() throws Exception {
+		Path s = script("bots.script", BOTS_ONLY);
+		BatchRunner runner = new BatchRunner(new Loader(), 3, false, false);
+		runner.run(s);
+		Path digest = dir.getRoot().toPath().resolve("bots.digest");
+		Files.write(digest, "won no\n".getBytes(StandardCharsets.ISO_8859_1));
+		assertEquals(Status.MISMATCHED, runner.run(s).status);
+		assertEquals("won no\n", new String(Files.readAllBytes(digest), StandardCharsets.ISO_8859_1));		//left as it was
+
+		assertEquals(Status.RECORDED, new BatchRunner(new Loader(), 3, false, true).run(s).status);
+		assertEquals(Status.MATCHED, runner.run(s).status);
+	}
+
+	@Test
+	public void seedChangesGame() throws Exception {
+		BatchRunner runner = new BatchRunner(new Loader(), 0, false, false);
+		String a = runner.run(script("a.script", "# seed 1\n"+BOTS_ONLY)).digest;
+		String b = runner.run(script("b.script", "# seed 2\n"+BOTS_ONLY)).digest;
+		String c = runner.run(script("c.script", "# reported by a tester\n# seed 1\n"+BOTS_ONLY)).digest;
+		assertNotEquals(a, b);
+		assertEquals(a, c);
+	}
+
+	@Test
+	public void scriptEndsMidGame() throws Exception {
+		BatchRunner runner = new BatchRunner(new Loader(), 0, true, false);
+		Result r = runner.run(script("short.script", "3\n"));		//3 humans, no moves typed
+		assertEquals(r.error, Status.RECORDED, r.status);
+		assertTrue(r.digest.startsWith("ended input\nplayers 3\ncurrent P1"));
+		assertTrue(r.digest.contains("won no"));
+		String out = new String(Files.readAllBytes(dir.getRoot().toPath().resolve("short.out")), StandardCharsets.ISO_8859_1);
+		assertTrue(out.startsWith("/** Welcome to Cluedo game"));
+
+		assertEquals("ended input\nno game\n", runner.run(script("empty.script", "")).digest);
+	}
+
+	@Test
+	public void parallelReplaysAgree() throws Exception {
+		List<Path> scripts = new ArrayList<Path>();
+		for (int i = 0; i < 200; i++) {
+			scripts.add(script("game-"+i+".script", "# seed "+(i % 10)+"\n"+BOTS_ONLY));
+		}
+		BatchRunner runner = new BatchRunner(new Loader(), 0, false, false);
+		List<Result> results = runner.runAll(scripts, 8);
+		assertEquals(scripts.size(), results.size());
+		for (int i = 0; i < results.size(); i++) {
+			Result r = results.get(i);
+			assertEquals(scripts.get(i), r.script);
+			assertEquals(r.error, Status.RECORDED, r.status);
+			assertEquals(results.get(i % 10).digest, r.digest);		//same seed, same game, whatever thread played it
+		}
+		for (Result r : runner.runAll(BatchRunner.scripts(Arrays.asList(dir.getRoot().toPath())), 8)) {
+			assertEquals(Status.MATCHED, r.status);
+		}
+	}
+}
@@ -0,0 +1,122 @@
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+import model.Deck;
+import model.Notebook;
+import model.Notebook.Status;
+import model.SolutionInference;
+
+/**
+ * Test the 'Detective Pad' deductions
+ * @author Ronni Perez
+ *
+ */
+public class DeductionTests {
+	private static int bit(String name) {
+		return Deck.bit(name);
+	}
+
+	@Test
+	public void ownHandIsKnown() {
+		int hand = bit("Miss Scarlett") | bit("Rope") | bit("Hall");
+		Notebook n = new Notebook(6, 1, hand);	//6 players, 3 cards each
+		assertEquals(Status.HAS, n.status(1, Deck.index("Rope")));
+		assertEquals(Status.HAS_NOT, n.status(1, Deck.index("Dagger")));
+		assertEquals(Status.HAS_NOT, n.status(2, Deck.index("Rope")));		//no one else has it
+		assertEquals(Status.MAYBE, n.status(2, Deck.index("Dagger")));
+		assertEquals(5 * 5 * 8, n.solutions());		//own cards are not the solution
+	}
+
+	@Test
+	public void handSizes() {
+		Notebook n = new Notebook(4, 0, 0);		//18 cards dealt to 4 players
+		assertEquals(5, n.handSize(1));
+		assertEquals(5, n.handSize(2));
+		assertEquals(4, n.handSize(3));
+		assertEquals(4, n.handSize(4));
+		assertEquals(324, n.solutions());	//nothing known yet
+	}
+
+	@Test
+	public void noOneRefutes() {
+		int hand = bit("Miss Scarlett") | bit("Rope") | bit("Hall");
+		Notebook n = new Notebook(6, 1, hand);
+		//P1 suggests cards it does not have and no one can refute, so they are the solution
+		int suggestion = Deck.mask("Mrs. White", "Dagger", "Study");
+		n.suggestion(1, suggestion, 0, -1);
+		assertEquals(suggestion, n.envelope());
+		assertEquals(suggestion, n.solution());
+		assertEquals(1, n.solutions());
+	}
+
+	@Test
+	public void cardShown() {
+		Notebook n = new Notebook(3, 1, bit("Miss Scarlett"));
+		int suggestion = Deck.mask("Mrs. White", "Dagger", "Study");
+		n.suggestion(1, suggestion, 3, Deck.index("Dagger"));		//P2 could not, P3 showed Dagger
+		assertEquals(Status.HAS_NOT, n.status(2, Deck.index("Mrs. White")));
+		assertEquals(Status.HAS_NOT, n.status(2, Deck.index("Study")));
+		assertEquals(Status.HAS, n.status(3, Deck.index("Dagger")));
+		assertEquals(0, n.candidates() & bit("Dagger"));		//not the solution
+	}
+
+	@Test
+	public void unknownCardResolved() {
+		Notebook n = new Notebook(3, 1, bit("Miss Scarlett"));
+		int suggestion = Deck.mask("Mrs. White", "Dagger", "Study");
+		n.suggestion(2, suggestion, 3, -1);		//P1 could not refute, P3 showed P2 something
+		assertEquals(Status.MAYBE, n.status(3, Deck.index("Dagger")));
+		//later P3 is known not to have Mrs. White nor Study, so it must have the Dagger
+		n.noRefute(3, Deck.mask("Mrs. White", "Rope", "Study"));
+		assertEquals(Status.HAS, n.status(3, Deck.index("Dagger")));
+	}
+
+	@Test
+	public void exactOdds() {
+		Notebook n = new Notebook(3, 1, 0);		//6 cards each
+		//P1 has 6 cards, shown 12 more: only Mrs. White / Dagger / Study / Hall remain
+		int p1 = bit("Miss Scarlett") | bit("Colonel Mustard") | bit("Candlestick") | bit("Kitchen")
+				| bit("Ball Room") | bit("Conservatory");
+		n = new Notebook(3, 1, p1);
+		String[] p2 = {"The Reverend Green", "Mrs. Peacock", "Professor Plum", "Lead Pipe", "Revolver", "Rope"};
+		String[] p3 = {"Spanner", "Billiard Room", "Library", "Lounge", "Dining Room"};
+		for (String name : p2) 	n.shown(2, Deck.index(name));
+		for (String name : p3) 	n.shown(3, Deck.index(name));
+		//P3 holds one of Mrs. White, Dagger, Study, Hall; the other three are the solution
+		//Mrs. White and Dagger are the only ones of their kind left, so P3 has Study or Hall
+		double[] p = new SolutionInference(1000, 4).probabilities(n);
+		assertEquals(1.0, p[Deck.index("Mrs. White")], 1e-9);
+		assertEquals(1.0, p[Deck.index("Dagger")], 1e-9);
+		assertEquals(0.5, p[Deck.index("Study")], 1e-9);
+		assertEquals(0.5, p[Deck.index("Hall")], 1e-9);
+		assertEquals(0.0, p[Deck.index("Rope")], 1e-9);
+	}
+
+	@Test
+	public void sampledOdds() {
+		int hand = bit("Miss Scarlett") | bit("Rope") | bit("Hall");
+		Notebook n = new Notebook(6, 1, hand);		//too many deals to enumerate
+		SolutionInference inference = new SolutionInference(20000, 4);
+		double[] p = inference.probabilities(n);
+		for (String person : Deck.PEOPLE) {		//all other suspects equally likely
+			assertEquals(person.equals("Miss Scarlett") ? 0 : 0.2, p[Deck.index(person)], 0.03);
+		}
+		double rooms = 0;
+		for (String room : Deck.ROOMS) 	rooms += p[Deck.index(room)];
+		assertEquals(1.0, rooms, 1e-9);
+		assertArrayEquals(p, inference.probabilities(n), 0);		//cached, same answer
+	}
+
+	@Test
+	public void lastCandidateOfKind() {
+		Notebook n = new Notebook(3, 0, 0);		//public information only
+		//every weapon but the Spanner is shown
+		String[] shown = {"Candlestick", "Dagger", "Lead Pipe", "Revolver", "Rope"};
+		for (String weapon : shown) {
+			n.shown(2, Deck.index(weapon));
+		}
+		assertEquals(bit("Spanner"), n.envelope() & Deck.WEAPONS_MASK);
+		assertEquals(Status.HAS_NOT, n.status(3, Deck.index("Spanner")));
+	}
+}
@@ -0,0 +1,375 @@
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import main.BotController;
+import main.GameEngine;
+import main.GameEngine.Phase;
+import main.GameEngine.Refutation;
+import main.GameJournal;
+import main.GameRandom;
+import main.GameSnapshot;
+import main.JournalReplayer;
+import main.Loader;
+import main.Simulator;
+import model.Board;
+import model.Deck;
+import model.Notebook;
+import model.Square;
+
+/**
+ * Test the headless GameEngine state machine
+ * @author Ronni Perez
+ *
+ */
+public class GameEngineTests {
+	@Test
+	public void botSuggestsThenLeavesRoom() {
+		GameEngine engine = new GameEngine(3, new Random(7));
+		Board board = engine.getBoard();
+		board.moveToRoom(1, "Kitchen");
+		Notebook notes = new Notebook(3, 1, board.getPlayer(1).hand());
+		BotController bot = new BotController(new Random(7));
+		assertEquals(3, bot.choose(board, notes, 4, true));		//arrived in a room, suggest
+		String[] pick = bot.suggest(board, notes, "Kitchen");
+		assertEquals(0, board.getPlayer(1).hand() & Deck.bit(pick[0]));	//never names own card
+		assertEquals(1, bot.choose(board, notes, 4, false));		//already suggested this turn, move on
+		int[] to = bot.move(board, notes, 4);
+		assertTrue(board.getPlayer(1).getLocation().hasNeigbour(to[0], to[1]));
+	}
+
+	@Test
+	public void engineStart() {
+		GameEngine engine = new GameEngine(3);		//3 players
+		assertEquals(Phase.ROLL, engine.getPhase());	//P1 has to roll first
+		assertEquals(1, engine.getCurrent());
+		assertEquals(0, engine.getWinner());
+	}
+
+	@Test
+	public void rollThenMove() {
+		GameEngine engine = new GameEngine(3);
+		int rolled = engine.roll();
+		assertTrue(rolled >= 1 && rolled <= 6);
+		assertEquals(Phase.ACTION, engine.getPhase());
+		assertFalse(engine.move(15, 5));		//P1 @ 17,5, 2 steps should not work
+		assertTrue(engine.move(16, 5));		//1 step up
+		assertEquals(rolled - 1, engine.getRemaining());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void moveBeforeRoll() {
+		new GameEngine(3).move(16, 5);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void suggestOutsideRoom() {
+		GameEngine engine = new GameEngine(3);
+		engine.roll();
+		engine.suggest(Loader.getPeople()[0], Loader.getWeapons()[0]);
+	}
+
+	@Test
+	public void falseAccusationExpels() {
+		GameEngine engine = new GameEngine(3);
+		engine.roll();
+		String person = engine.getSolution().getSuspect().equals(Loader.getPeople()[0])
+				? Loader.getPeople()[1] : Loader.getPeople()[0];		//anyone but the suspect
+		assertFalse(engine.accuse(person, engine.getSolution().getWeapon(), engine.getSolution().getPlace()));
+		assertEquals(Phase.TURN_OVER, engine.getPhase());
+		assertFalse(engine.getBoard().isPlaying(1));
+		engine.advance();
+		assertEquals(2, engine.getCurrent());		//P2's turn
+	}
+
+	@Test
+	public void trueAccusationWins() {
+		GameEngine engine = new GameEngine(4);
+		engine.roll();
+		assertTrue(engine.accuse(engine.getSolution().getSuspect(), engine.getSolution().getWeapon(), engine.getSolution().getPlace()));
+		assertEquals(Phase.GAME_OVER, engine.getPhase());
+		assertEquals(1, engine.getWinner());
+	}
+
+	@Test
+	public void suggestionIsRefuted() {
+		GameEngine engine = new GameEngine(3);
+		engine.roll();
+		engine.getBoard().movePlayerViaSuggestion(1, 15, 2);	//put P1 in the Lounge
+		Refutation r = engine.suggest(engine.getSolution().getSuspect(), engine.getSolution().getWeapon());
+		if (engine.getSolution().getPlace().equals("Lounge")		//whole suggestion is the solution
+				|| engine.getBoard().getPlayer(1).hasCard("Lounge", null)) {		//or P1 holds the only card not in it
+			assertEquals(0, r.refuter);
+			assertNull(r.card);
+		} else {		//someone has the Lounge card
+			assertNotEquals(0, r.refuter);
+			assertEquals("Lounge", r.card);
+		}
+	}
+
+	@Test
+	public void botSuggestsEveryTurnItMay() {
+		GameEngine engine = new GameEngine(3, new Random(7));
+		Board board = engine.getBoard();
+		Notebook notes = new Notebook(3, 2, board.getPlayer(2).hand());
+		BotController bot = new BotController(new Random(7));
+		board.moveToRoom(2, "Kitchen");		//moved by another player's suggestion
+		assertEquals(3, bot.choose(board, notes, 4, true));
+		bot.suggest(board, notes, "Kitchen");
+		assertEquals(3, bot.choose(board, notes, 2, true));		//next turn, same room
+	}
+
+	@Test
+	public void boxedInBot() throws Exception {
+		List<String> lines = Files.readAllLines(Paths.get("assets/board.txt"));
+		int last = lines.size() - 1;		//row 17, P1 starts at 17,5
+		String[] row = lines.get(last).trim().split(" ");
+		row[6] = "RM.LN";		//wall it in
+		lines.set(last, String.join(" ", row));
+		row = lines.get(last - 1).trim().split(" ");
+		row[5] = "RM.LN";
+		lines.set(last - 1, String.join(" ", row));
+		Path file = Files.createTempFile("boxed", ".txt");
+		Files.write(file, lines);
+		Board board = new Board(new Loader(file.toString()).getTopology(), 3);
+		Files.delete(file);
+		Square loc = board.getPlayer(1).getLocation();
+		assertEquals(0, loc.neighbourCount());
+
+		Notebook notes = new Notebook(3, 1, board.getPlayer(1).hand());
+		BotController bot = new BotController(new Random(7));
+		assertArrayEquals(new int[] {loc.row, loc.col}, bot.move(board, notes, 3));		//no exception
+		assertEquals(2, bot.choose(board, notes, 3, false));		//a guess ends the turn
+	}
+
+	@Test
+	public void oneSuggestionPerTurn() {
+		GameEngine engine = new GameEngine(3);
+		engine.roll();
+		assertFalse(engine.canSuggest());		//not in a room
+		engine.getBoard().movePlayerViaSuggestion(1, 15, 2);	//put P1 in the Lounge
+		assertTrue(engine.canSuggest());
+		engine.suggest(engine.getSolution().getSuspect(), engine.getSolution().getWeapon());
+		assertFalse(engine.canSuggest());
+		try {
+			engine.suggest(engine.getSolution().getSuspect(), engine.getSolution().getWeapon());
+			fail("second suggestion in one turn");
+		} catch (IllegalStateException e) {
+			assertTrue(e.getMessage().contains("already made a suggestion"));
+		}
+	}
+
+	@Test
+	public void longGameConstantStack() {
+		GameEngine engine = new GameEngine(6);
+		//nobody ever accuses, just keep moving back and forth
+		for (int turn = 0; turn < 200000; turn++) {
+			engine.roll();
+			while (engine.getPhase() == Phase.ACTION) {
+				Square loc = engine.getLocation();
+				assertTrue(engine.move(loc.neighbourRow(0), loc.neighbourCol(0)));	//any valid step
+			}
+			engine.advance();
+		}
+		assertEquals(200001, engine.getTurns());
+	}
+
+	@Test
+	public void snapshotRoundTrip() {
+		GameEngine engine = new GameEngine(6, new Random(3));
+		for (int turn = 0; turn < 7; turn++) {		//move some players away from their starts
+			engine.roll();
+			while (engine.getPhase() == Phase.ACTION) {
+				Square loc = engine.getLocation();
+				engine.move(loc.neighbourRow(0), loc.neighbourCol(0));
+			}
+			engine.advance();
+		}
+		engine.roll();		//saved mid-turn
+		engine.getBoard().expel(2);
+		ByteBuffer saved = GameSnapshot.write(engine);
+		assertTrue(saved.remaining() < 1024);
+
+		GameEngine restored = GameSnapshot.read(saved.duplicate(), new Loader(), new Random(3));
+		assertEquals(engine.getPhase(), restored.getPhase());
+		assertEquals(engine.getCurrent(), restored.getCurrent());
+		assertEquals(engine.getRemaining(), restored.getRemaining());
+		assertEquals(engine.getTurns(), restored.getTurns());
+		assertEquals(engine.getSolution().mask(), restored.getSolution().mask());
+		assertEquals(engine.getWeaponsInRoom(), restored.getWeaponsInRoom());
+		for (int ID = 1; ID <= 6; ID++) {
+			assertEquals(engine.getBoard().getPlayer(ID).hand(), restored.getBoard().getPlayer(ID).hand());
+			assertSame(engine.getBoard().getPlayer(ID).getLocation(), restored.getBoard().getPlayer(ID).getLocation());
+			assertEquals(engine.getBoard().isPlaying(ID), restored.getBoard().isPlaying(ID));
+		}
+		assertEquals(saved, GameSnapshot.write(restored));		//byte for byte
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void notASnapshot() {
+		ByteBuffer saved = GameSnapshot.write(new GameEngine(3));
+		saved.putInt(0, 0);		//clobber the magic
+		GameSnapshot.read(saved, new Loader(), new Random());
+	}
+
+	@Test
+	public void corruptSnapshots() {
+		int[][] clobbered = {{5, 7}, {6, 4}, {8, 9}, {24, 8}, {33, 100}};		//offset, value: players, current, phase, suspect, first hand
+		for (int[] c : clobbered) {
+			ByteBuffer saved = GameSnapshot.write(new GameEngine(3));
+			saved.put(c[0], (byte) c[1]);
+			try {
+				GameSnapshot.read(saved, new Loader(), new Random());
+				fail("byte "+c[0]+" = "+c[1]+" was restored");
+			} catch (IllegalArgumentException e) {
+				assertTrue(e.getMessage(), e.getMessage().startsWith("Snapshot has"));
+			}
+		}
+		GameEngine engine = new GameEngine(3);
+		int cells = engine.getBoard().getTopology().rows() * engine.getBoard().getTopology().cols();
+		int start = 0, vacant = 0;		//cell of P1's token, an empty cell
+		while (engine.getBoard().occupantOf(start) != 1) 	start++;
+		while (engine.getBoard().occupantOf(vacant) != 0) 	vacant++;
+		for (int[] tokens : new int[][] {{vacant, 1}, {start, 0, vacant, 1}}) {		//P1 twice, P1 away from its square
+			ByteBuffer saved = GameSnapshot.write(engine);
+			int grid = saved.limit() - cells;		//occupants are last
+			for (int i = 0; i < tokens.length; i += 2) {
+				saved.put(grid + tokens[i], (byte) tokens[i + 1]);
+			}
+			try {
+				GameSnapshot.read(saved, new Loader(), new Random());
+				fail("misplaced token was restored");
+			} catch (IllegalArgumentException e) {
+				assertTrue(e.getMessage(), e.getMessage().contains("token"));
+			}
+		}
+		ByteBuffer saved = GameSnapshot.write(new GameEngine(3));
+		saved.limit(saved.limit() - 1);		//cut short
+		try {
+			GameSnapshot.read(saved, new Loader(), new Random());
+			fail("cut short snapshot was restored");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Snapshot is cut short", e.getMessage());
+		}
+	}
+
+	@Test
+	public void journalReplaysGames() {
+		ByteArrayOutputStream file = new ByteArrayOutputStream();
+		GameJournal journal = new GameJournal(Channels.newChannel(file), 256);	//small buffer, drained many times
+		GameRandom rand = new GameRandom(11);
+		GameEngine[] played = new GameEngine[3];
+		for (int i = 0; i < played.length; i++) {
+			GameRandom game = rand.nextGame();
+			played[i] = playJournaled(new GameEngine(4, game), journal, game);
+		}
+		journal.close();
+
+		ByteBuffer in = ByteBuffer.wrap(file.toByteArray());
+		JournalReplayer replayer = new JournalReplayer(new Loader(), new Random());
+		for (GameEngine engine : played) {
+			GameEngine replayed = replayer.next(in);
+			assertEquals(engine.getWinner(), replayed.getWinner());
+			assertEquals(engine.getTurns(), replayed.getTurns());
+			assertEquals(GameSnapshot.write(engine), GameSnapshot.write(replayed));	//same state, byte for byte
+		}
+		assertNull(replayer.next(in));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void journalBreakingRulesIsRejected() {
+		ByteArrayOutputStream file = new ByteArrayOutputStream();
+		GameJournal journal = new GameJournal(Channels.newChannel(file), 256);
+		GameEngine engine = new GameEngine(3, new GameRandom(5));
+		journal.start(3, 5, engine.getSolution(), engine.getWeaponsInRoom(), engine.getBoard());
+		journal.roll(1, engine.roll());
+		journal.suggest(1, Deck.PEOPLE[0], Deck.WEAPONS[0], Deck.ROOMS[0]);		//P1 is at its start, not in a room
+		journal.refute(0, -1);
+		journal.close();
+		new JournalReplayer(new Loader(), new Random()).next(ByteBuffer.wrap(file.toByteArray()));
+	}
+
+	@Test
+	public void corruptJournalIsRejected() {
+		ByteArrayOutputStream file = new ByteArrayOutputStream();
+		GameJournal journal = new GameJournal(Channels.newChannel(file), 256);
+		GameEngine engine = new GameEngine(3, new GameRandom(5));
+		journal.start(3, 5, engine.getSolution(), engine.getWeaponsInRoom(), engine.getBoard());
+		journal.close();
+		ByteBuffer in = ByteBuffer.wrap(file.toByteArray());
+		in.put(2 + 1 + 1 + 1 + 8 + 3, (byte) Deck.ROOMS.length);		//length, type, version, players, seed, solution: room of the first weapon
+		try {
+			new JournalReplayer(new Loader(), new Random()).next(in);
+			fail("weapon in no room of the board was replayed");
+		} catch (IllegalStateException e) {
+			assertTrue(e.getMessage(), e.getMessage().startsWith("Journal has room of a weapon"));
+		}
+	}
+
+	/**
+	 * Bots play a whole game, every action recorded the way Cluedo records it
+	 */
+	private static GameEngine playJournaled(GameEngine engine, GameJournal journal, GameRandom rand) {
+		Board board = engine.getBoard();
+		int players = engine.getPlayers();
+		journal.start(players, rand.seed(), engine.getSolution(), engine.getWeaponsInRoom(), board);
+		Notebook[] notes = new Notebook[players + 1];
+		BotController[] bots = new BotController[players + 1];
+		for (int ID = 1; ID <= players; ID++) {
+			notes[ID] = new Notebook(players, ID, board.getPlayer(ID).hand());
+			bots[ID] = new BotController(rand);
+		}
+		while (engine.getPhase() != Phase.GAME_OVER && engine.getTurns() < 2000) {
+			int ID = engine.getCurrent();
+			journal.roll(ID, engine.roll());
+			while (engine.getPhase() == Phase.ACTION) {
+				switch (bots[ID].choose(board, notes[ID], engine.getRemaining(), engine.canSuggest())) {
+				case 1:
+					int[] to = bots[ID].move(board, notes[ID], engine.getRemaining());
+					engine.move(to[0], to[1]);
+					journal.move(ID, to[0], to[1]);
+					break;
+				case 2:
+					String[] a = bots[ID].accuse(board, notes[ID]);
+					boolean correct = engine.accuse(a[0], a[1], a[2]);
+					journal.accuse(ID, a[0], a[1], a[2], correct);
+					if (!correct) 	journal.expel(ID);
+					break;
+				case 3:
+					String room = board.inRoom(ID);
+					String[] s = bots[ID].suggest(board, notes[ID], room);
+					journal.suggest(ID, s[0], s[1], room);
+					Refutation r = engine.suggest(s[0], s[1]);
+					journal.refute(r.refuter, r.index);
+					for (int seat = 1; seat <= players; seat++) {
+						notes[seat].suggestion(ID, Deck.mask(s[0], s[1], room), r.refuter, seat == ID ? r.index : -1);
+					}
+					break;
+				}
+			}
+			if (engine.getPhase() == Phase.TURN_OVER) 	engine.advance();
+		}
+		return engine;
+	}
+
+	@Test
+	public void seededSimulationIsReproducible() {
+		Simulator sim = new Simulator(4, 2000);
+		ForkJoinPool one = new ForkJoinPool(1), four = new ForkJoinPool(4);
+		String alone = sim.run(500, one, 5).toString();
+		assertEquals(alone, sim.run(500, four, 5).toString());		//same seed, any number of threads
+		assertEquals(alone, sim.run(500, four, 5).toString());
+		one.shutdown();
+		four.shutdown();
+	}
+}
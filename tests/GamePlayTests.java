@@ -1,3 +1,7 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -5,6 +9,9 @@ import java.lang.reflect.Method;
 import main.Cluedo;
 import main.Loader;
 import model.Board;
+import view.InputParser;
+import view.OutputStream;
+import view.Pacing;
 
 import org.junit.*;
 
@@ -55,21 +62,21 @@ public class GamePlayTests {
 		
 		f = Cluedo.class.getDeclaredField("current"); // get current
 		f.setAccessible(true);
-		m = Cluedo.class.getDeclaredMethod("nextMove",boolean.class);	//get nextMove
+		m = Cluedo.class.getDeclaredMethod("nextMove");	//get nextMove
 		m.setAccessible(true);
 		
 		//current starts with 1 as in P1
-		m.invoke(game, true);		//is testing, ..current should == 2
+		m.invoke(game);		//current should == 2
 		assertEquals("2", f.get(game).toString());
-		m.invoke(game, true);		//is testing, ..current should == 3
+		m.invoke(game);		//current should == 3
 		assertEquals("3", f.get(game).toString());
-		m.invoke(game, true);		//is testing, ..current should == 4
+		m.invoke(game);		//current should == 4
 		assertEquals("4", f.get(game).toString());
-		m.invoke(game, true);		//is testing, ..current should == 1
+		m.invoke(game);		//current should == 1
 		assertEquals("1", f.get(game).toString());
-		m.invoke(game, true);		//is testing, ..current should == 2
+		m.invoke(game);		//current should == 2
 		assertEquals("2", f.get(game).toString());
-		m.invoke(game, true);		//is testing, ..current should == 3
+		m.invoke(game);		//current should == 3
 		assertEquals("3", f.get(game).toString());
 	}
 	
@@ -94,7 +101,7 @@ public class GamePlayTests {
 	
 	@Test	
 	public void validMoves() {
-		Board board = new Board(new Loader(18, 18).getCoords(), 3);
+		Board board = new Board(new Loader(18, 18).getTopology(), 3);
 		/* row, col
 		 * {17,5},		//starting positions for player 1
 			{12,0},		//p 2
@@ -118,7 +125,7 @@ public class GamePlayTests {
 	
 	@Test	
 	public void invalidMoves() {
-		Board board = new Board(new Loader(18, 18).getCoords(), 1);
+		Board board = new Board(new Loader(18, 18).getTopology(), 1);
 		/* row, col
 		 * {17,5},		//starting position for player 1
 		 */
@@ -129,4 +136,39 @@ public class GamePlayTests {
 		assertFalse(board.movePiece(1, 17, 3));		//move to room LN w/o using doorway should not work, same position
 		assertFalse(board.movePiece(1, 15, 5));		//move 2 steps should not work, same position
 	}
+
+	@Test
+	public void separateSessions() throws InterruptedException {
+		String script = "3\n2\n";		//3 players, all played by the computer, then quit
+		String[] transcripts = new String[4];
+		Thread[] games = new Thread[transcripts.length];
+		for (int i = 0; i < games.length; i++) {
+			int game = i;
+			games[i] = new Thread(() -> {
+				if (game % 2 == 0) {		//streams
+					ByteArrayOutputStream screen = new ByteArrayOutputStream();
+					OutputStream out = new OutputStream(screen, Pacing.Profile.NONE);
+					new Cluedo(out, new Loader(), null, 42, new InputParser[] {
+							new InputParser(new ByteArrayInputStream(script.getBytes()), out)}, 3);
+					out.finish();
+					transcripts[game] = screen.toString();
+				} else {		//reader and writer
+					StringWriter screen = new StringWriter();
+					OutputStream out = new OutputStream(screen, Pacing.Profile.NONE);
+					new Cluedo(out, new Loader(), null, 42, new InputParser[] {new InputParser(new StringReader(script), out)}, 3);
+					out.finish();
+					transcripts[game] = screen.toString();
+				}
+			});
+			games[i].start();
+		}
+		for (Thread t : games) {
+			t.join();
+		}
+		assertTrue(transcripts[0].startsWith("/** Welcome to Cluedo game"));
+		assertTrue(transcripts[0].contains("won the game") || transcripts[0].contains("The case has gone cold"));
+		for (String transcript : transcripts) {		//same seed, same script: same game, nothing of another game mixed in
+			assertEquals(transcripts[0], transcript);
+		}
+	}
 }
@@ -1,17 +1,24 @@
 import org.junit.*;
 import static org.junit.Assert.*;
 
+import java.io.File;
+import java.io.FileWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
+import main.BoardGenerator;
 import main.Loader;
 import model.Board;
 import model.Card;
 import model.Card.Type;
 import model.CentreRoom;
+import model.Deck;
 import model.Player;
 import model.Square;
+import model.WeaponPlacement;
 
 /**
  * Test Game Setup specifically Board, Square, Player ad their Cards
@@ -21,7 +28,7 @@ import model.Square;
 public class GameSetupTests {
 	@Test	
 	public void validPlayareaNeigbour() {
-		Board board = new Board(new Loader(18, 18).getCoords(), 0);
+		Board board = new Board(new Loader(18, 18).getTopology(), 0);
 		Square playarea = board.getSquare(4, 5);	//get square
 		assertTrue(playarea.hasNeigbour(3, 5));	//above
 		assertTrue(playarea.hasNeigbour(5, 5));	//below
@@ -31,7 +38,7 @@ public class GameSetupTests {
 	
 	@Test	
 	public void validPlayareaNeigbour2() {
-		Board board = new Board(new Loader(18, 18).getCoords(), 0);
+		Board board = new Board(new Loader(18, 18).getTopology(), 0);
 		Square playarea = board.getSquare(0, 5);	//get square @ label "th"
 		/*
 		 * 03 04 05 06 07
@@ -48,7 +55,7 @@ public class GameSetupTests {
 	
 	@Test	
 	public void invalidPlayareaNeigbour() {
-		Board board = new Board(new Loader(18, 18).getCoords(), 0);
+		Board board = new Board(new Loader(18, 18).getTopology(), 0);
 		Square playarea = board.getSquare(12, 2);	//get square
 		assertFalse(playarea.hasNeigbour(11, 1));	//not itself
 		assertFalse(playarea.hasNeigbour(11, 1));	//not north west diagonal
@@ -59,7 +66,7 @@ public class GameSetupTests {
 	
 	@Test	
 	public void invalidCentreRoomNeigbour() {
-		Board board = new Board(new Loader(18, 18).getCoords(), 0);
+		Board board = new Board(new Loader(18, 18).getTopology(), 0);
 		Square centre = board.getSquare(8, 9);	//get 'CR' square
 		//should have no neighbors
 		assertFalse(centre.hasNeigbour(7, 9));	//not above
@@ -70,7 +77,7 @@ public class GameSetupTests {
 	
 	@Test	
 	public void validDoorwayNeigbour() {
-		Board board = new Board(new Loader(18, 18).getCoords(), 0);
+		Board board = new Board(new Loader(18, 18).getTopology(), 0);
 		Square dw = board.getSquare(3, 3);	//get doorway 'dw' to Kitchen (KC)
 		/*
 		 * 02 03 04
@@ -87,7 +94,7 @@ public class GameSetupTests {
 	
 	@Test	
 	public void invalidDoorwayNeigbour() {
-		Board board = new Board(new Loader(18, 18).getCoords(), 0);
+		Board board = new Board(new Loader(18, 18).getTopology(), 0);
 		Square dw = board.getSquare(3, 3);	//get doorway 'dw' to Kitchen (KC)
 		/*
 		 * 02 03 04
@@ -100,9 +107,22 @@ public class GameSetupTests {
 		assertFalse(dw.hasNeigbour(4, 4));	//not south east diagonal
 	}
 	
+	@Test	
+	public void doorwayNeigbourCount() {
+		Board board = new Board(new Loader(18, 18).getTopology(), 0);
+		Square dw = board.getSquare(3, 3);	//get doorway 'dw' to Kitchen (KC)
+		assertEquals(4, dw.neighbourCount());	//KC above, playarea below, left and right
+		for (int i = 0; i < dw.neighbourCount(); i++) {		//every listed neighbor is a neighbor
+			assertTrue(dw.hasNeigbour(dw.neighbourRow(i), dw.neighbourCol(i)));
+		}
+		Square kc = board.getSquare(0, 0);	//any Kitchen Square
+		assertEquals(2, kc.neighbourCount());	//doorway and stairwell to Study
+		assertTrue(kc.hasNeigbour(16, 16));
+	}
+	
 	@Test	
 	public void validRoomNeigbour() {
-		Board board = new Board(new Loader(18, 18).getCoords(), 0);
+		Board board = new Board(new Loader(18, 18).getTopology(), 0);
 		Square rm = board.getSquare(13, 7);	//get room Hall (HL)
 		/*
 		 * 07 08 09 10 11 12 13 
@@ -120,7 +140,7 @@ public class GameSetupTests {
 	
 	@Test	
 	public void invalidRoomNeigbour() {
-		Board board = new Board(new Loader(18, 18).getCoords(), 0);
+		Board board = new Board(new Loader(18, 18).getTopology(), 0);
 		Square rm = board.getSquare(13, 7);	//get room Hall (HL)
 		/*
 		 *	06 07 08 09 10 11 12 13 
@@ -138,9 +158,61 @@ public class GameSetupTests {
 		assertFalse(rm.hasNeigbour(12, 6));	//not north west diagonal
 	}
 	
+	@Test	
+	public void sharedTopology() {
+		Board first = new Board(new Loader(18, 18).getTopology(), 1);	//P1 @ 17,5
+		Board second = new Board(new Loader(18, 18).getTopology(), 1);
+		assertSame(first.getTopology(), second.getTopology());		//parsed once
+		assertTrue(first.movePiece(1, 16, 5));
+		assertEquals("P1", first.getOccupied(16, 5));
+		assertNull(second.getOccupied(16, 5));		//other game unaffected
+		assertEquals("P1", second.getOccupied(17, 5));
+		assertEquals("P1 ", first.toString(16, 5));
+		assertEquals("__ ", second.toString(16, 5));
+	}
+	
+	@Test	
+	public void generatedBoard() throws Exception {
+		File file = File.createTempFile("board", ".txt");
+		file.deleteOnExit();
+		try (Writer out = new FileWriter(file)) {
+			new BoardGenerator(100).write(out);
+		}
+		Board board = new Board(new Loader(file.getPath()).getTopology(), 6);
+		assertEquals(100, board.getTopology().rows());
+		assertEquals(6, board.getTopology().starts());
+		for (int ID = 1; ID <= 6; ID++) {		//every room can be entered from every start
+			for (String room : Loader.getRooms()) {
+				assertNotEquals(Board.UNREACHABLE, board.distanceToRoom(ID, room));
+			}
+		}
+	}
+	
+	@Test	
+	public void distanceToRoom() {
+		Board board = new Board(new Loader(18, 18).getTopology(), 1);	//P1 @ 17,5
+		//16,5 15,5 14,5 13,5 13,4(dw) then into the Lounge
+		assertEquals(6, board.distanceToRoom(1, "Lounge"));
+		assertEquals(0, board.distanceToRoom(14, 2, "Lounge"));	//already in it
+		board.movePlayerViaSuggestion(1, 0, 0);		//put P1 in the Kitchen
+		assertEquals(1, board.distanceToRoom(1, "Study"));	//stairwell
+		assertEquals(Board.UNREACHABLE, board.distanceToRoom(1, "Centre"));	//no such room
+	}
+	
+	@Test	
+	public void reachableSquares() {
+		Board board = new Board(new Loader(18, 18).getTopology(), 1);	//P1 @ 17,5
+		List<Square> reach = board.reachable(1, 5);
+		assertTrue(reach.contains(board.getSquare(13, 4)));		//Lounge doorway
+		assertFalse(reach.contains(board.getSquare(14, 4)));		//but not the Lounge itself
+		assertFalse(reach.contains(board.getSquare(17, 5)));		//not where P1 stands
+		assertTrue(board.reachable(1, 6).contains(board.getSquare(14, 4)));
+		assertEquals(2, board.reachable(1, 1).size());		//only 16,5 and 17,6
+	}
+	
 	@Test	
 	public void validPlayerLoc() {
-		Board board = new Board(new Loader(18, 18).getCoords(), 6);		//6 players
+		Board board = new Board(new Loader(18, 18).getTopology(), 6);		//6 players
 		//P1 and so on
         assertEquals(board.getPlayer(1).getLocation(), board.getSquare(17, 5));
 		assertEquals(board.getPlayer(2).getLocation(), board.getSquare(12, 0));
@@ -152,7 +224,7 @@ public class GameSetupTests {
 	
 	@Test	
 	public void invalidPlayerLoc() {
-		Board board = new Board(new Loader(18, 18).getCoords(), 6);		//6 players
+		Board board = new Board(new Loader(18, 18).getTopology(), 6);		//6 players
 		//P1 and so on
         assertNotEquals(board.getPlayer(1).getLocation(), board.getSquare(11, 5));
 		assertNotEquals(board.getPlayer(2).getLocation(), board.getSquare(15, 14));
@@ -164,7 +236,7 @@ public class GameSetupTests {
 	
 	@Test	
 	public void invalidPlayerSpawn() {
-		Board board = new Board(new Loader(18, 18).getCoords(), 4);		//4 players
+		Board board = new Board(new Loader(18, 18).getTopology(), 4);		//4 players
 		//P5 and P6 should NOT have any mappings
         assertNull(board.getPlayer(5));
         assertNull(board.getPlayer(6));
@@ -172,7 +244,7 @@ public class GameSetupTests {
 	
 	@Test	
 	public void invalidPlayerSpawn2() {
-		Board board = new Board(new Loader(18, 18).getCoords(), 3);		//4 players
+		Board board = new Board(new Loader(18, 18).getTopology(), 3);		//4 players
 		//P4 and P5 and P6 should NOT have any mappings
         assertNull(board.getPlayer(4));
         assertNull(board.getPlayer(5));
@@ -198,10 +270,58 @@ public class GameSetupTests {
 		assertEquals("Miss Scarrlet", solution.getSuspect());
 	}
 	
+	@Test	
+	public void refuteSuggestion() {
+		Board board = new Board(new Loader(18, 18).getTopology(), 1);	//1 player only
+		Player p = board.getPlayer(1);
+		p.addCard(new Card(Type.WEAPON, "Rope"));
+		p.addCard(new Card(Type.ROOM, "Hall"));
+		//shows first held card in order suspect, weapon, room
+		assertEquals(Deck.index("Rope"), p.refute(Deck.mask("Mrs. White", "Rope", "Hall")));
+		assertEquals(Deck.index("Hall"), p.refute(Deck.mask("Mrs. White", "Dagger", "Hall")));
+		assertEquals(-1, p.refute(Deck.mask("Mrs. White", "Dagger", "Study")));
+	}
+	
+	@Test	
+	public void accusationMatches() {
+		CentreRoom solution = new CentreRoom();
+		List<Card> list = new ArrayList<>();
+		list.add(new Card(Type.ROOM, "Lounge"));
+		list.add(new Card(Type.CHARACTER, "Miss Scarlett"));
+		list.add(new Card(Type.WEAPON, "Dagger"));
+		solution.putInEnvelope(list);
+		
+		assertTrue(solution.matches("Miss Scarlett", "Dagger", "Lounge"));
+		assertFalse(solution.matches("Miss Scarlett", "Dagger", "Hall"));
+		assertFalse(solution.matches("Miss Scarlett", "Lounge", "Dagger"));	//no mixing up
+	}
+	
+	@Test	
+	public void weaponPlacement() {
+		WeaponPlacement weapons = new Loader().putInRoom(new Random(3));
+		for (int w = 0; w < Deck.WEAPONS.length; w++) {		//every weapon in a room of its own
+			assertEquals(w, weapons.weaponIn(weapons.roomOf(w)));
+		}
+		weapons.move("Dagger", "Kitchen");
+		weapons.move("Candlestick", "Lounge");
+		weapons.move("Dagger", "Lounge");		//swap
+		assertEquals("Dagger", weapons.weaponIn("Lounge"));
+		assertEquals("Lounge", weapons.roomOf("Dagger"));
+		assertEquals("Kitchen", weapons.roomOf("Candlestick"));
+		assertEquals("Candlestick", weapons.weaponIn("Kitchen"));
+		weapons.move("Dagger", "Lounge");		//already there
+		assertEquals("Lounge", weapons.roomOf("Dagger"));
+		for (int r = 0; r < Deck.ROOMS.length; r++) {		//both ways agree
+			int w = weapons.weaponIn(r);
+			assertTrue(w == WeaponPlacement.NONE || weapons.roomOf(w) == r);
+		}
+		assertEquals(weapons, new WeaponPlacement(weapons));
+	}
+	
 	//turn off / comment out delay in Player.hasCard(name) when testing this
 	@Test	
 	public void validCards() {
-		Board board = new Board(new Loader(18, 18).getCoords(), 1);	//1 player only
+		Board board = new Board(new Loader(18, 18).getTopology(), 1);	//1 player only
 		Player p = board.getPlayer(1);
 		List<Card> cards = new Loader(18, 18).loadCards();
 		List<String> p1Cards = new ArrayList<>();
@@ -214,13 +334,13 @@ public class GameSetupTests {
 		}
 		
 		for (String name: p1Cards) {		//given the name, player should have card
-			assertTrue(p.hasCard(name, true));		//turn off / comment out delay in Player.hasCard(name) when testing this
+			assertTrue(p.hasCard(name, null));		//turn off / comment out delay in Player.hasCard(name) when testing this
 		}
 	}
 	
 	@Test	
 	public void invalidCards() {
-		Board board = new Board(new Loader(18, 18).getCoords(), 1);	//1 player only
+		Board board = new Board(new Loader(18, 18).getTopology(), 1);	//1 player only
 		Player p = board.getPlayer(1);
 		List<Card> cards = new Loader(18, 18).loadCards();
 		
@@ -230,7 +350,7 @@ public class GameSetupTests {
 		}
 		//now all Cards in collection are the cards that are left
 		for (Card c: cards) {		//given the name, player should NOT have card
-			assertFalse(p.hasCard(c.name, true));
+			assertFalse(p.hasCard(c.name, null));
 		}
 	}
 	
@@ -0,0 +1,83 @@
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.util.NoSuchElementException;
+
+import view.InputParser;
+import view.OutputStream;
+import view.Pacing;
+
+/**
+ * Test parsing of typed or scripted input
+ * @author Ronni Perez
+ *
+ */
+public class InputTests {
+	private ByteArrayOutputStream screen;
+
+	private InputParser parser(String input) {
+		screen = new ByteArrayOutputStream();
+		return new InputParser(new ByteArrayInputStream(input.getBytes()), new OutputStream(screen, Pacing.Profile.NONE));
+	}
+
+	@Test
+	public void numbers() {
+		InputParser p = parser("3\n+4\r\n6\r5");
+		assertEquals(3, p.parseNum(3, 6));
+		assertEquals(4, p.parseNum(3, 6));
+		assertEquals(6, p.parseNum(3, 6));
+		assertEquals(5, p.parseNum(3, 6));		//last line without a line break
+		assertEquals("", screen.toString());
+	}
+
+	@Test
+	public void invalidNumbersAreAskedAgain() {
+		InputParser p = parser("\nthree\n 3\n3,\n-\n99999999999\n-2147483649\n7\n2\n4\n");
+		assertEquals(4, p.parseNum(3, 6));
+		String out = screen.toString();
+		assertEquals(7, out.split("Invalid. Expected number", -1).length - 1);
+		assertEquals(2, out.split("Enter number between", -1).length - 1);		//7 and 2
+	}
+
+	@Test
+	public void coordinates() {
+		InputParser p = parser("4,6\n10,0,,\n-1,5\n,4,6\n4,,6\n4, 6\n4\n17,5\n");
+		assertArrayEquals(new int[] {4, 6}, p.parseCoords());
+		assertArrayEquals(new int[] {10, 0}, p.parseCoords());		//trailing commas ignored, as String.split does
+		assertArrayEquals(new int[] {17, 5}, p.parseCoords());		//negative asked again silently, as before
+		assertEquals(4, screen.toString().split("Expected row, column format", -1).length - 1);
+	}
+
+	@Test
+	public void reader() {
+		InputParser p = new InputParser(new StringReader("x\n5\n2,3\n"), new OutputStream(new ByteArrayOutputStream(), Pacing.Profile.NONE));
+		assertEquals(5, p.parseNum(0, 9));
+		assertArrayEquals(new int[] {2, 3}, p.parseCoords());
+	}
+
+	@Test(expected = NoSuchElementException.class)
+	public void inputClosed() {
+		InputParser p = parser("3\n");
+		p.parseNum(3, 6);
+		p.parseNum(3, 6);
+	}
+
+	@Test
+	public void longScript() {
+		int commands = 1000000;
+		StringBuilder script = new StringBuilder();
+		for (int i = 0; i < commands; i++) {
+			script.append(i % 2 == 0 ? "12,7\n" : "5\n");
+		}
+		InputParser p = parser(script.toString());
+		long sum = 0;
+		for (int i = 0; i < commands; i++) {
+			sum += i % 2 == 0 ? p.parseCoords()[1] : p.parseNum(0, 6);
+		}
+		assertEquals(commands / 2 * 12, sum);
+	}
+}
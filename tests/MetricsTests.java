@@ -0,0 +1,100 @@
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import main.JfrSummary;
+import main.Metrics;
+import main.Metrics.Counter;
+import main.Metrics.Timer;
+import main.SimulationStats;
+import main.Simulator;
+
+/**
+ * Test the metrics registry, the flight recorder events and what the game engine counts
+ * @author Ronni Perez
+ *
+ */
+public class MetricsTests {
+	@Test
+	public void histogramPercentiles() {
+		Metrics.Histogram h = new Metrics.Histogram();
+		for (long v = 1; v <= 100000; v++) {
+			h.record(v * 1000);		//1 us to 100 ms
+		}
+		assertEquals(100000, h.count());
+		assertEquals(100000000, h.max());
+		assertEquals(50000500, h.mean(), 1);
+		assertEquals(50000000, h.percentile(50), 50000000 * 0.016);		//within one bucket
+		assertEquals(99000000, h.percentile(99), 99000000 * 0.016);
+		assertEquals(100000000, h.percentile(100));
+		assertEquals(0, new Metrics.Histogram().percentile(50));
+	}
+
+	@Test
+	public void smallAndHugeValues() {
+		Metrics.Histogram h = new Metrics.Histogram();
+		h.record(0);
+		h.record(127);
+		h.record(Long.MAX_VALUE);
+		assertEquals(0, h.percentile(30));
+		assertEquals(127, h.percentile(60));		//exact below 128
+		assertEquals(Long.MAX_VALUE, h.percentile(100));
+	}
+
+	@Test
+	public void simulationIsCounted() {
+		Metrics.Snapshot before = Metrics.snapshot();
+		SimulationStats stats = new Simulator(4, 10000).run(500, ForkJoinPool.commonPool(), 42);
+		Metrics.Snapshot after = Metrics.snapshot();
+		assertEquals(stats.suggestions(), after.count(Counter.SUGGESTIONS) - before.count(Counter.SUGGESTIONS));
+		assertEquals(stats.refuted(), after.count(Counter.REFUTED) - before.count(Counter.REFUTED));
+		assertEquals(stats.unrefuted(), after.count(Counter.UNREFUTED) - before.count(Counter.UNREFUTED));
+		assertEquals(stats.falseAccusations(), after.count(Counter.EXPULSIONS) - before.count(Counter.EXPULSIONS));
+		assertTrue(after.count(Counter.TURNS) - before.count(Counter.TURNS) >= 500);
+		assertTrue(after.count(Counter.STEPS) > before.count(Counter.STEPS));
+		assertTrue(after.samples(Timer.TURN) > before.samples(Timer.TURN));		//one turn in SAMPLE is timed
+	}
+
+	@Test
+	public void exports() {
+		Metrics.Snapshot s = Metrics.snapshot();
+		assertTrue(s.toJson().startsWith("{\"counters\":{\"turns\":"));
+		assertTrue(s.toJson().contains("\"render_ns\":{\"count\":"));
+		assertTrue(s.toString().contains("input_wait_ns"));
+	}
+
+	@Test
+	public void flightRecording() throws Exception {
+		Path file = Files.createTempFile("games", ".jfr");
+		SimulationStats stats;
+		try (Recording recording = new Recording(Configuration.create(Paths.get("assets/cluedo.jfc")))) {
+			recording.start();
+			stats = new Simulator(4, 10000).run(50, ForkJoinPool.commonPool(), 7);
+			recording.stop();
+			recording.dump(file);
+		}
+		JfrSummary summary = new JfrSummary().read(file);
+		boolean timed = false;		//accusations are timed, not just committed
+		for (RecordedEvent e : RecordingFile.readAllEvents(file)) {
+			timed |= e.getEventType().getName().equals("cluedo.Accusation") && !e.getDuration().isZero();
+		}
+		Files.delete(file);
+		assertTrue(timed);
+		assertEquals(stats.suggestions(), summary.count("cluedo.Suggestion"));
+		assertEquals(stats.refuted(), summary.refuted());
+		assertEquals(stats.games() - stats.unsolved(), summary.correct());
+		assertTrue(summary.count("cluedo.Turn") >= 50);
+		assertTrue(summary.count("cluedo.Move") > summary.count("cluedo.Turn"));
+		assertTrue(summary.toString().contains("Suggestions per room:"));
+	}
+}
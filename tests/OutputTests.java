@@ -0,0 +1,70 @@
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import view.AsyncSink;
+
+/**
+ * Test the asynchronous output queue
+ * @author Ronni Perez
+ *
+ */
+public class OutputTests {
+	@Test
+	public void keepsOrderAcrossWrap() {
+		ByteArrayOutputStream target = new ByteArrayOutputStream();
+		AsyncSink sink = new AsyncSink(target, 16);		//tiny ring, every line wraps and fills it
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			String line = "/** line "+i+"\n";
+			sink.write(line.getBytes(), 0, line.length());
+			expected.append(line);
+		}
+		sink.flush();
+		assertEquals(expected.toString(), target.toString());
+		sink.close();
+	}
+
+	@Test
+	public void writeDoesNotWaitForTerminal() {
+		SlowTerminal target = new SlowTerminal();
+		AsyncSink sink = new AsyncSink(target, 1 << 16);
+		long start = System.nanoTime();
+		for (int i = 0; i < 20; i++) {
+			sink.write(new byte[100], 0, 100);
+		}
+		long queued = System.nanoTime() - start;
+		sink.flush();		//waits for the slow writes
+		long flushed = System.nanoTime() - start;
+		assertEquals(2000, target.bytes);
+		assertTrue(queued < flushed);
+		assertTrue(target.writes < 20);		//batched
+		sink.close();
+	}
+
+	//a terminal that takes 20 ms per write
+	private static class SlowTerminal extends OutputStream {
+		private volatile int bytes;
+		private volatile int writes;
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] {(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				throw new IOException(e);
+			}
+			bytes += len;
+			writes++;
+		}
+	}
+}
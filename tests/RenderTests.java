@@ -0,0 +1,57 @@
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+
+import main.Loader;
+import model.Board;
+import view.BoardRenderer;
+
+/**
+ * Test drawing the board, in full and differential mode
+ * @author Ronni Perez
+ *
+ */
+public class RenderTests {
+	@Test
+	public void fullFrame() {
+		Board board = new Board(new Loader(18, 18).getTopology(), 1);	//P1 @ 17,5
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new BoardRenderer(false).render(board, out);
+		String[] lines = out.toString().split(System.lineSeparator());
+		assertEquals(19, lines.length);		//column numbers then 18 rows
+		assertTrue(lines[0].startsWith("   00 01 02"));
+		assertEquals("00 KC KC KC KC KC __ BR BR BR BR BR BR __ __ CV CV CV CV ", lines[1]);
+		assertEquals("17 LN LN LN LN LN P1 __ HL HL HL HL HL __ __ SD SD SD SD ", lines[18]);
+	}
+
+	@Test
+	public void fullFrameEveryTime() {
+		Board board = new Board(new Loader(18, 18).getTopology(), 1);
+		BoardRenderer renderer = new BoardRenderer(false);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		renderer.render(board, out);
+		byte[] first = renderer.lastFrame();
+		renderer.render(board, out);
+		assertArrayEquals(first, renderer.lastFrame());		//same board, same frame
+	}
+
+	@Test
+	public void differentialRepaint() {
+		Board board = new Board(new Loader(18, 18).getTopology(), 1);	//P1 @ 17,5
+		BoardRenderer renderer = new BoardRenderer(true);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		renderer.render(board, out);		//whole board first
+		int full = out.size();
+		assertTrue(board.movePiece(1, 16, 5));
+		out.reset();
+		renderer.render(board, out);
+		//save cursor, P1 gone from 17,5 (line 19), P1 onto 16,5 (line 18), restore cursor
+		assertEquals("\u001b7\u001b[18;19HP1\u001b[19;19H__\u001b8", out.toString());
+		assertTrue(out.size() < full / 10);
+		out.reset();
+		renderer.render(board, out);
+		assertEquals(0, out.size());		//nothing changed, nothing written
+	}
+}
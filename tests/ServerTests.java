@@ -0,0 +1,158 @@
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import main.GameServer;
+import main.Loader;
+import main.SelectorServer;
+import view.Pacing;
+
+/**
+ * Test games played over loopback connections
+ * @author Ronni Perez
+ *
+ */
+public class ServerTests {
+	private static final String BOTS_ONLY = "3\n3\n2\n";	//3 players, all played by the computer, then quit
+
+	@Test
+	public void concurrentTables() throws Exception {
+		try (GameServer server = new GameServer(0, 1, Pacing.Profile.NONE, new Loader())) {
+			ExecutorService clients = Executors.newFixedThreadPool(16);
+			List<Future<String>> games = new ArrayList<Future<String>>();
+			for (int i = 0; i < 64; i++) {
+				games.add(clients.submit(() -> play(server.getPort(), BOTS_ONLY)));
+			}
+			for (Future<String> game : games) {
+				String out = game.get();
+				assertTrue(out.startsWith("/** Welcome to Cluedo game"));
+				assertTrue(out.contains("won the game") || out.contains("The case has gone cold"));
+			}
+			clients.shutdown();
+		}
+	}
+
+	@Test
+	public void tableOfTwo() throws Exception {
+		try (GameServer server = new GameServer(0, 2, Pacing.Profile.NONE, new Loader())) {
+			ExecutorService clients = Executors.newFixedThreadPool(2);
+			Future<String> first = clients.submit(() -> play(server.getPort(), BOTS_ONLY));
+			Future<String> second = clients.submit(() -> play(server.getPort(), BOTS_ONLY));	//either may get the first seat
+			String a = first.get(), b = second.get();
+			assertTrue(a.startsWith("/** Waiting for the other players to join")		//whoever waited for the other
+					^ b.startsWith("/** Waiting for the other players to join"));
+			assertTrue(a.contains("Welcome to Cluedo game"));		//both see the same game
+			assertTrue(b.contains("Welcome to Cluedo game"));
+			clients.shutdown();
+		}
+	}
+
+	@Test
+	public void clientLeaving() throws Exception {
+		try (GameServer server = new GameServer(0, 1, Pacing.Profile.NONE, new Loader())) {
+			play(server.getPort(), "4\n");		//leaves while asked how many bots
+			for (int i = 0; i < 100 && server.sessions() > 0; i++) {
+				Thread.sleep(10);
+			}
+			assertEquals(0, server.sessions());
+		}
+	}
+
+	@Test
+	public void selectorGames() throws Exception {
+		try (SelectorServer server = new SelectorServer(0, 2, new Loader())) {
+			ExecutorService clients = Executors.newFixedThreadPool(16);
+			List<Future<String>> games = new ArrayList<Future<String>>();
+			for (int i = 0; i < 64; i++) {
+				games.add(clients.submit(() -> play(server.getPort(), "3\r\ncards\nboard\naccuse 1 1 1\nquit\n")));
+			}
+			for (Future<String> game : games) {
+				String out = game.get();
+				assertTrue(out.startsWith("/** Welcome to Cluedo game"));
+				assertTrue(out.contains("You have the following cards"));
+				assertTrue(out.contains("You WON") || out.contains("P1 is expelled") || out.contains("won the game"));
+				assertTrue(out.endsWith("/** Bye\n"));
+			}
+			clients.shutdown();
+			for (int i = 0; i < 100 && server.sessions() > 0; i++) {
+				Thread.sleep(10);
+			}
+			assertEquals(0, server.sessions());
+		}
+	}
+
+	@Test
+	public void selectorInvalidInput() throws Exception {
+		try (SelectorServer server = new SelectorServer(0, 1, new Loader())) {
+			String out = play(server.getPort(), "seven\n3\nfly\nmove x\nquit\n");
+			assertTrue(out.contains("Enter number between (inclusive) 3 and  (inclusive) 6"));
+			assertTrue(out.contains("Unknown command"));
+			assertTrue(out.contains("Invalid. Type help"));
+		}
+	}
+
+	@Test
+	public void selectorSurvivesResets() throws Exception {
+		try (SelectorServer server = new SelectorServer(0, 1, new Loader())) {
+			for (int i = 0; i < 50; i++) {		//connect and reset at once, before or while being registered
+				Socket socket = new Socket("localhost", server.getPort());
+				socket.setSoLinger(true, 0);
+				socket.close();
+			}
+			String out = play(server.getPort(), "3\nquit\n");		//same thread still serves and accepts
+			assertTrue(out.startsWith("/** Welcome to Cluedo game"));
+			for (int i = 0; i < 100 && server.sessions() > 0; i++) {
+				Thread.sleep(10);
+			}
+			assertEquals(0, server.sessions());
+		}
+	}
+
+	@Test
+	public void selectorCloseDisconnects() throws Exception {
+		SelectorServer server = new SelectorServer(0, 2, new Loader());
+		List<Socket> sockets = new ArrayList<Socket>();
+		for (int i = 0; i < 8; i++) {		//connected, never typing anything
+			Socket socket = new Socket("localhost", server.getPort());
+			socket.setSoTimeout(5000);
+			sockets.add(socket);
+		}
+		for (Socket socket : sockets) {
+			assertTrue(socket.getInputStream().read() >= 0);		//served, sent the welcome
+		}
+		server.close();
+		assertEquals(0, server.sessions());		//counted out before close() returns
+		for (Socket socket : sockets) {
+			InputStream in = socket.getInputStream();
+			while (in.read() >= 0) 	;		//rest of the welcome, then hung up
+			socket.close();
+		}
+	}
+
+	/**
+	 * Connect, send everything, read until the server hangs up
+	 */
+	private static String play(int port, String input) throws IOException {
+		try (Socket socket = new Socket("localhost", port)) {
+			socket.getOutputStream().write(input.getBytes());
+			socket.shutdownOutput();
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			InputStream in = socket.getInputStream();
+			byte[] buf = new byte[8192];
+			for (int n; (n = in.read(buf)) > 0; ) {
+				out.write(buf, 0, n);
+			}
+			return out.toString();
+		}
+	}
+}